@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * IBM Corporation - Initial API and implementation
+ *******************************************************************************/
+package org.eclipse.remote.core;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+
+/**
+ * A connection service for operating on many files at once. Where the connection supports it, implementations use cheaper
+ * mechanisms than walking the tree through {@link IFileStore} (e.g. streaming an archive over a single channel), and fall
+ * back to per-file operations when they are not available.
+ *
+ * Paths are interpreted in the same way as {@link IRemoteFileService#getResource(String)}.
+ *
+ * @since 3.0
+ */
+public interface IRemoteBulkFileService extends IRemoteConnection.Service {
+
+	/**
+	 * Listener that is notified of checksums as they become available.
+	 */
+	public interface IChecksumListener {
+		/**
+		 * Called once for each file whose checksum has been computed.
+		 *
+		 * @param path
+		 *            path of the file, as passed to {@link IRemoteBulkFileService#getChecksums}
+		 * @param checksum
+		 *            lower case hex checksum
+		 */
+		void checksumComputed(String path, String checksum);
+	}
+
+	/**
+	 * Listener that is notified of file info as it becomes available.
+	 */
+	public interface IFileInfoListener {
+		/**
+		 * Called once for each path whose info has been fetched.
+		 *
+		 * @param path
+		 *            path as passed to {@link IRemoteBulkFileService#fetchInfos}
+		 * @param info
+		 *            file info for the path
+		 */
+		void fileInfoFetched(IPath path, IFileInfo info);
+	}
+
+	/**
+	 * Checksum algorithm identifier for SHA-256 (as computed by sha256sum).
+	 */
+	public static final String SHA256 = "sha256"; //$NON-NLS-1$
+
+	/**
+	 * Checksum algorithm identifier for MD5 (as computed by md5sum).
+	 */
+	public static final String MD5 = "md5"; //$NON-NLS-1$
+
+	/**
+	 * Checksum algorithm identifier for 64 bit xxHash (as computed by xxhsum).
+	 */
+	public static final String XXHASH = "xxhash"; //$NON-NLS-1$
+
+	/**
+	 * Option flag constant (value 0) indicating that no options are set.
+	 */
+	public static final int NONE = 0;
+
+	/**
+	 * Option flag constant indicating that data should be compressed while in transit, if the connection supports it.
+	 */
+	public static final int COMPRESS = 1 << 0;
+
+	/**
+	 * Copy the contents of the directory source, typically on the local file system, into the directory path on the
+	 * connection. The directory is created if it does not exist and existing files are overwritten. Permissions and
+	 * modification times are preserved.
+	 *
+	 * If source is a file rather than a directory, it is copied to path. Implementations may split large files into
+	 * segments that are transferred in parallel.
+	 *
+	 * @param source
+	 *            directory or file to copy from
+	 * @param path
+	 *            directory on the connection to copy to
+	 * @param options
+	 *            bit-wise or of option flag constants ({@link #NONE} or {@link #COMPRESS})
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @throws RemoteConnectionException
+	 *             if the copy fails or is cancelled
+	 */
+	void upload(IFileStore source, String path, int options, IProgressMonitor monitor) throws RemoteConnectionException;
+
+	/**
+	 * Copy the contents of the directory path on the connection into the directory destination, typically on the local
+	 * file system. The directory is created if it does not exist and existing files are overwritten. Permissions and
+	 * modification times are preserved.
+	 *
+	 * If path is a file rather than a directory, it is copied to destination. Implementations may split large files into
+	 * segments that are transferred in parallel.
+	 *
+	 * @param path
+	 *            directory or file on the connection to copy from
+	 * @param destination
+	 *            directory to copy to
+	 * @param options
+	 *            bit-wise or of option flag constants ({@link #NONE} or {@link #COMPRESS})
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @throws RemoteConnectionException
+	 *             if the copy fails or is cancelled
+	 */
+	void download(String path, IFileStore destination, int options, IProgressMonitor monitor) throws RemoteConnectionException;
+
+	/**
+	 * Compute checksums of files on the connection without transferring their contents, for example to find out which
+	 * files differ from a local copy. Implementations compute many checksums per request and report each one to the
+	 * listener as soon as it is available.
+	 *
+	 * @param paths
+	 *            paths of the files
+	 * @param algorithm
+	 *            algorithm identifier ({@link #SHA256}, {@link #MD5} or {@link #XXHASH})
+	 * @param listener
+	 *            listener to notify as each checksum is computed, or null
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @return map from path to lower case hex checksum. Paths that do not exist or can't be read are not included.
+	 * @throws RemoteConnectionException
+	 *             if the algorithm is not available on the connection, or the checksums could not be computed
+	 */
+	Map<String, String> getChecksums(Collection<String> paths, String algorithm, IChecksumListener listener,
+			IProgressMonitor monitor) throws RemoteConnectionException;
+
+	/**
+	 * Fetch the file info of many paths at once, as {@link IFileStore#fetchInfo()} would for each of them. Symbolic links
+	 * are not followed. Implementations issue the requests concurrently (e.g. pipelined over one channel) so that the cost
+	 * is close to that of a single request.
+	 *
+	 * @param paths
+	 *            paths to fetch. Relative paths are relative to the base directory.
+	 * @param listener
+	 *            listener to notify as the info for each path arrives, or null
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @return map from path to file info, in the order of paths. Paths that do not exist have info for which
+	 *         {@link IFileInfo#exists()} is false; if the path could not be read, {@link IFileInfo#getError()} is also
+	 *         set.
+	 * @throws RemoteConnectionException
+	 *             if the connection fails or the operation is cancelled
+	 */
+	Map<IPath, IFileInfo> fetchInfos(Collection<IPath> paths, IFileInfoListener listener, IProgressMonitor monitor)
+			throws RemoteConnectionException;
+
+	/**
+	 * Set the attributes of many files at once, as {@link IFileStore#putInfo(IFileInfo, int, IProgressMonitor)} would for
+	 * each of them. Implementations send the updates concurrently so that the cost is close to that of a single request.
+	 * All the files are updated even if some of them fail.
+	 *
+	 * @param infos
+	 *            map from path to the info to set. Relative paths are relative to the base directory.
+	 * @param options
+	 *            bit-wise or of {@link org.eclipse.core.filesystem.EFS#SET_ATTRIBUTES} and
+	 *            {@link org.eclipse.core.filesystem.EFS#SET_LAST_MODIFIED}
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @throws RemoteConnectionException
+	 *             if the attributes of any of the files could not be set
+	 */
+	void putInfos(Map<IPath, IFileInfo> infos, int options, IProgressMonitor monitor) throws RemoteConnectionException;
+
+	/**
+	 * Delete many files and directory trees at once, as {@link IFileStore#delete(int, IProgressMonitor)} would for each of
+	 * them. Where the connection supports it, the paths are removed by a single remote command rather than one request per
+	 * path. All the paths are attempted even if some of them fail.
+	 *
+	 * @param paths
+	 *            paths to delete. Relative paths are relative to the base directory.
+	 * @param monitor
+	 *            progress monitor, or null if progress reporting is not required
+	 * @return map from each path that could not be deleted to a message describing why. Paths that do not exist are not
+	 *         included. The map is empty if everything was deleted.
+	 * @throws RemoteConnectionException
+	 *             if the connection fails or the operation is cancelled
+	 */
+	Map<String, String> delete(Collection<String> paths, IProgressMonitor monitor) throws RemoteConnectionException;
+}
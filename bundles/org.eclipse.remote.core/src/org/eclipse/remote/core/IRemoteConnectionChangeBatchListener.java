@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.core;
+
+import java.util.List;
+
+/**
+ * A connection change listener that is given all the events that have accumulated since it was last notified at once,
+ * instead of one at a time. Global listeners (see
+ * {@link IRemoteServicesManager#addRemoteConnectionChangeListener(IRemoteConnectionChangeListener)}) are notified
+ * asynchronously, so a listener that does something expensive for each notification, such as refreshing a viewer, can
+ * implement this interface to do it once per burst of changes.
+ *
+ * @since 3.0
+ */
+public interface IRemoteConnectionChangeBatchListener extends IRemoteConnectionChangeListener {
+
+	/**
+	 * Notifies this listener that connections have changed. Consecutive identical events for a connection have been
+	 * merged.
+	 *
+	 * @param events
+	 *            the connection change events, in the order they happened
+	 */
+	public void connectionsChanged(List<RemoteConnectionChangeEvent> events);
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     QNX - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.remote.core;
+
+import java.util.Map;
+
+/**
+ * A connection service that records what the operations done over a connection cost: how many requests were made, how
+ * many failed, how many bytes were moved, how long they took and how long they waited to be run.
+ *
+ * Operations are identified by name. Names are specific to the connection type, e.g. the JSch connection uses the name of
+ * the command (FetchInfoCommand, ChildInfosCommand, ...), with each request the command makes to the remote host counted
+ * separately. All connection types use {@link #EXEC} for starting processes.
+ *
+ * Recording is cheap enough to be always on. Values are read with {@link #getSnapshot()}.
+ *
+ * @since 3.0
+ */
+public interface IRemoteConnectionMetricsService extends IRemoteConnection.Service {
+
+	/**
+	 * Operation name for starting a process.
+	 */
+	public static final String EXEC = "exec"; //$NON-NLS-1$
+
+	/**
+	 * Operation name for starting a shell.
+	 */
+	public static final String SHELL = "shell"; //$NON-NLS-1$
+
+	/**
+	 * Get the metrics recorded since the connection was created or {@link #reset()} was last called. Operations that are in
+	 * progress while the snapshot is taken may be partly included.
+	 *
+	 * @return map from operation name to the metrics of the operation, sorted by name
+	 */
+	public Map<String, RemoteOperationMetrics> getSnapshot();
+
+	/**
+	 * Discard all the metrics recorded so far.
+	 */
+	public void reset();
+}
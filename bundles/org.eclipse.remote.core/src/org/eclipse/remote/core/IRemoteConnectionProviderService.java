@@ -24,6 +24,12 @@ public interface IRemoteConnectionProviderService extends IRemoteConnectionType.
 	 * Initialize the service. Called after all existing connections are loaded.
 	 * This method typically will add the initial connections or start up a job to do it.
 	 * This method is called on startup, it's important that it be fast.
+	 * 
+	 * If more than one connection type has a provider, the providers are initialized
+	 * in parallel on background threads while the thread that started the remote
+	 * services manager waits for them. Implementations must not block waiting for
+	 * that thread, e.g. with Display.syncExec() or by joining a job that needs a lock
+	 * held by it, as this would deadlock.
 	 */
 	void init();
 
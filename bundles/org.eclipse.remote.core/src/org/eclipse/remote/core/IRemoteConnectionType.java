@@ -12,6 +12,7 @@ package org.eclipse.remote.core;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
@@ -174,6 +175,49 @@ public interface IRemoteConnectionType {
 	 */
 	List<IRemoteConnection> getConnections();
 
+	/**
+	 * Get the connections whose names start with a prefix, sorted by name. The result is a read-only view of a snapshot
+	 * of the connections, so it is cheap to get even for very many connections, and is not affected by later changes.
+	 * 
+	 * @param prefix
+	 *            name prefix, or an empty string for all connections
+	 * @param offset
+	 *            index of the first matching connection to return
+	 * @param limit
+	 *            maximum number of connections to return, or -1 for no limit
+	 * @return matching connections
+	 * @throws IllegalArgumentException
+	 *             if offset is negative, or limit is negative and not -1
+	 * @since 3.0
+	 */
+	List<IRemoteConnection> getConnections(String prefix, int offset, int limit);
+
+	/**
+	 * Find the connections whose names start with a prefix and that have the given attribute values, sorted by name.
+	 * 
+	 * @param prefix
+	 *            name prefix, or an empty string for all connections
+	 * @param attributes
+	 *            attribute names and the values the connections must have, may be empty
+	 * @param offset
+	 *            index of the first matching connection to return
+	 * @param limit
+	 *            maximum number of connections to return, or -1 for no limit
+	 * @return matching connections
+	 * @throws IllegalArgumentException
+	 *             if offset is negative, or limit is negative and not -1
+	 * @since 3.0
+	 */
+	List<IRemoteConnection> findConnections(String prefix, Map<String, String> attributes, int offset, int limit);
+
+	/**
+	 * Get the number of connections for this service provider.
+	 * 
+	 * @return number of connections
+	 * @since 3.0
+	 */
+	int getConnectionCount();
+
 	/**
 	 * Creates a new remote connection named with supplied name. The connection attributes will be the default for the
 	 * implementation.
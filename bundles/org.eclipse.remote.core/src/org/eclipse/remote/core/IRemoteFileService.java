@@ -22,6 +22,26 @@ import org.eclipse.core.runtime.IPath;
  */
 public interface IRemoteFileService extends IRemoteConnection.Service {
 
+	/**
+	 * Option flag for {@link IFileStore#childInfos(int, org.eclipse.core.runtime.IProgressMonitor)} indicating that the
+	 * targets of symbolic links are not needed, so {@link org.eclipse.core.filesystem.EFS#ATTRIBUTE_LINK_TARGET} may be
+	 * left unset. File stores that don't recognize the flag ignore it.
+	 *
+	 * @since 3.0
+	 */
+	public static final int NO_LINK_TARGETS = 1 << 16;
+
+	/**
+	 * Option flag for {@link IFileStore#childInfos(int, org.eclipse.core.runtime.IProgressMonitor)},
+	 * {@link IFileStore#childNames(int, org.eclipse.core.runtime.IProgressMonitor)} and
+	 * {@link IFileStore#childStores(int, org.eclipse.core.runtime.IProgressMonitor)} indicating that hidden entries (names
+	 * starting with '.') may be left out. File stores that don't recognize the flag ignore it, so callers must still be
+	 * prepared to filter them.
+	 *
+	 * @since 3.0
+	 */
+	public static final int EXCLUDE_HIDDEN = 1 << 17;
+
 	/**
 	 * Get the resource associated with path. IFileStore can then be used to
 	 * perform operations on the file.
@@ -23,4 +23,12 @@ public interface IRemotePreferenceConstants {
 	 * @since 2.0
 	 */
 	public static final String PREF_CONNECTION_TYPE_ID = "connectionTypeId"; //$NON-NLS-1$
+
+	/**
+	 * Preference setting for the number of seconds the decrypted secure attributes of a connection are kept in memory. A
+	 * value of zero turns the cache off, so secure storage is read every time.
+	 * 
+	 * @since 3.0
+	 */
+	public static final String PREF_SECURE_ATTRIBUTE_CACHE_TIMEOUT = "secureAttributeCacheTimeout"; //$NON-NLS-1$
 }
@@ -11,8 +11,11 @@
 package org.eclipse.remote.core;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+
 /**
  * The main entry point into the remote services system. The remote services manager
  * is an OSGi service. It provides a list of connection types and the global
@@ -95,7 +98,25 @@ public interface IRemoteServicesManager {
 	List<IRemoteConnection> getAllRemoteConnections();
 
 	/**
-	 * Add a global connection change listener that receives events for all connections.
+	 * Save many connection working copies at once. The preferences and the secure storage are each flushed once after all
+	 * the changes have been applied, rather than once per connection. Working copies that have not been changed are
+	 * skipped.
+	 * 
+	 * @param workingCopies
+	 *            working copies to save
+	 * @return the saved connections, in the same order as the working copies
+	 * @throws RemoteConnectionException
+	 *             if a working copy could not be applied or the changes could not be flushed. Working copies before the
+	 *             failing one have been applied, but may not have been flushed.
+	 * @since 3.0
+	 */
+	List<IRemoteConnection> saveConnections(Collection<IRemoteConnectionWorkingCopy> workingCopies)
+			throws RemoteConnectionException;
+
+	/**
+	 * Add a global connection change listener that receives events for all connections. Global listeners are notified
+	 * asynchronously, in the order the events were fired, and consecutive identical events for a connection may be merged
+	 * (see {@link IRemoteConnectionChangeBatchListener}).
 	 * 
 	 * @param listener
 	 *            global connection change listener to be added
@@ -112,7 +133,7 @@ public interface IRemoteServicesManager {
 
 	/**
 	 * Used by connections and other components to notify the global connection
-	 * change listeners of events.
+	 * change listeners of events. Returns without waiting for the listeners.
 	 * 
 	 * @param event
 	 *            connection change event
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     QNX - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.remote.core;
+
+import java.util.Arrays;
+
+/**
+ * The metrics of one operation of a connection, as returned by {@link IRemoteConnectionMetricsService#getSnapshot()}.
+ * Times are in nanoseconds.
+ *
+ * Latencies are also counted in a histogram of {@link #BUCKETS} buckets whose bounds are powers of two in microseconds:
+ * bucket 0 counts latencies below 1 microsecond, bucket <i>i</i> latencies from 2<sup><i>i</i>-1</sup> up to
+ * 2<sup><i>i</i></sup> microseconds, and the last bucket everything above.
+ *
+ * @since 3.0
+ */
+public class RemoteOperationMetrics {
+	/**
+	 * Number of buckets in the latency histogram.
+	 */
+	public static final int BUCKETS = 32;
+
+	private final String fName;
+	private final long fCount;
+	private final long fErrorCount;
+	private final long fBytesIn;
+	private final long fBytesOut;
+	private final long fTotalLatency;
+	private final long fMaxLatency;
+	private final long[] fHistogram;
+	private final long fQueuedCount;
+	private final long fTotalQueueWait;
+	private final long fMaxQueueWait;
+
+	/**
+	 * Create a snapshot. This is meant to be called by implementations of {@link IRemoteConnectionMetricsService}.
+	 */
+	public RemoteOperationMetrics(String name, long count, long errorCount, long bytesIn, long bytesOut, long totalLatency,
+			long maxLatency, long[] histogram, long queuedCount, long totalQueueWait, long maxQueueWait) {
+		fName = name;
+		fCount = count;
+		fErrorCount = errorCount;
+		fBytesIn = bytesIn;
+		fBytesOut = bytesOut;
+		fTotalLatency = totalLatency;
+		fMaxLatency = maxLatency;
+		fHistogram = Arrays.copyOf(histogram, BUCKETS);
+		fQueuedCount = queuedCount;
+		fTotalQueueWait = totalQueueWait;
+		fMaxQueueWait = maxQueueWait;
+	}
+
+	/**
+	 * Get the histogram bucket of a latency.
+	 *
+	 * @param latency
+	 *            latency in nanoseconds
+	 * @return bucket index
+	 */
+	public static int getBucket(long latency) {
+		return Math.min(64 - Long.numberOfLeadingZeros(latency / 1000), BUCKETS - 1);
+	}
+
+	/**
+	 * Get the upper bound of a histogram bucket.
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return exclusive upper bound in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket
+	 */
+	public static long getBucketLimit(int bucket) {
+		return bucket < BUCKETS - 1 ? (1L << bucket) * 1000 : Long.MAX_VALUE;
+	}
+
+	public String getName() {
+		return fName;
+	}
+
+	/**
+	 * @return number of times the operation was done
+	 */
+	public long getCount() {
+		return fCount;
+	}
+
+	/**
+	 * @return number of times the operation failed
+	 */
+	public long getErrorCount() {
+		return fErrorCount;
+	}
+
+	/**
+	 * @return number of bytes received from the remote
+	 */
+	public long getBytesIn() {
+		return fBytesIn;
+	}
+
+	/**
+	 * @return number of bytes sent to the remote
+	 */
+	public long getBytesOut() {
+		return fBytesOut;
+	}
+
+	public long getTotalLatency() {
+		return fTotalLatency;
+	}
+
+	public long getAverageLatency() {
+		return fCount > 0 ? fTotalLatency / fCount : 0;
+	}
+
+	public long getMaxLatency() {
+		return fMaxLatency;
+	}
+
+	/**
+	 * Estimate a latency percentile from the histogram.
+	 *
+	 * @param percentile
+	 *            percentile between 0 and 100
+	 * @return upper bound of the bucket the percentile falls into, or the maximum latency if that is lower
+	 */
+	public long getLatencyPercentile(double percentile) {
+		long total = 0;
+		for (long count : fHistogram) {
+			total += count;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += fHistogram[i];
+			if (seen >= rank && seen > 0) {
+				return Math.min(getBucketLimit(i), fMaxLatency);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return copy of the latency histogram
+	 */
+	public long[] getLatencyHistogram() {
+		return fHistogram.clone();
+	}
+
+	/**
+	 * @return number of times the operation was queued to be run on another thread
+	 */
+	public long getQueuedCount() {
+		return fQueuedCount;
+	}
+
+	/**
+	 * @return total time the operation spent queued before it was run
+	 */
+	public long getTotalQueueWait() {
+		return fTotalQueueWait;
+	}
+
+	public long getAverageQueueWait() {
+		return fQueuedCount > 0 ? fTotalQueueWait / fQueuedCount : 0;
+	}
+
+	public long getMaxQueueWait() {
+		return fMaxQueueWait;
+	}
+
+	@Override
+	public String toString() {
+		return fName + ": count=" + fCount + " errors=" + fErrorCount + " in=" + fBytesIn + " out=" + fBytesOut //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ " avg=" + getAverageLatency() + "ns p99=" + getLatencyPercentile(99) + "ns max=" + fMaxLatency //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ "ns queued=" + fQueuedCount + " avgWait=" + getAverageQueueWait() + "ns"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.remote.core.IRemoteBulkFileService;
+
+/**
+ * Checksums of local files, computed the same way as the command line tools used on remote hosts (sha256sum, md5sum and
+ * xxhsum), so that the results can be compared directly.
+ */
+public final class RemoteChecksums {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final char[] HEX = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	private RemoteChecksums() {
+		// cannot create new instance
+	}
+
+	/**
+	 * Get a digest for one of the algorithms supported by {@link IRemoteBulkFileService}.
+	 *
+	 * @param algorithm
+	 *            algorithm identifier
+	 * @return a new digest
+	 * @throws NoSuchAlgorithmException
+	 *             if the algorithm is not known
+	 */
+	public static MessageDigest getDigest(String algorithm) throws NoSuchAlgorithmException {
+		if (IRemoteBulkFileService.SHA256.equals(algorithm)) {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		}
+		if (IRemoteBulkFileService.MD5.equals(algorithm)) {
+			return MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+		}
+		if (IRemoteBulkFileService.XXHASH.equals(algorithm)) {
+			return new XXHash64();
+		}
+		throw new NoSuchAlgorithmException(algorithm);
+	}
+
+	/**
+	 * Compute the checksum of a local file.
+	 *
+	 * @param file
+	 *            file to read
+	 * @param algorithm
+	 *            algorithm identifier
+	 * @return lower case hex checksum
+	 * @throws IOException
+	 *             if the file can't be read or the algorithm is not known
+	 */
+	public static String checksum(File file, String algorithm) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = getDigest(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e.getMessage());
+		}
+		try (FileInputStream in = new FileInputStream(file)) {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			while (channel.read(buffer) >= 0) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	public static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * 64 bit xxHash with a zero seed. The digest is the big endian (canonical) form of the hash, which is what xxhsum
+	 * prints.
+	 */
+	private static class XXHash64 extends MessageDigest {
+		private static final long P1 = 0x9E3779B185EBCA87L;
+		private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+		private static final long P3 = 0x165667B19E3779F9L;
+		private static final long P4 = 0x85EBCA77C2B2AE63L;
+		private static final long P5 = 0x27D4EB2F165667C5L;
+
+		private final byte[] fBuffer = new byte[32];
+		private int fBuffered;
+		private long fLength;
+		private long v1, v2, v3, v4;
+
+		public XXHash64() {
+			super("XXH64"); //$NON-NLS-1$
+			engineReset();
+		}
+
+		@Override
+		protected void engineReset() {
+			v1 = P1 + P2;
+			v2 = P2;
+			v3 = 0;
+			v4 = -P1;
+			fBuffered = 0;
+			fLength = 0;
+		}
+
+		@Override
+		protected void engineUpdate(byte input) {
+			engineUpdate(new byte[] { input }, 0, 1);
+		}
+
+		@Override
+		protected void engineUpdate(byte[] input, int offset, int len) {
+			fLength += len;
+			if (fBuffered > 0) {
+				int n = Math.min(len, 32 - fBuffered);
+				System.arraycopy(input, offset, fBuffer, fBuffered, n);
+				fBuffered += n;
+				offset += n;
+				len -= n;
+				if (fBuffered < 32) {
+					return;
+				}
+				stripe(fBuffer, 0);
+				fBuffered = 0;
+			}
+			while (len >= 32) {
+				stripe(input, offset);
+				offset += 32;
+				len -= 32;
+			}
+			System.arraycopy(input, offset, fBuffer, 0, len);
+			fBuffered = len;
+		}
+
+		@Override
+		protected byte[] engineDigest() {
+			long h;
+			if (fLength >= 32) {
+				h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+				h = merge(h, v1);
+				h = merge(h, v2);
+				h = merge(h, v3);
+				h = merge(h, v4);
+			} else {
+				h = P5;
+			}
+			h += fLength;
+			int pos = 0;
+			for (; pos + 8 <= fBuffered; pos += 8) {
+				h ^= round(0, getLong(fBuffer, pos));
+				h = Long.rotateLeft(h, 27) * P1 + P4;
+			}
+			if (pos + 4 <= fBuffered) {
+				h ^= (getInt(fBuffer, pos) & 0xffffffffL) * P1;
+				h = Long.rotateLeft(h, 23) * P2 + P3;
+				pos += 4;
+			}
+			for (; pos < fBuffered; pos++) {
+				h ^= (fBuffer[pos] & 0xff) * P5;
+				h = Long.rotateLeft(h, 11) * P1;
+			}
+			h ^= h >>> 33;
+			h *= P2;
+			h ^= h >>> 29;
+			h *= P3;
+			h ^= h >>> 32;
+			engineReset();
+			byte[] result = new byte[8];
+			for (int i = 7; i >= 0; i--) {
+				result[i] = (byte) h;
+				h >>>= 8;
+			}
+			return result;
+		}
+
+		@Override
+		protected int engineGetDigestLength() {
+			return 8;
+		}
+
+		private void stripe(byte[] b, int offset) {
+			v1 = round(v1, getLong(b, offset));
+			v2 = round(v2, getLong(b, offset + 8));
+			v3 = round(v3, getLong(b, offset + 16));
+			v4 = round(v4, getLong(b, offset + 24));
+		}
+
+		private static long round(long acc, long input) {
+			acc += input * P2;
+			acc = Long.rotateLeft(acc, 31);
+			return acc * P1;
+		}
+
+		private static long merge(long acc, long val) {
+			acc ^= round(0, val);
+			return acc * P1 + P4;
+		}
+
+		private static long getLong(byte[] b, int i) {
+			return (getInt(b, i) & 0xffffffffL) | ((long) getInt(b, i + 4) << 32);
+		}
+
+		private static int getInt(byte[] b, int i) {
+			return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+		}
+	}
+}
@@ -12,8 +12,6 @@ package org.eclipse.remote.internal.core;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ListenerList;
@@ -25,6 +23,7 @@ import org.eclipse.remote.core.IRemoteConnectionControlService;
 import org.eclipse.remote.core.IRemoteConnectionPropertyService;
 import org.eclipse.remote.core.IRemoteConnectionType;
 import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
+import org.eclipse.remote.core.IRemotePreferenceConstants;
 import org.eclipse.remote.core.RemoteConnectionChangeEvent;
 import org.eclipse.remote.core.exception.ConnectionExistsException;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
@@ -41,10 +40,17 @@ public class RemoteConnection implements IRemoteConnection {
 	private final RemoteConnectionType connectionType;
 	private String name;
 
-	private final Map<Class<? extends Service>, Service> servicesMap = new HashMap<>();
+	private final ServiceCache<Class<? extends Service>, Service> services = new ServiceCache<Class<? extends Service>, Service>() {
+		@Override
+		protected Service create(Class<? extends Service> key) {
+			return connectionType.getConnectionService(RemoteConnection.this, key);
+		}
+	};
 
 	private final ListenerList fListeners = new ListenerList();
 
+	private final SecureAttributeCache secureAttributeCache = new SecureAttributeCache();
+
 	final static String EMPTY_STRING = ""; //$NON-NLS-1$
 
 	public RemoteConnection(RemoteConnectionType connectionType, String name) {
@@ -70,15 +76,7 @@ public class RemoteConnection implements IRemoteConnection {
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Service> T getService(Class<T> service) {
-		T obj = (T) servicesMap.get(service);
-		if (obj == null) {
-			obj = connectionType.getConnectionService(this, service);
-			if (obj != null) {
-				servicesMap.put(service, obj);
-			}
-		}
-
-		return obj;
+		return (T) services.get(service);
 	}
 
 	/*
@@ -88,7 +86,7 @@ public class RemoteConnection implements IRemoteConnection {
 	 */
 	@Override
 	public <T extends Service> boolean hasService(Class<T> service) {
-		return servicesMap.get(service.getName()) != null || connectionType.hasConnectionService(service);
+		return services.contains(service) || connectionType.hasConnectionService(service);
 	}
 
 	/*
@@ -126,6 +124,7 @@ public class RemoteConnection implements IRemoteConnection {
 		}
 
 		this.name = newName;
+		invalidateSecureAttributes();
 	}
 
 	Preferences getPreferences() {
@@ -163,12 +162,28 @@ public class RemoteConnection implements IRemoteConnection {
 	 */
 	@Override
 	public String getSecureAttribute(String key) {
+		String value = secureAttributeCache.get(key);
+		if (value != null) {
+			return value;
+		}
+		// Taken before reading, so a value that is changed while it is being read isn't cached
+		long generation = secureAttributeCache.getGeneration();
 		try {
-			return getSecurePreferences().get(key, EMPTY_STRING);
+			value = getSecurePreferences().get(key, EMPTY_STRING);
 		} catch (StorageException e) {
 			RemoteCorePlugin.log(e);
 			return EMPTY_STRING;
 		}
+		secureAttributeCache.put(key, value, org.eclipse.remote.internal.core.preferences.Preferences
+				.getInt(IRemotePreferenceConstants.PREF_SECURE_ATTRIBUTE_CACHE_TIMEOUT), generation);
+		return value;
+	}
+
+	/**
+	 * Forget the cached secure attributes, e.g. because they have been changed.
+	 */
+	void invalidateSecureAttributes() {
+		secureAttributeCache.invalidate();
 	}
 
 	/*
@@ -271,6 +286,7 @@ public class RemoteConnection implements IRemoteConnection {
 	@Override
 	public void fireConnectionChangeEvent(final int type) {
 		RemoteConnectionChangeEvent event = new RemoteConnectionChangeEvent(this, type);
+		// Connection listeners are called synchronously, providers use them to track the state of their connections
 		for (Object listener : fListeners.getListeners()) {
 			((IRemoteConnectionChangeListener) listener).connectionChanged(event);
 		}
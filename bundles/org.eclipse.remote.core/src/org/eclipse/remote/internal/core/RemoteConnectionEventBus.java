@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionChangeBatchListener;
+import org.eclipse.remote.core.IRemoteConnectionChangeListener;
+import org.eclipse.remote.core.RemoteConnectionChangeEvent;
+
+/**
+ * Delivers connection change events to listeners asynchronously, so the thread that fires an event (e.g. one opening a
+ * connection) doesn't wait for the listeners.
+ *
+ * Each listener has its own queue, so listeners get the events in the order they were fired and one slow listener doesn't
+ * hold up the others. Events that are still queued are coalesced: an event is dropped if the last queued event for the
+ * same connection is of the same type. Listeners that implement {@link IRemoteConnectionChangeBatchListener} get everything
+ * that has been queued in one call.
+ */
+public class RemoteConnectionEventBus {
+	private static final int MAX_THREADS = 4;
+
+	private class ListenerQueue implements Runnable {
+		private final IRemoteConnectionChangeListener listener;
+		private List<RemoteConnectionChangeEvent> events = new ArrayList<>();
+		private List<Long> postTimes = new ArrayList<>();
+		private final Map<IRemoteConnection, Integer> lastTypes = new HashMap<>();
+		private boolean scheduled;
+		private volatile boolean removed;
+
+		ListenerQueue(IRemoteConnectionChangeListener listener) {
+			this.listener = listener;
+		}
+
+		synchronized void post(RemoteConnectionChangeEvent event, long time) {
+			Integer lastType = lastTypes.put(event.getConnection(), event.getType());
+			if (lastType != null && lastType == event.getType()) {
+				coalesced.incrementAndGet();
+				return;
+			}
+			events.add(event);
+			postTimes.add(time);
+			if (!scheduled) {
+				scheduled = true;
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				List<RemoteConnectionChangeEvent> batch;
+				List<Long> times;
+				synchronized (this) {
+					if (events.isEmpty() || removed) {
+						scheduled = false;
+						return;
+					}
+					batch = events;
+					times = postTimes;
+					events = new ArrayList<>();
+					postTimes = new ArrayList<>();
+					lastTypes.clear();
+				}
+				try {
+					if (listener instanceof IRemoteConnectionChangeBatchListener) {
+						if (removed) {
+							return;
+						}
+						((IRemoteConnectionChangeBatchListener) listener).connectionsChanged(batch);
+					} else {
+						for (RemoteConnectionChangeEvent event : batch) {
+							if (removed) {
+								break;
+							}
+							listener.connectionChanged(event);
+						}
+					}
+				} catch (RuntimeException e) {
+					RemoteCorePlugin.log(e);
+				}
+				long now = System.nanoTime();
+				for (long time : times) {
+					recordDelivery(now - time);
+				}
+			}
+		}
+	}
+
+	private final List<ListenerQueue> queues = new CopyOnWriteArrayList<>();
+	private final Executor executor;
+
+	private final AtomicLong posted = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	public RemoteConnectionEventBus() {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "Remote connection events " + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		pool.allowCoreThreadTimeOut(true);
+		executor = pool;
+	}
+
+	public synchronized void addListener(IRemoteConnectionChangeListener listener) {
+		for (ListenerQueue queue : queues) {
+			if (queue.listener == listener) {
+				return;
+			}
+		}
+		queues.add(new ListenerQueue(listener));
+	}
+
+	/**
+	 * Remove a listener. Events that are still queued for it are not delivered.
+	 */
+	public synchronized void removeListener(IRemoteConnectionChangeListener listener) {
+		for (ListenerQueue queue : queues) {
+			if (queue.listener == listener) {
+				queue.removed = true;
+				queues.remove(queue);
+			}
+		}
+	}
+
+	/**
+	 * Queue an event for all the listeners and return without waiting for them.
+	 */
+	public void post(RemoteConnectionChangeEvent event) {
+		posted.incrementAndGet();
+		long now = System.nanoTime();
+		for (ListenerQueue queue : queues) {
+			queue.post(event, now);
+		}
+	}
+
+	private void recordDelivery(long latency) {
+		delivered.incrementAndGet();
+		totalLatency.addAndGet(latency);
+		long max;
+		while (latency > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, latency)) {
+			// retry
+		}
+	}
+
+	/**
+	 * @return number of events fired
+	 */
+	public long getPostedCount() {
+		return posted.get();
+	}
+
+	/**
+	 * @return number of events delivered, counting each listener separately
+	 */
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/**
+	 * @return number of events that were merged with a queued event instead of being delivered, counting each listener
+	 *         separately
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * @return average time in nanoseconds between an event being fired and a listener having handled it
+	 */
+	public long getAverageLatency() {
+		long count = delivered.get();
+		return count > 0 ? totalLatency.get() / count : 0;
+	}
+
+	/**
+	 * @return longest time in nanoseconds between an event being fired and a listener having handled it
+	 */
+	public long getMaxLatency() {
+		return maxLatency.get();
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
+import org.eclipse.remote.core.RemoteOperationMetrics;
+
+/**
+ * Records the metrics of a connection's operations for {@link IRemoteConnectionMetricsService}.
+ *
+ * Recording doesn't lock. The counters of each operation are striped: a thread adds to the stripe picked by its id, and
+ * the stripes are summed when a snapshot is taken, so threads recording the same operation rarely contend for a cache
+ * line.
+ */
+public class RemoteConnectionMetrics implements IRemoteConnectionMetricsService {
+	private static final int STRIPES = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 16)));
+
+	private static final int COUNT = 0;
+	private static final int ERRORS = 1;
+	private static final int BYTES_IN = 2;
+	private static final int BYTES_OUT = 3;
+	private static final int LATENCY = 4;
+	private static final int QUEUED = 5;
+	private static final int QUEUE_WAIT = 6;
+	private static final int HISTOGRAM = 7;
+	// round up to whole cache lines so stripes don't share one
+	private static final int STRIDE = (HISTOGRAM + RemoteOperationMetrics.BUCKETS + 7) & ~7;
+
+	private static class Operation {
+		final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIDE);
+		final AtomicLong maxLatency = new AtomicLong();
+		final AtomicLong maxQueueWait = new AtomicLong();
+
+		long sum(int cell) {
+			long sum = 0;
+			for (int i = 0; i < STRIPES; i++) {
+				sum += cells.get(i * STRIDE + cell);
+			}
+			return sum;
+		}
+	}
+
+	private final IRemoteConnection fConnection;
+	private final ConcurrentMap<String, Operation> fOperations = new ConcurrentHashMap<>();
+
+	public RemoteConnectionMetrics(IRemoteConnection connection) {
+		fConnection = connection;
+	}
+
+	/**
+	 * Get the metrics recorder of a connection.
+	 *
+	 * @return the recorder, or null if the connection doesn't record metrics
+	 */
+	public static RemoteConnectionMetrics get(IRemoteConnection connection) {
+		IRemoteConnectionMetricsService service = connection.getService(IRemoteConnectionMetricsService.class);
+		return service instanceof RemoteConnectionMetrics ? (RemoteConnectionMetrics) service : null;
+	}
+
+	@Override
+	public IRemoteConnection getRemoteConnection() {
+		return fConnection;
+	}
+
+	private Operation getOperation(String name) {
+		Operation operation = fOperations.get(name);
+		if (operation == null) {
+			Operation newOperation = new Operation();
+			operation = fOperations.putIfAbsent(name, newOperation);
+			if (operation == null) {
+				operation = newOperation;
+			}
+		}
+		return operation;
+	}
+
+	private static int stripe() {
+		return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIDE;
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+			// retry
+		}
+	}
+
+	/**
+	 * Record that an operation was done.
+	 *
+	 * @param name
+	 *            operation name
+	 * @param latency
+	 *            time the operation took in nanoseconds
+	 * @param error
+	 *            true if the operation failed
+	 */
+	public void recordLatency(String name, long latency, boolean error) {
+		Operation operation = getOperation(name);
+		int stripe = stripe();
+		operation.cells.incrementAndGet(stripe + COUNT);
+		if (error) {
+			operation.cells.incrementAndGet(stripe + ERRORS);
+		}
+		operation.cells.addAndGet(stripe + LATENCY, latency);
+		operation.cells.incrementAndGet(stripe + HISTOGRAM + RemoteOperationMetrics.getBucket(latency));
+		updateMax(operation.maxLatency, latency);
+	}
+
+	/**
+	 * Record how long an operation was queued before it was run.
+	 *
+	 * @param name
+	 *            operation name
+	 * @param wait
+	 *            time in nanoseconds
+	 */
+	public void recordQueueWait(String name, long wait) {
+		Operation operation = getOperation(name);
+		int stripe = stripe();
+		operation.cells.incrementAndGet(stripe + QUEUED);
+		operation.cells.addAndGet(stripe + QUEUE_WAIT, wait);
+		updateMax(operation.maxQueueWait, wait);
+	}
+
+	/**
+	 * Record data moved by an operation. This can be called several times while the operation is in progress.
+	 *
+	 * @param name
+	 *            operation name
+	 * @param in
+	 *            number of bytes received
+	 * @param out
+	 *            number of bytes sent
+	 */
+	public void recordBytes(String name, long in, long out) {
+		Operation operation = getOperation(name);
+		int stripe = stripe();
+		if (in != 0) {
+			operation.cells.addAndGet(stripe + BYTES_IN, in);
+		}
+		if (out != 0) {
+			operation.cells.addAndGet(stripe + BYTES_OUT, out);
+		}
+	}
+
+	@Override
+	public Map<String, RemoteOperationMetrics> getSnapshot() {
+		Map<String, RemoteOperationMetrics> snapshot = new TreeMap<>();
+		for (Map.Entry<String, Operation> entry : fOperations.entrySet()) {
+			Operation operation = entry.getValue();
+			long[] histogram = new long[RemoteOperationMetrics.BUCKETS];
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] = operation.sum(HISTOGRAM + i);
+			}
+			snapshot.put(entry.getKey(), new RemoteOperationMetrics(entry.getKey(), operation.sum(COUNT),
+					operation.sum(ERRORS), operation.sum(BYTES_IN), operation.sum(BYTES_OUT), operation.sum(LATENCY),
+					operation.maxLatency.get(), histogram, operation.sum(QUEUED), operation.sum(QUEUE_WAIT),
+					operation.maxQueueWait.get()));
+		}
+		return snapshot;
+	}
+
+	@Override
+	public void reset() {
+		fOperations.clear();
+	}
+}
@@ -14,9 +14,12 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -45,12 +48,41 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	private final boolean canEdit;
 	private final boolean canRemove;
 
-	private final Map<Class<? extends Service>, Object> serviceMap = new HashMap<>();
-	private final Map<String, IConfigurationElement> serviceDefinitionMap = new HashMap<>();
-	private final Map<String, IConfigurationElement> connectionServiceDefinitionMap = new HashMap<>();
-	private final Map<String, IConfigurationElement> processServiceDefinitionMap = new HashMap<>();
+	private final Map<String, IConfigurationElement> serviceDefinitionMap = new ConcurrentHashMap<>();
+	private final Map<String, IConfigurationElement> connectionServiceDefinitionMap = new ConcurrentHashMap<>();
+	private final Map<String, IConfigurationElement> processServiceDefinitionMap = new ConcurrentHashMap<>();
+
+	private final ServiceCache<Class<? extends Service>, Service> serviceMap = new ServiceCache<Class<? extends Service>, Service>() {
+		@Override
+		protected Service create(Class<? extends Service> service) {
+			Service.Factory factory = (Service.Factory) createFactory(serviceDefinitionMap, service.getName());
+			return factory != null ? factory.getService(RemoteConnectionType.this, service) : null;
+		}
+	};
+
+	/*
+	 * The connection and process service factories are created once per service, the first time the service is asked for
+	 */
+	private final ServiceCache<String, IRemoteConnection.Service.Factory> connectionServiceFactories = new ServiceCache<String, IRemoteConnection.Service.Factory>() {
+		@Override
+		protected IRemoteConnection.Service.Factory create(String service) {
+			return (IRemoteConnection.Service.Factory) createFactory(connectionServiceDefinitionMap, service);
+		}
+	};
+	private final ServiceCache<String, IRemoteProcess.Service.Factory> processServiceFactories = new ServiceCache<String, IRemoteProcess.Service.Factory>() {
+		@Override
+		protected IRemoteProcess.Service.Factory create(String service) {
+			return (IRemoteProcess.Service.Factory) createFactory(processServiceDefinitionMap, service);
+		}
+	};
 
 	private final Map<String, RemoteConnection> connections = new HashMap<>();
+	private boolean connectionsLoaded; // guarded by connections
+
+	/*
+	 * Immutable copy of the connections sorted by name. Rebuilt on the next read after the connections change.
+	 */
+	private volatile List<IRemoteConnection> snapshot;
 
 	public RemoteConnectionType(IConfigurationElement ce, RemoteServicesManager manager) {
 		this.remoteServicesManager = manager;
@@ -68,15 +100,29 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 		String canRemoveStr = ce.getAttribute("canRemove"); //$NON-NLS-1$
 		canRemove = canRemoveStr != null ? Boolean.parseBoolean(canRemoveStr) : true;
 		
-		// load up existing connections
+	}
+
+	/**
+	 * Load the saved connections the first time they are needed rather than when the connection type is created, so
+	 * connection types with many saved connections don't slow down the start up of the services manager. Must be called
+	 * with the connections lock held.
+	 */
+	private void loadConnections() {
+		if (connectionsLoaded) {
+			return;
+		}
+		connectionsLoaded = true;
+		long start = System.nanoTime();
 		try {
 			for (String nodeName : getPreferenceNode().childrenNames()) {
-				String connectionName = URLDecoder.decode(nodeName, "UTF-8");
+				String connectionName = URLDecoder.decode(nodeName, "UTF-8"); //$NON-NLS-1$
 				connections.put(connectionName, new RemoteConnection(this, connectionName));
 			}
 		} catch (BackingStoreException | UnsupportedEncodingException e) {
 			RemoteCorePlugin.log(e);
 		}
+		RemoteTrace.trace(RemoteDebugOptions.STARTUP, null, "Loaded {0} connections of {1} in {2} ms", //$NON-NLS-1$
+				connections.size(), id, (System.nanoTime() - start) / 1000000);
 	}
 
 	Preferences getPreferenceNode() {
@@ -147,34 +193,27 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 * 
 	 * @see org.eclipse.remote.core.IRemoteConnectionType#getService(java.lang.Class)
 	 */
+	@SuppressWarnings("unchecked")
 	@Override
-	public  <T extends Service> T getService(Class<T> service) {
-		synchronized (serviceDefinitionMap) {
-			@SuppressWarnings("unchecked")
-			T obj = (T) serviceMap.get(service);
-			if (obj == null) {
-				IConfigurationElement ce = serviceDefinitionMap.get(service.getName());
-				if (ce != null) {
-					try {
-						Service.Factory factory = (Service.Factory) ce.createExecutableExtension("factory"); //$NON-NLS-1$
-						if (factory != null) {
-							obj = factory.getService(this, service);
-							serviceMap.put(service, obj);
-						}
-					} catch (CoreException e) {
-						RemoteCorePlugin.log(e.getStatus());
-					}
-				}
+	public <T extends Service> T getService(Class<T> service) {
+		return (T) serviceMap.get(service);
+	}
+
+	private Object createFactory(Map<String, IConfigurationElement> definitions, String service) {
+		IConfigurationElement ce = definitions.get(service);
+		if (ce != null) {
+			try {
+				return ce.createExecutableExtension("factory"); //$NON-NLS-1$
+			} catch (CoreException e) {
+				RemoteCorePlugin.log(e.getStatus());
 			}
-			return obj;
 		}
+		return null;
 	}
 
 	@Override
 	public List<String> getServices() {
-		synchronized (serviceDefinitionMap) {
-			return new ArrayList<>(serviceDefinitionMap.keySet());
-		}
+		return new ArrayList<>(serviceDefinitionMap.keySet());
 	}
 
 	/*
@@ -184,9 +223,7 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 */
 	@Override
 	public <T extends Service> boolean hasService(Class<T> service) {
-		synchronized (serviceDefinitionMap) {
-			return serviceDefinitionMap.get(service.getName()) != null;
-		}
+		return serviceDefinitionMap.get(service.getName()) != null;
 	}
 
 	/**
@@ -200,28 +237,13 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 * @throws CoreException
 	 */
 	public <T extends IRemoteConnection.Service> T getConnectionService(IRemoteConnection connection, Class<T> service) {
-		synchronized (connectionServiceDefinitionMap) {
-			IConfigurationElement ce = connectionServiceDefinitionMap.get(service.getName());
-			if (ce != null) {
-				try {
-					IRemoteConnection.Service.Factory factory = (IRemoteConnection.Service.Factory) ce
-							.createExecutableExtension("factory"); //$NON-NLS-1$
-					if (factory != null) {
-						return factory.getService(connection, service);
-					}
-				} catch (CoreException e) {
-					RemoteCorePlugin.log(e.getStatus());
-				}
-			}
-			return null;
-		}
+		IRemoteConnection.Service.Factory factory = connectionServiceFactories.get(service.getName());
+		return factory != null ? factory.getService(connection, service) : null;
 	}
 
 	@Override
 	public List<String> getConnectionServices() {
-		synchronized (connectionServiceDefinitionMap) {
-			return new ArrayList<>(connectionServiceDefinitionMap.keySet());
-		}
+		return new ArrayList<>(connectionServiceDefinitionMap.keySet());
 	}
 
 	/*
@@ -231,9 +253,7 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 */
 	@Override
 	public <T extends IRemoteConnection.Service> boolean hasConnectionService(Class<T> service) {
-		synchronized (connectionServiceDefinitionMap) {
-			return connectionServiceDefinitionMap.get(service.getName()) != null;
-		}
+		return connectionServiceDefinitionMap.get(service.getName()) != null;
 	}
 
 	/**
@@ -247,27 +267,13 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 * @throws CoreException
 	 */
 	public <T extends IRemoteProcess.Service> T getProcessService(IRemoteProcess process, Class<T> service) {
-		synchronized (processServiceDefinitionMap) {
-			IConfigurationElement ce = processServiceDefinitionMap.get(service.getName());
-			if (ce != null) {
-				try {
-					IRemoteProcess.Service.Factory factory = (IRemoteProcess.Service.Factory) ce.createExecutableExtension("factory"); //$NON-NLS-1$
-					if (factory != null) {
-						return factory.getService(process, service);
-					}
-				} catch (CoreException e) {
-					RemoteCorePlugin.log(e.getStatus());
-				}
-			}
-			return null;
-		}
+		IRemoteProcess.Service.Factory factory = processServiceFactories.get(service.getName());
+		return factory != null ? factory.getService(process, service) : null;
 	}
 
 	@Override
 	public List<String> getProcessServices() {
-		synchronized (processServiceDefinitionMap) {
-			return new ArrayList<>(processServiceDefinitionMap.keySet());
-		}
+		return new ArrayList<>(processServiceDefinitionMap.keySet());
 	}
 
 	/*
@@ -277,9 +283,7 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 */
 	@Override
 	public <T extends IRemoteProcess.Service> boolean hasProcessService(Class<T> service) {
-		synchronized (processServiceDefinitionMap) {
-			return processServiceDefinitionMap.get(service.getName()) != null;
-		}
+		return processServiceDefinitionMap.get(service.getName()) != null;
 	}
 
 	/**
@@ -335,13 +339,15 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	@Override
 	public IRemoteConnection getConnection(String name) {
 		synchronized (connections) {
+			loadConnections();
 			return connections.get(name);
 		}
 	}
 
 	@Override
 	public IRemoteConnection getConnection(URI uri) {
-		synchronized (connections) { 
+		synchronized (connections) {
+			loadConnections();
 			IRemoteConnection connection = connections.get(uri.getAuthority());
 			if (connection != null) {
 				return connection;
@@ -364,9 +370,137 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	 */
 	@Override
 	public List<IRemoteConnection> getConnections() {
-		synchronized (connections) {
-			return new ArrayList<IRemoteConnection>(connections.values());
+		return new ArrayList<IRemoteConnection>(getSnapshot());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.remote.core.IRemoteConnectionType#getConnections(java.lang.String, int, int)
+	 */
+	@Override
+	public List<IRemoteConnection> getConnections(String prefix, int offset, int limit) {
+		checkRange(offset, limit);
+		List<IRemoteConnection> connections = getSnapshot();
+		int start = findFirst(connections, prefix);
+		int end = findEnd(connections, prefix, start);
+		start += Math.min(offset, end - start);
+		if (limit >= 0) {
+			end = start + Math.min(limit, end - start);
+		}
+		return connections.subList(start, end);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.remote.core.IRemoteConnectionType#findConnections(java.lang.String, java.util.Map, int, int)
+	 */
+	@Override
+	public List<IRemoteConnection> findConnections(String prefix, Map<String, String> attributes, int offset, int limit) {
+		checkRange(offset, limit);
+		if (attributes.isEmpty()) {
+			return getConnections(prefix, offset, limit);
+		}
+		List<IRemoteConnection> result = new ArrayList<>();
+		int skip = offset;
+		for (IRemoteConnection connection : getConnections(prefix, 0, -1)) {
+			if (limit >= 0 && result.size() >= limit) {
+				break;
+			}
+			if (hasAttributes(connection, attributes)) {
+				if (skip > 0) {
+					skip--;
+				} else {
+					result.add(connection);
+				}
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.remote.core.IRemoteConnectionType#getConnectionCount()
+	 */
+	@Override
+	public int getConnectionCount() {
+		return getSnapshot().size();
+	}
+
+	private List<IRemoteConnection> getSnapshot() {
+		List<IRemoteConnection> result = snapshot;
+		if (result == null) {
+			synchronized (connections) {
+				loadConnections();
+				if (snapshot == null) {
+					List<IRemoteConnection> sorted = new ArrayList<IRemoteConnection>(connections.values());
+					Collections.sort(sorted, new Comparator<IRemoteConnection>() {
+						@Override
+						public int compare(IRemoteConnection o1, IRemoteConnection o2) {
+							return o1.getName().compareTo(o2.getName());
+						}
+					});
+					snapshot = Collections.unmodifiableList(sorted);
+				}
+				result = snapshot;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Binary search for the first connection with a name that is not less than the prefix.
+	 */
+	private static int findFirst(List<IRemoteConnection> connections, String prefix) {
+		int low = 0;
+		int high = connections.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (connections.get(mid).getName().compareTo(prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Binary search for the end of the connections with names that start with the prefix. The names that start with a
+	 * prefix sort together, directly after the first name that is not less than the prefix.
+	 */
+	private static int findEnd(List<IRemoteConnection> connections, String prefix, int first) {
+		int low = first;
+		int high = connections.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (connections.get(mid).getName().startsWith(prefix)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static void checkRange(int offset, int limit) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("offset: " + offset); //$NON-NLS-1$
+		}
+		if (limit < -1) {
+			throw new IllegalArgumentException("limit: " + limit); //$NON-NLS-1$
+		}
+	}
+
+	private static boolean hasAttributes(IRemoteConnection connection, Map<String, String> attributes) {
+		for (Map.Entry<String, String> attr : attributes.entrySet()) {
+			if (!attr.getValue().equals(connection.getAttribute(attr.getKey()))) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	/*
@@ -377,6 +511,7 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	@Override
 	public IRemoteConnectionWorkingCopy newConnection(String name) throws RemoteConnectionException {
 		synchronized (connections) {
+			loadConnections();
 			if (connections.containsKey(name)) {
 				throw new ConnectionExistsException(name);
 			}
@@ -386,13 +521,17 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 
 	void addConnection(RemoteConnection remoteConnection) {
 		synchronized (connections) {
+			loadConnections();
 			connections.put(remoteConnection.getName(), remoteConnection);
+			snapshot = null;
 		}
 	}
 
 	void removeConnection(String name) {
 		synchronized (connections) {
+			loadConnections();
 			connections.remove(name);
+			snapshot = null;
 		}
 	}
 
@@ -404,6 +543,7 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 	@Override
 	public void removeConnection(IRemoteConnection connection) throws RemoteConnectionException {
 		synchronized (connections) {
+			loadConnections();
 			if (connection instanceof RemoteConnection) {
 				connection.close();
 				RemoteConnection conn = (RemoteConnection) connection;
@@ -413,7 +553,10 @@ public class RemoteConnectionType implements IRemoteConnectionType {
 					throw new RemoteConnectionException(e);
 				}
 				conn.getSecurePreferences().removeNode();
+				conn.invalidateSecureAttributes();
 				connections.remove(conn.getName());
+				snapshot = null;
+				RemoteTrace.clear(conn.getName());
 				connection.fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_REMOVED);
 			} else {
 				RemoteCorePlugin.log("Wrong class for " + connection.getName() + ", was " + connection.getClass().getName()); //$NON-NLS-1$ //$NON-NLS-2$
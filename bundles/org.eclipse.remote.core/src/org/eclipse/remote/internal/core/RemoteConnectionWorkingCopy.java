@@ -83,6 +83,8 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 		// set it only if it's changed
 		if (original == null || !name.equals(original.getName())) {
 			newName = name;
+		} else {
+			newName = null;
 		}
 	}
 
@@ -112,8 +114,10 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 	 */
 	@Override
 	public void setAttribute(String key, String value) {
-		// set only if it's changed or value is null
-		if (original == null || value == null || !value.equals(original.getAttribute(key))) {
+		// set only if it's changed, forget earlier changes if it's set back to the original value
+		if (original != null && (value != null ? value : RemoteConnection.EMPTY_STRING).equals(original.getAttribute(key))) {
+			newAttributes.remove(key);
+		} else {
 			newAttributes.put(key, value);
 		}
 	}
@@ -144,8 +148,11 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 	 */
 	@Override
 	public void setSecureAttribute(String key, String value) {
-		// set only if it's changed or value is null
-		if (original == null || value == null || !value.equals(original.getSecureAttribute(key))) {
+		// set only if it's changed, forget earlier changes if it's set back to the original value
+		if (original != null
+				&& (value != null ? value : RemoteConnection.EMPTY_STRING).equals(original.getSecureAttribute(key))) {
+			newSecureAttributes.remove(key);
+		} else {
 			newSecureAttributes.put(key, value);
 		}
 	}
@@ -271,6 +278,47 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 	 */
 	@Override
 	public IRemoteConnection save() throws RemoteConnectionException {
+		if (original != null && !isDirty()) {
+			return original;
+		}
+
+		boolean prefsChanged = hasPreferenceChanges();
+		boolean secureChanged = hasSecureChanges();
+		boolean added = apply();
+		if (prefsChanged) {
+			flush(original.getPreferences());
+		}
+		if (secureChanged) {
+			flush(original.getSecurePreferences());
+		}
+		if (added) {
+			original.fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_ADDED);
+		}
+		return original;
+	}
+
+	/**
+	 * @return true if saving will change the preferences of the connection
+	 */
+	boolean hasPreferenceChanges() {
+		return original == null || newName != null || !newAttributes.isEmpty();
+	}
+
+	/**
+	 * @return true if saving will change the secure preferences of the connection
+	 */
+	boolean hasSecureChanges() {
+		return !newSecureAttributes.isEmpty();
+	}
+
+	/**
+	 * Apply the changes to the connection and its preferences without flushing them. The caller must flush the
+	 * preferences and, if this returns true, fire the {@link RemoteConnectionChangeEvent#CONNECTION_ADDED} event.
+	 * 
+	 * @return true if the connection is new
+	 * @throws RemoteConnectionException
+	 */
+	boolean apply() throws RemoteConnectionException {
 		if (newName != null && original != null) {
 			// rename, delete the old one
 			fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_RENAMED);
@@ -293,11 +341,6 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 				prefs.remove(entry.getKey());
 			}
 		}
-		try {
-			prefs.flush();
-		} catch (BackingStoreException e1) {
-			throw new RemoteConnectionException(e1);
-		}
 
 		ISecurePreferences securePrefs = original.getSecurePreferences();
 		for (Map.Entry<String, String> entry : newSecureAttributes.entrySet()) {
@@ -312,10 +355,8 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 				securePrefs.remove(entry.getKey());
 			}
 		}
-		try {
-			securePrefs.flush();
-		} catch (IOException e) {
-			throw new RemoteConnectionException(e);
+		if (!newSecureAttributes.isEmpty()) {
+			original.invalidateSecureAttributes();
 		}
 
 		/*
@@ -326,10 +367,23 @@ public class RemoteConnectionWorkingCopy implements IRemoteConnectionWorkingCopy
 		newName = null;
 
 		connectionType.addConnection(original);
-		if (added) {
-			original.fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_ADDED);
+		return added;
+	}
+
+	static void flush(Preferences prefs) throws RemoteConnectionException {
+		try {
+			prefs.flush();
+		} catch (BackingStoreException e) {
+			throw new RemoteConnectionException(e);
+		}
+	}
+
+	static void flush(ISecurePreferences securePrefs) throws RemoteConnectionException {
+		try {
+			securePrefs.flush();
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e);
 		}
-		return original;
 	}
 
 	/*
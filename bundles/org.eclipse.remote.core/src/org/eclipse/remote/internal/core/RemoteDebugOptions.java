@@ -16,8 +16,6 @@ import java.util.Hashtable;
 
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
-import org.eclipse.osgi.service.debug.DebugTrace;
-import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -26,15 +24,19 @@ import org.osgi.framework.BundleContext;
  * and turn on debug options for this package. The debug output
  * will come out on the console and can be saved directly to
  * a file. Classes that need to be debugged can call into
- * RemoteDebugOptions to get debug flags. If new flags need to be
+ * RemoteDebugOptions to get debug flags, and trace with
+ * {@link RemoteTrace}. If new flags need to be
  * created, they will need to have a unique identifier and added to
  * the .options file in this plugin
  */
 public class RemoteDebugOptions implements DebugOptionsListener {
 
 	public static final String DEBUG_REMOTE_COMMANDS = "/debug/commands"; //$NON-NLS-1$
+	public static final String DEBUG_REMOTE_STARTUP = "/debug/startup"; //$NON-NLS-1$
+
+	public static final RemoteTrace.Option COMMANDS = RemoteTrace.getOption(RemoteCorePlugin.getUniqueIdentifier() + DEBUG_REMOTE_COMMANDS);
+	public static final RemoteTrace.Option STARTUP = RemoteTrace.getOption(RemoteCorePlugin.getUniqueIdentifier() + DEBUG_REMOTE_STARTUP);
 
-	private static DebugTrace fDebugTrace;
 	private static DebugOptions fDebugOptions;
 	private static RemoteDebugOptions fRemoteDebugOptions;
 
@@ -58,7 +60,7 @@ public class RemoteDebugOptions implements DebugOptionsListener {
 	@Override
 	public void optionsChanged(DebugOptions options) {
 		fDebugOptions = options;
-		fDebugTrace = options.newDebugTrace(RemoteCorePlugin.getUniqueIdentifier());
+		RemoteTrace.optionsChanged(options);
 	}
 
 	public static boolean isDebugging() {
@@ -81,37 +83,4 @@ public class RemoteDebugOptions implements DebugOptionsListener {
 		}
 	}
 
-	/**
-	 * Prints the given message to System.out and to the OSGi tracing (if enabled)
-	 * 
-	 * @param message
-	 *            the message or <code>null</code>
-	 */
-	public static void trace(String message) {
-		trace(null, message);
-	}
-
-	/**
-	 * Prints the given message to System.out and to the OSGi tracing (if enabled)
-	 * 
-	 * @param option
-	 *            the option to determine if tracing is displayed
-	 * @param message
-	 *            the message or <code>null</code>
-	 * @param arguments
-	 *            optional arguments for the message or <code>null</code>
-	 */
-	public static void trace(String option, String message, String... arguments) {
-		String traceMsg = message;
-		if (arguments.length > 0) {
-			traceMsg = NLS.bind(message, arguments);
-		}
-		if ((option != null && isDebugging(option)) || isDebugging()) {
-			System.out.println(traceMsg);
-			if (fDebugTrace != null) {
-				fDebugTrace.trace(option, traceMsg, null);
-			}
-		}
-	}
-
 }
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emits Java Flight Recorder events for remote operations, so that their latency can be lined up with GC pauses and thread
+ * stalls in a recording.
+ *
+ * Events are only emitted if the {@link #ENABLED_PROPERTY} system property is true and the JVM has JFR (Java 9 or later).
+ * The bundle is built for Java 7, so the event types are defined at runtime with jdk.jfr.EventFactory through reflection.
+ * When events are off, {@link EventType#begin()} returns null and costs a test of a static final field.
+ *
+ * <pre>
+ * RemoteFlightRecorder.Event event = RemoteFlightRecorder.PROCESS_START.begin();
+ * ...
+ * if (event != null) {
+ * 	event.commit(connectionName, command, shell, failed);
+ * }
+ * </pre>
+ */
+public class RemoteFlightRecorder {
+	public static final String ENABLED_PROPERTY = "org.eclipse.remote.core.jfr"; //$NON-NLS-1$
+
+	private static final String CATEGORY = "Eclipse Remote"; //$NON-NLS-1$
+	private static final String PREFIX = "org.eclipse.remote."; //$NON-NLS-1$
+
+	private static final MethodType VOID = MethodType.methodType(void.class, Object.class);
+
+	private static final boolean ENABLED;
+	private static final MethodHandle fNewEvent;
+	private static final MethodHandle fBegin;
+	private static final MethodHandle fEnd;
+	private static final MethodHandle fCommit;
+	private static final MethodHandle fSet;
+	private static final Class<?> fAnnotationElement;
+	private static final Class<?> fValueDescriptor;
+	private static final Class<?> fEventFactory;
+
+	static {
+		MethodHandle newEvent = null;
+		MethodHandle begin = null;
+		MethodHandle end = null;
+		MethodHandle commit = null;
+		MethodHandle set = null;
+		Class<?> annotationElement = null;
+		Class<?> valueDescriptor = null;
+		Class<?> eventFactory = null;
+		boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+		if (enabled) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				eventFactory = jfrClass("EventFactory"); //$NON-NLS-1$
+				annotationElement = jfrClass("AnnotationElement"); //$NON-NLS-1$
+				valueDescriptor = jfrClass("ValueDescriptor"); //$NON-NLS-1$
+				Class<?> event = jfrClass("Event"); //$NON-NLS-1$
+				newEvent = lookup.unreflect(eventFactory.getMethod("newEvent")) //$NON-NLS-1$
+						.asType(MethodType.methodType(Object.class, Object.class));
+				begin = lookup.unreflect(event.getMethod("begin")).asType(VOID); //$NON-NLS-1$
+				end = lookup.unreflect(event.getMethod("end")).asType(VOID); //$NON-NLS-1$
+				commit = lookup.unreflect(event.getMethod("commit")).asType(VOID); //$NON-NLS-1$
+				set = lookup.unreflect(event.getMethod("set", int.class, Object.class)) //$NON-NLS-1$
+						.asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+			} catch (ReflectiveOperationException e) {
+				RemoteCorePlugin.log(e);
+				enabled = false;
+			}
+		}
+		ENABLED = enabled;
+		fNewEvent = newEvent;
+		fBegin = begin;
+		fEnd = end;
+		fCommit = commit;
+		fSet = set;
+		fAnnotationElement = annotationElement;
+		fValueDescriptor = valueDescriptor;
+		fEventFactory = eventFactory;
+	}
+
+	/**
+	 * A request made by a remote command: the command type, the path it works on, the bytes the command has transferred so
+	 * far, whether the request failed, how long it waited to be run and how long it ran. The duration of the event covers
+	 * the whole request.
+	 */
+	public static final EventType COMMAND = new EventType("Command", "Remote Command", //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "connection", "Connection"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "command", "Command"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "path", "Path"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(long.class, "bytes", "Bytes Transferred", "DataAmount", "BYTES"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			new Field(boolean.class, "failed", "Failed"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(long.class, "queueWait", "Queue Wait", "Timespan", "NANOSECONDS"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			new Field(long.class, "execution", "Execution Time", "Timespan", "NANOSECONDS")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	/**
+	 * Index of the queue wait field of {@link #COMMAND}, which is set with {@link Event#set(int, Object)} by the thread
+	 * that runs the request.
+	 */
+	public static final int COMMAND_QUEUE_WAIT = 5;
+
+	/**
+	 * Index of the execution time field of {@link #COMMAND}.
+	 */
+	public static final int COMMAND_EXECUTION = 6;
+
+	/**
+	 * A phase of opening a connection, e.g. connecting the session or loading the remote environment.
+	 */
+	public static final EventType CONNECTION_PHASE = new EventType("ConnectionPhase", "Remote Connection Phase", //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "connection", "Connection"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "phase", "Phase"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(boolean.class, "failed", "Failed")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Starting a remote process or shell.
+	 */
+	public static final EventType PROCESS_START = new EventType("ProcessStart", "Remote Process Start", //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "connection", "Connection"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(String.class, "command", "Command"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(boolean.class, "shell", "Shell"), //$NON-NLS-1$ //$NON-NLS-2$
+			new Field(boolean.class, "failed", "Failed")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/*
+	 * jdk.jfr isn't visible to the bundle class loader, so load it from the system class loader
+	 */
+	private static Class<?> jfrClass(String name) throws ClassNotFoundException {
+		return Class.forName("jdk.jfr." + name, true, ClassLoader.getSystemClassLoader()); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return true if events are emitted
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	private static class Field {
+		final Class<?> type;
+		final String name;
+		final String label;
+		final String unit;
+		final String unitValue;
+
+		Field(Class<?> type, String name, String label) {
+			this(type, name, label, null, null);
+		}
+
+		/**
+		 * @param unit
+		 *            simple name of the jdk.jfr annotation giving the unit of the field
+		 * @param unitValue
+		 *            value of the unit annotation
+		 */
+		Field(Class<?> type, String name, String label, String unit, String unitValue) {
+			this.type = type;
+			this.name = name;
+			this.label = label;
+			this.unit = unit;
+			this.unitValue = unitValue;
+		}
+	}
+
+	/**
+	 * A type of event. The fields of an event are set in the order they are declared.
+	 */
+	public static class EventType {
+		private final Object fFactory;
+
+		private EventType(String name, String label, Field... fields) {
+			Object factory = null;
+			if (ENABLED) {
+				try {
+					List<Object> annotations = new ArrayList<>();
+					annotations.add(newAnnotation("Name", PREFIX + name)); //$NON-NLS-1$
+					annotations.add(newAnnotation("Label", label)); //$NON-NLS-1$
+					annotations.add(newAnnotation("Category", new String[] { CATEGORY })); //$NON-NLS-1$
+					List<Object> values = new ArrayList<>();
+					Constructor<?> descriptor = fValueDescriptor.getConstructor(Class.class, String.class, List.class);
+					for (Field field : fields) {
+						List<Object> fieldAnnotations = new ArrayList<>();
+						fieldAnnotations.add(newAnnotation("Label", field.label)); //$NON-NLS-1$
+						if (field.unit != null) {
+							fieldAnnotations.add(newAnnotation(field.unit, field.unitValue));
+						}
+						values.add(descriptor.newInstance(field.type, field.name, fieldAnnotations));
+					}
+					factory = fEventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, values); //$NON-NLS-1$
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					RemoteCorePlugin.log(e);
+				}
+			}
+			fFactory = factory;
+		}
+
+		private static Object newAnnotation(String type, Object value) throws ReflectiveOperationException {
+			Class<?> annotation = jfrClass(type).asSubclass(Annotation.class);
+			return fAnnotationElement.getConstructor(Class.class, Object.class).newInstance(annotation, value);
+		}
+
+		/**
+		 * Start timing an event.
+		 *
+		 * @return the event, or null if events are not emitted
+		 */
+		public Event begin() {
+			if (!ENABLED || fFactory == null) {
+				return null;
+			}
+			try {
+				Object event = fNewEvent.invokeExact(fFactory);
+				fBegin.invokeExact(event);
+				return new Event(event);
+			} catch (Throwable e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * An event that has been started by {@link EventType#begin()}.
+	 */
+	public static class Event {
+		private final Object fEvent;
+
+		private Event(Object event) {
+			fEvent = event;
+		}
+
+		/**
+		 * Set a field of the event.
+		 *
+		 * @param index
+		 *            position of the field in the event type
+		 */
+		public void set(int index, Object value) {
+			try {
+				fSet.invokeExact(fEvent, index, value);
+			} catch (Throwable e) {
+				// drop the value
+			}
+		}
+
+		/**
+		 * Set the fields of the event, in order, and write it to the recording. Fields that were set with
+		 * {@link #set(int, Object)} are not overwritten if fewer values are given.
+		 */
+		public void commit(Object... values) {
+			try {
+				for (int i = 0; i < values.length; i++) {
+					fSet.invokeExact(fEvent, i, values[i]);
+				}
+				fEnd.invokeExact(fEvent);
+				fCommit.invokeExact(fEvent);
+			} catch (Throwable e) {
+				// drop the event
+			}
+		}
+
+		@Override
+		public String toString() {
+			return fEvent.toString();
+		}
+	}
+
+	private RemoteFlightRecorder() {
+	}
+}
@@ -14,6 +14,8 @@ package org.eclipse.remote.internal.core;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IPath;
@@ -21,8 +23,13 @@ import org.eclipse.core.runtime.IPath;
 /** 
  * The Eclipse Mars implementation of <code>org.eclipse.core.runtime.Path</code>.
  *
- * Cloned from org.eclipse.equinox.common. This class should be removed when
- * Eclipse older than Mars no longer needs to be supported.
+ * Cloned from org.eclipse.equinox.common.
+ * 
+ * Unlike the original, paths share their segment array with the paths derived
+ * from them where possible (a path only uses a prefix of its array, so its
+ * parent can use the same one), segments parsed from strings are interned, the
+ * hash code of an appended path is computed from its parent's, and the string
+ * form is computed once, when it is first needed.
  * 
  * @see org.eclipse.core.runtime.Path
  * @noextend This class is not intended to be subclassed by clients.
@@ -46,6 +53,12 @@ public class RemotePath implements IPath, Cloneable {
 	/** Constant value indicating no segments */
 	private static final String[] NO_SEGMENTS = new String[0];
 
+	/** Maximum number of distinct segments that are interned */
+	private static final int MAX_INTERNED_SEGMENTS = 10000;
+
+	/** Segments parsed from strings, so equal segments of different paths are shared */
+	private static final ConcurrentMap<String, String> internedSegments = new ConcurrentHashMap<>();
+
 	/** Constant value containing the empty path with no device on the local file system. */
 	public static final RemotePath EMPTY = new RemotePath(EMPTY_STRING);
 
@@ -62,14 +75,22 @@ public class RemotePath implements IPath, Cloneable {
 	private String device = null;
 
 	//Private implementation note: the segments array and flag bitmap
-	//are never modified, so that they can be shared between path instances
+	//are never modified, so that they can be shared between path instances.
+	//A path only uses the first numSegments elements of the array, so it can
+	//also be shared with paths that have fewer segments
 
 	/** The path segments */
 	private String[] segments;
 
+	/** The number of elements of the segments array that belong to this path */
+	private int numSegments;
+
 	/** flags indicating separators (has leading, is UNC, has trailing, is for Windows) */
 	private int flags;
 
+	/** The string form of the path, or null if it hasn't been computed yet */
+	private String string;
+
 	/** 
 	 * Constructs a new path from the given string path.
 	 * The string path must represent a valid file system path
@@ -238,13 +259,32 @@ public class RemotePath implements IPath, Cloneable {
 	 * Private constructor.
 	 */
 	private RemotePath(String device, String[] segments, int flags) {
+		this(device, segments, segments.length, flags);
+	}
+
+	/* (Intentionally not included in javadoc)
+	 * Private constructor for a path made of the first numSegments elements
+	 * of the segments array.
+	 */
+	private RemotePath(String device, String[] segments, int numSegments, int flags) {
 		// no segment validations are done for performance reasons	
 		this.segments = segments;
+		this.numSegments = numSegments;
 		this.device = device;
 		//hash code is cached in all but the bottom four bits of the flags field
 		this.flags = (computeHashCode() << 4) | (flags & ALL_FLAGS);
 	}
 
+	/* (Intentionally not included in javadoc)
+	 * Private constructor for a path whose hash code is already known.
+	 */
+	private RemotePath(String device, String[] segments, int numSegments, int flags, int hash) {
+		this.segments = segments;
+		this.numSegments = numSegments;
+		this.device = device;
+		this.flags = (hash << 4) | (flags & ALL_FLAGS);
+	}
+
 	/* (Intentionally not included in javadoc)
 	 * @see IPath#addFileExtension
 	 */
@@ -252,7 +292,7 @@ public class RemotePath implements IPath, Cloneable {
 	public IPath addFileExtension(String extension) {
 		if (isRoot() || isEmpty() || hasTrailingSeparator())
 			return this;
-		int len = segments.length;
+		int len = numSegments;
 		String[] newSegments = new String[len];
 		System.arraycopy(segments, 0, newSegments, 0, len - 1);
 		newSegments[len - 1] = segments[len - 1] + '.' + extension;
@@ -269,9 +309,9 @@ public class RemotePath implements IPath, Cloneable {
 		}
 		//XXX workaround, see 1GIGQ9V
 		if (isEmpty()) {
-			return new RemotePath(device, segments, (flags & IS_FOR_WINDOWS) | HAS_LEADING);
+			return new RemotePath(device, segments, numSegments, (flags & IS_FOR_WINDOWS) | HAS_LEADING);
 		}
-		return new RemotePath(device, segments, flags | HAS_TRAILING);
+		return new RemotePath(device, segments, numSegments, flags | HAS_TRAILING);
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -290,7 +330,7 @@ public class RemotePath implements IPath, Cloneable {
 			return tail.setDevice(device).makeAbsolute().makeUNC(isUNC());
 
 		//concatenate the two segment arrays
-		int myLen = segments.length;
+		int myLen = numSegments;
 		int tailLen = tail.segmentCount();
 		String[] newSegments = new String[myLen + tailLen];
 		System.arraycopy(segments, 0, newSegments, 0, myLen);
@@ -322,12 +362,13 @@ public class RemotePath implements IPath, Cloneable {
 				if ("..".equals(tail)) //$NON-NLS-1$
 					return removeLastSegments(1);
 			}
-			//just add the segment
-			int myLen = segments.length;
+			//just add the segment, deriving the hash code from ours
+			int myLen = numSegments;
 			String[] newSegments = new String[myLen + 1];
 			System.arraycopy(segments, 0, newSegments, 0, myLen);
 			newSegments[myLen] = tail;
-			return new RemotePath(device, newSegments, flags & ~HAS_TRAILING);
+			int hash = (flags >>> 4) * 37 + tail.hashCode();
+			return new RemotePath(device, newSegments, myLen + 1, flags & ~HAS_TRAILING, hash);
 		}
 		//go with easy implementation
 		return append(new RemotePath(tail, (flags & IS_FOR_WINDOWS) != 0));
@@ -344,13 +385,13 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	private boolean canonicalize() {
 		//look for segments that need canonicalizing
-		for (int i = 0, max = segments.length; i < max; i++) {
+		for (int i = 0, max = numSegments; i < max; i++) {
 			String segment = segments[i];
 			if (segment.charAt(0) == '.' && (segment.equals("..") || segment.equals("."))) { //$NON-NLS-1$ //$NON-NLS-2$
 				//path needs to be canonicalized
 				collapseParentReferences();
 				//paths of length 0 have no trailing separator
-				if (segments.length == 0)
+				if (numSegments == 0)
 					flags &= (HAS_LEADING | IS_UNC);
 				//recompute hash because canonicalize affects hash
 				flags = (flags & ALL_FLAGS) | (computeHashCode() << 4);
@@ -376,7 +417,7 @@ public class RemotePath implements IPath, Cloneable {
 	 * Destructively removes all occurrences of ".." segments from this path.
 	 */
 	private void collapseParentReferences() {
-		int segmentCount = segments.length;
+		int segmentCount = numSegments;
 		String[] stack = new String[segmentCount];
 		int stackPointer = 0;
 		for (int i = 0; i < segmentCount; i++) {
@@ -408,6 +449,7 @@ public class RemotePath implements IPath, Cloneable {
 		String[] newSegments = new String[stackPointer];
 		System.arraycopy(stack, 0, newSegments, 0, stackPointer);
 		this.segments = newSegments;
+		this.numSegments = stackPointer;
 	}
 
 	/**
@@ -458,7 +500,7 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	private int computeHashCode() {
 		int hash = device == null ? 17 : device.hashCode();
-		int segmentCount = segments.length;
+		int segmentCount = numSegments;
 		for (int i = 0; i < segmentCount; i++) {
 			//this function tends to given a fairly even distribution
 			hash = hash * 37 + segments[i].hashCode();
@@ -478,7 +520,7 @@ public class RemotePath implements IPath, Cloneable {
 		if ((flags & IS_UNC) != 0)
 			length++;
 		//add the segment lengths
-		int max = segments.length;
+		int max = numSegments;
 		if (max > 0) {
 			for (int i = 0; i < max; i++) {
 				length += segments[i].length();
@@ -538,9 +580,9 @@ public class RemotePath implements IPath, Cloneable {
 			int start = next;
 			int end = path.indexOf(SEPARATOR, next);
 			if (end == -1) {
-				newSegments[i] = path.substring(start, lastPosition + 1);
+				newSegments[i] = intern(path.substring(start, lastPosition + 1));
 			} else {
-				newSegments[i] = path.substring(start, end);
+				newSegments[i] = intern(path.substring(start, end));
 			}
 			next = end + 1;
 		}
@@ -575,13 +617,14 @@ public class RemotePath implements IPath, Cloneable {
 		if ((flags & HASH_MASK) != (target.flags & HASH_MASK))
 			return false;
 		String[] targetSegments = target.segments;
-		int i = segments.length;
+		int i = numSegments;
 		//check segment count
-		if (i != targetSegments.length)
+		if (i != target.numSegments)
 			return false;
 		//check segments in reverse order - later segments more likely to differ
+		//segments are often shared, so check for the same instance first
 		while (--i >= 0)
-			if (!segments[i].equals(targetSegments[i]))
+			if (segments[i] != targetSegments[i] && !segments[i].equals(targetSegments[i]))
 				return false;
 		//check device last (least likely to differ)
 		return device == target.device || (device != null && device.equals(target.device));
@@ -663,13 +706,30 @@ public class RemotePath implements IPath, Cloneable {
 		}
 		//compute segments and ensure canonical form
 		segments = computeSegments(path);
+		numSegments = segments.length;
 		if (!canonicalize()) {
 			//compute hash now because canonicalize didn't need to do it
 			flags = (flags & ALL_FLAGS) | (computeHashCode() << 4);
+			//without a device, a collapsed canonical path string is already in the form toString() produces
+			if (deviceString == null)
+				string = path;
 		}
 		return this;
 	}
 
+	/*
+	 * Returns the shared instance of a segment parsed from a path string.
+	 */
+	private static String intern(String segment) {
+		String interned = internedSegments.get(segment);
+		if (interned != null)
+			return interned;
+		if (internedSegments.size() >= MAX_INTERNED_SEGMENTS)
+			return segment;
+		interned = internedSegments.putIfAbsent(segment, segment);
+		return interned != null ? interned : segment;
+	}
+
 	/* (Intentionally not included in javadoc)
 	 * @see IPath#isAbsolute
 	 */
@@ -685,7 +745,7 @@ public class RemotePath implements IPath, Cloneable {
 	@Override
 	public boolean isEmpty() {
 		//true if no segments and no leading prefix
-		return segments.length == 0 && ((flags & ALL_SEPARATORS) != HAS_LEADING);
+		return numSegments == 0 && ((flags & ALL_SEPARATORS) != HAS_LEADING);
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -705,7 +765,7 @@ public class RemotePath implements IPath, Cloneable {
 		if (isEmpty() || (isRoot() && anotherPath.isAbsolute())) {
 			return true;
 		}
-		int len = segments.length;
+		int len = numSegments;
 		if (len > anotherPath.segmentCount()) {
 			return false;
 		}
@@ -722,7 +782,7 @@ public class RemotePath implements IPath, Cloneable {
 	@Override
 	public boolean isRoot() {
 		//must have no segments, a leading separator, and not be a UNC path.
-		return this == ROOT || (segments.length == 0 && ((flags & ALL_SEPARATORS) == HAS_LEADING));
+		return this == ROOT || (numSegments == 0 && ((flags & ALL_SEPARATORS) == HAS_LEADING));
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -881,7 +941,7 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	@Override
 	public String lastSegment() {
-		int len = segments.length;
+		int len = numSegments;
 		return len == 0 ? null : segments[len - 1];
 	}
 
@@ -893,7 +953,7 @@ public class RemotePath implements IPath, Cloneable {
 		if (isAbsolute()) {
 			return this;
 		}
-		RemotePath result = new RemotePath(device, segments, flags | HAS_LEADING);
+		RemotePath result = new RemotePath(device, segments, numSegments, flags | HAS_LEADING);
 		//may need canonicalizing if it has leading ".." or "." segments
 		if (result.segmentCount() > 0) {
 			String first = result.segment(0);
@@ -912,7 +972,7 @@ public class RemotePath implements IPath, Cloneable {
 		if (!isAbsolute()) {
 			return this;
 		}
-		return new RemotePath(device, segments, flags & (HAS_TRAILING | IS_FOR_WINDOWS));
+		return new RemotePath(device, segments, numSegments, flags & (HAS_TRAILING | IS_FOR_WINDOWS));
 	}
 
 	/**
@@ -953,7 +1013,7 @@ public class RemotePath implements IPath, Cloneable {
 			//mask out the UNC bit
 			newSeparators &= HAS_LEADING | HAS_TRAILING | IS_FOR_WINDOWS;
 		}
-		return new RemotePath(toUNC ? null : device, segments, newSeparators);
+		return new RemotePath(toUNC ? null : device, segments, numSegments, newSeparators);
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -963,7 +1023,7 @@ public class RemotePath implements IPath, Cloneable {
 	public int matchingFirstSegments(IPath anotherPath) {
 		Assert.isNotNull(anotherPath);
 		int anotherPathLen = anotherPath.segmentCount();
-		int max = Math.min(segments.length, anotherPathLen);
+		int max = Math.min(numSegments, anotherPathLen);
 		int count = 0;
 		for (int i = 0; i < max; i++) {
 			if (!segments[i].equals(anotherPath.segment(i))) {
@@ -995,11 +1055,11 @@ public class RemotePath implements IPath, Cloneable {
 	public IPath removeFirstSegments(int count) {
 		if (count == 0)
 			return this;
-		if (count >= segments.length) {
+		if (count >= numSegments) {
 			return new RemotePath(device, NO_SEGMENTS, flags & IS_FOR_WINDOWS);
 		}
 		Assert.isLegal(count > 0);
-		int newSize = segments.length - count;
+		int newSize = numSegments - count;
 		String[] newSegments = new String[newSize];
 		System.arraycopy(this.segments, count, newSegments, 0, newSize);
 
@@ -1014,15 +1074,13 @@ public class RemotePath implements IPath, Cloneable {
 	public IPath removeLastSegments(int count) {
 		if (count == 0)
 			return this;
-		if (count >= segments.length) {
+		if (count >= numSegments) {
 			//result will have no trailing separator
 			return new RemotePath(device, NO_SEGMENTS, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
 		}
 		Assert.isLegal(count > 0);
-		int newSize = segments.length - count;
-		String[] newSegments = new String[newSize];
-		System.arraycopy(this.segments, 0, newSegments, 0, newSize);
-		return new RemotePath(device, newSegments, flags);
+		//the result uses a prefix of our segments, so it can share the array
+		return new RemotePath(device, segments, numSegments - count, flags);
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -1033,7 +1091,7 @@ public class RemotePath implements IPath, Cloneable {
 		if (!hasTrailingSeparator()) {
 			return this;
 		}
-		return new RemotePath(device, segments, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
+		return new RemotePath(device, segments, numSegments, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -1041,7 +1099,7 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	@Override
 	public String segment(int index) {
-		if (index >= segments.length)
+		if (index >= numSegments)
 			return null;
 		return segments[index];
 	}
@@ -1051,7 +1109,7 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	@Override
 	public int segmentCount() {
-		return segments.length;
+		return numSegments;
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -1059,8 +1117,8 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	@Override
 	public String[] segments() {
-		String[] segmentCopy = new String[segments.length];
-		System.arraycopy(segments, 0, segmentCopy, 0, segments.length);
+		String[] segmentCopy = new String[numSegments];
+		System.arraycopy(segments, 0, segmentCopy, 0, numSegments);
 		return segmentCopy;
 	}
 
@@ -1076,7 +1134,7 @@ public class RemotePath implements IPath, Cloneable {
 		if (value == device || (value != null && value.equals(device)))
 			return this;
 
-		return new RemotePath(value, segments, flags);
+		return new RemotePath(value, segments, numSegments, flags);
 	}
 
 	/* (Intentionally not included in javadoc)
@@ -1109,7 +1167,7 @@ public class RemotePath implements IPath, Cloneable {
 			result[offset++] = FILE_SEPARATOR;
 		if ((flags & IS_UNC) != 0)
 			result[offset++] = FILE_SEPARATOR;
-		int len = segments.length - 1;
+		int len = numSegments - 1;
 		if (len >= 0) {
 			//append all but the last segment, with file separators
 			for (int i = 0; i < len; i++) {
@@ -1143,7 +1201,7 @@ public class RemotePath implements IPath, Cloneable {
 			result.append(SEPARATOR);
 		if ((flags & IS_UNC) != 0)
 			result.append(SEPARATOR);
-		int len = segments.length;
+		int len = numSegments;
 		//append all segments with separators
 		for (int i = 0; i < len; i++) {
 			if (segments[i].indexOf(DEVICE_SEPARATOR) >= 0)
@@ -1161,6 +1219,19 @@ public class RemotePath implements IPath, Cloneable {
 	 */
 	@Override
 	public String toString() {
+		//racy single-check: at worst the string is computed more than once
+		String result = string;
+		if (result == null) {
+			result = computeString();
+			string = result;
+		}
+		return result;
+	}
+
+	/* (Intentionally not included in javadoc)
+	 * Computes the string form of this path.
+	 */
+	private String computeString() {
 		int resultSize = computeLength();
 		if (resultSize <= 0)
 			return EMPTY_STRING;
@@ -1175,7 +1246,7 @@ public class RemotePath implements IPath, Cloneable {
 			result[offset++] = SEPARATOR;
 		if ((flags & IS_UNC) != 0)
 			result[offset++] = SEPARATOR;
-		int len = segments.length - 1;
+		int len = numSegments - 1;
 		if (len >= 0) {
 			//append all but the last segment, with separators
 			for (int i = 0; i < len; i++) {
@@ -1201,11 +1272,10 @@ public class RemotePath implements IPath, Cloneable {
 	public IPath uptoSegment(int count) {
 		if (count == 0)
 			return new RemotePath(device, NO_SEGMENTS, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
-		if (count >= segments.length)
+		if (count >= numSegments)
 			return this;
 		Assert.isTrue(count > 0, "Invalid parameter to RemotePath.uptoSegment"); //$NON-NLS-1$
-		String[] newSegments = new String[count];
-		System.arraycopy(segments, 0, newSegments, 0, count);
-		return new RemotePath(device, newSegments, flags);
+		//the result uses a prefix of our segments, so it can share the array
+		return new RemotePath(device, segments, count, flags);
 	}
 }
@@ -12,8 +12,6 @@ package org.eclipse.remote.internal.core;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteProcess;
@@ -24,7 +22,12 @@ import org.eclipse.remote.core.IRemoteProcessControlService;
  * Standard root class for remote processes.
  */
 public class RemoteProcess extends Process implements IRemoteProcess {
-	private final Map<Class<? extends Service>, Service> servicesMap = new HashMap<>();
+	private final ServiceCache<Class<? extends Service>, Service> services = new ServiceCache<Class<? extends Service>, Service>() {
+		@Override
+		protected Service create(Class<? extends Service> key) {
+			return getConnectionType().getProcessService(RemoteProcess.this, key);
+		}
+	};
 	private final IRemoteConnection connection;
 	private final IRemoteProcessBuilder builder;
 
@@ -111,15 +114,7 @@ public class RemoteProcess extends Process implements IRemoteProcess {
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Service> T getService(Class<T> service) {
-		T obj = (T) servicesMap.get(service);
-		if (obj == null) {
-			obj = getConnectionType().getProcessService(this, service);
-			if (obj != null) {
-				servicesMap.put(service, obj);
-			}
-		}
-
-		return obj;
+		return (T) services.get(service);
 	}
 
 	/**
@@ -127,7 +122,7 @@ public class RemoteProcess extends Process implements IRemoteProcess {
 	 */
 	@Override
 	public <T extends Service> boolean hasService(Class<T> service) {
-		return servicesMap.get(service.getName()) != null || getConnectionType().hasProcessService(service);
+		return services.contains(service) || getConnectionType().hasProcessService(service);
 	}
 
 	/*
@@ -12,10 +12,14 @@ package org.eclipse.remote.internal.core;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
@@ -29,8 +33,10 @@ import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnectionChangeListener;
 import org.eclipse.remote.core.IRemoteConnectionProviderService;
 import org.eclipse.remote.core.IRemoteConnectionType;
+import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
 import org.eclipse.remote.core.IRemoteServicesManager;
 import org.eclipse.remote.core.RemoteConnectionChangeEvent;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.osgi.service.prefs.Preferences;
 
 /**
@@ -47,21 +53,51 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 	// Map from URI scheme to remote services
 	private final Map<String, IRemoteConnectionType> schemeMap = new HashMap<>();
 
-	private final List<IRemoteConnectionChangeListener> listeners = new LinkedList<>();
-	private boolean inited;
+	private final RemoteConnectionEventBus eventBus = new RemoteConnectionEventBus();
+	private volatile boolean inited;
+	private Thread initThread; // guarded by this
+
+	/*
+	 * Set on the threads running the providers' init methods. They may call back into the manager, which must not wait for
+	 * the initialization they are part of.
+	 */
+	private static final ThreadLocal<Boolean> initializingProvider = new ThreadLocal<>();
 
 	/**
 	 * Loads up the services extensions and then loads up the persisted connections.
 	 * This stuff can't be done from the constructor for the manager since that's done
 	 * in the bundle activator which is way too early. It also gives us the ability
 	 * to override the initialization in tests
+	 * 
+	 * The connection types don't load their saved connections until they are needed. The connection providers are
+	 * initialized in parallel.
 	 */
 	protected void init() {
-		if (inited) {
+		if (inited || initializingProvider.get() != null) {
 			return;
 		}
-		inited = true;
+		synchronized (this) {
+			if (inited || initThread == Thread.currentThread()) {
+				return;
+			}
+			initThread = Thread.currentThread();
+			try {
+				long start = System.nanoTime();
+				loadConnectionTypes();
+				long loaded = System.nanoTime();
+				initProviders();
+				long end = System.nanoTime();
+				RemoteTrace.trace(RemoteDebugOptions.STARTUP, null,
+						"Loaded {0} connection types in {1} ms, initialized providers in {2} ms", //$NON-NLS-1$
+						connectionTypeMap.size(), (loaded - start) / 1000000, (end - loaded) / 1000000);
+			} finally {
+				initThread = null;
+				inited = true;
+			}
+		}
+	}
 
+	private void loadConnectionTypes() {
 		IExtensionRegistry registry = Platform.getExtensionRegistry();
 		IExtensionPoint point = registry.getExtensionPoint(RemoteCorePlugin.getUniqueIdentifier(), "remoteServices"); //$NON-NLS-1$
 
@@ -92,16 +128,80 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 				}
 			}
 		}
+	}
 
-		// Init connection providers
-		for (IRemoteConnectionType connectionType : connectionTypeMap.values()) {
-			IRemoteConnectionProviderService providerService = connectionType.getService(IRemoteConnectionProviderService.class);
-			if (providerService != null) {
-				providerService.init();
+	/**
+	 * Init the connection providers. If there is more than one they are run in parallel on background threads, and this
+	 * waits until they have all finished, see {@link IRemoteConnectionProviderService#init()}.
+	 */
+	private void initProviders() {
+		List<Callable<Object>> tasks = new ArrayList<>();
+		for (final IRemoteConnectionType connectionType : connectionTypeMap.values()) {
+			// Most connection types have no provider, so don't schedule them
+			if (!connectionType.hasService(IRemoteConnectionProviderService.class)) {
+				continue;
 			}
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					initializingProvider.set(Boolean.TRUE);
+					try {
+						long start = System.nanoTime();
+						IRemoteConnectionProviderService providerService = connectionType
+								.getService(IRemoteConnectionProviderService.class);
+						if (providerService != null) {
+							providerService.init();
+							RemoteTrace.trace(RemoteDebugOptions.STARTUP, null,
+									"Initialized provider for {0} in {1} ms", connectionType.getId(), //$NON-NLS-1$
+									(System.nanoTime() - start) / 1000000);
+						}
+					} catch (RuntimeException e) {
+						RemoteCorePlugin.log(e);
+					} finally {
+						initializingProvider.remove();
+					}
+					return null;
+				}
+			});
+		}
+		if (tasks.isEmpty()) {
+			return;
+		}
+		if (tasks.size() == 1) {
+			try {
+				tasks.get(0).call();
+			} catch (Exception e) {
+				RemoteCorePlugin.log(e);
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()), new ThreadFactory() {
+					private int count;
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "Remote connection provider init " + ++count); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			executor.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
 		}
 	}
 
+	/**
+	 * @return the bus that delivers events to the global connection change listeners
+	 */
+	public RemoteConnectionEventBus getEventBus() {
+		return eventBus;
+	}
+
 	public Preferences getPreferenceNode() {
 		return InstanceScope.INSTANCE.getNode(RemoteCorePlugin.getUniqueIdentifier()).node("connections"); //$NON-NLS-1$
 	}
@@ -225,6 +325,46 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 		return connections;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.remote.core.IRemoteServicesManager#saveConnections(java.util.Collection)
+	 */
+	@Override
+	public List<IRemoteConnection> saveConnections(Collection<IRemoteConnectionWorkingCopy> workingCopies)
+			throws RemoteConnectionException {
+		List<IRemoteConnection> saved = new ArrayList<>(workingCopies.size());
+		List<IRemoteConnection> added = new ArrayList<>();
+		boolean prefsChanged = false;
+		boolean secureChanged = false;
+		for (IRemoteConnectionWorkingCopy wc : workingCopies) {
+			if (!(wc instanceof RemoteConnectionWorkingCopy)) {
+				saved.add(wc.save());
+			} else if (wc.getOriginal() != null && !wc.isDirty()) {
+				saved.add(wc.getOriginal());
+			} else {
+				RemoteConnectionWorkingCopy rwc = (RemoteConnectionWorkingCopy) wc;
+				prefsChanged |= rwc.hasPreferenceChanges();
+				secureChanged |= rwc.hasSecureChanges();
+				if (rwc.apply()) {
+					added.add(rwc.getOriginal());
+				}
+				saved.add(rwc.getOriginal());
+			}
+		}
+
+		if (prefsChanged) {
+			RemoteConnectionWorkingCopy.flush(getPreferenceNode());
+		}
+		if (secureChanged) {
+			RemoteConnectionWorkingCopy.flush(getSecurePreferenceNode());
+		}
+		for (IRemoteConnection connection : added) {
+			connection.fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_ADDED);
+		}
+		return saved;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -233,9 +373,7 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 	 */
 	@Override
 	public void addRemoteConnectionChangeListener(IRemoteConnectionChangeListener listener) {
-		synchronized (listeners) {
-			listeners.add(listener);
-		}
+		eventBus.addListener(listener);
 	}
 
 	/*
@@ -246,9 +384,7 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 	 */
 	@Override
 	public void removeRemoteConnectionChangeListener(IRemoteConnectionChangeListener listener) {
-		synchronized (listeners) {
-			listeners.remove(listener);
-		}
+		eventBus.removeListener(listener);
 	}
 
 	/*
@@ -259,13 +395,7 @@ public class RemoteServicesManager implements IRemoteServicesManager {
 	 */
 	@Override
 	public void fireRemoteConnectionChangeEvent(RemoteConnectionChangeEvent event) {
-		List<IRemoteConnectionChangeListener> iListeners;
-		synchronized (listeners) {
-			iListeners = new ArrayList<>(listeners);
-		}
-		for (IRemoteConnectionChangeListener listener : iListeners) {
-			listener.connectionChanged(event);
-		}
+		eventBus.post(event);
 	}
 
 }
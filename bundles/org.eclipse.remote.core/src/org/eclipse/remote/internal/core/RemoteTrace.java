@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugTrace;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Tracing for the remote bundles. Tracing is switched on per {@link Option} from the platform debug options, e.g.
+ * org.eclipse.remote.core/debug/commands.
+ *
+ * An event records its format and arguments, and the message is only formatted when it is written or dumped. Events are
+ * kept in a ring buffer per connection, so the recent history of a connection can be looked at with
+ * {@link #getEvents(String)} or {@link #dump(String, PrintStream)}, and queued for a background thread that writes them
+ * to the platform trace and to the file named by the {@link #FILE_OPTION} debug option, or to System.out. If the writer
+ * falls behind, events are dropped from the queue rather than blocking the thread that traces.
+ *
+ * When an option is off, tracing costs a volatile read. Call sites whose arguments have to be computed or boxed should
+ * check {@link Option#isEnabled()} first:
+ *
+ * <pre>
+ * if (RemoteDebugOptions.COMMANDS.isEnabled()) {
+ * 	RemoteTrace.trace(RemoteDebugOptions.COMMANDS, connectionName, &quot;read {0} bytes&quot;, count);
+ * }
+ * </pre>
+ */
+public class RemoteTrace {
+	/**
+	 * Debug option naming the file trace events are appended to. Events go to System.out if it is not set.
+	 */
+	public static final String FILE_OPTION = "org.eclipse.remote.core/debug/file"; //$NON-NLS-1$
+
+	/**
+	 * System property setting the number of events kept per connection. Rounded up to a power of two.
+	 */
+	public static final String BUFFER_SIZE_PROPERTY = "org.eclipse.remote.core.trace.bufferSize"; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = Integer.highestOneBit(Math.max(1, Integer.getInteger(BUFFER_SIZE_PROPERTY, 256)) * 2 - 1);
+	private static final int QUEUE_SIZE = 8192;
+	private static final String NO_CONNECTION = ""; //$NON-NLS-1$
+
+	/**
+	 * A lazily computed trace message.
+	 */
+	public interface Message {
+		String get();
+	}
+
+	/**
+	 * A debug option that switches tracing on. The state of the option is cached and updated when the debug options
+	 * change.
+	 */
+	public static final class Option {
+		private final String fName;
+		private volatile boolean fEnabled;
+
+		private Option(String name) {
+			fName = name;
+		}
+
+		/**
+		 * @return full name of the option, including the bundle name
+		 */
+		public String getName() {
+			return fName;
+		}
+
+		public boolean isEnabled() {
+			return fEnabled;
+		}
+
+		private void update(DebugOptions options) {
+			fEnabled = options != null && options.isDebugEnabled() && options.getBooleanOption(fName, false);
+		}
+	}
+
+	/**
+	 * A trace event.
+	 */
+	public static final class Event {
+		private final long fTime = System.currentTimeMillis();
+		private final String fThread = Thread.currentThread().getName();
+		private final Option fOption;
+		private final String fConnection;
+		private final String fFormat;
+		private final Object[] fArguments;
+		private final Message fMessage;
+		private long fSequence;
+		private volatile String fText;
+
+		private Event(Option option, String connection, String format, Object[] arguments, Message message) {
+			fOption = option;
+			fConnection = connection;
+			fFormat = format;
+			fArguments = arguments;
+			fMessage = message;
+		}
+
+		public long getTime() {
+			return fTime;
+		}
+
+		public String getThreadName() {
+			return fThread;
+		}
+
+		public Option getOption() {
+			return fOption;
+		}
+
+		/**
+		 * @return name of the connection, or null if the event isn't about a connection
+		 */
+		public String getConnection() {
+			return fConnection;
+		}
+
+		/**
+		 * @return the message, which is formatted the first time this is called
+		 */
+		public String getMessage() {
+			String text = fText;
+			if (text == null) {
+				if (fMessage != null) {
+					text = fMessage.get();
+				} else if (fArguments != null && fArguments.length > 0) {
+					text = NLS.bind(fFormat, fArguments);
+				} else {
+					text = fFormat;
+				}
+				fText = text;
+			}
+			return text;
+		}
+
+		String format(SimpleDateFormat dateFormat) {
+			StringBuilder line = new StringBuilder();
+			line.append(dateFormat.format(new Date(fTime))).append(" [").append(fThread).append("] "); //$NON-NLS-1$ //$NON-NLS-2$
+			line.append(fOption.getName());
+			if (fConnection != null) {
+				line.append(' ').append(fConnection);
+			}
+			line.append(": ").append(getMessage()); //$NON-NLS-1$
+			return line.toString();
+		}
+	}
+
+	private static class Ring {
+		private final AtomicReferenceArray<Event> fEvents = new AtomicReferenceArray<>(BUFFER_SIZE);
+		private final AtomicLong fNext = new AtomicLong();
+
+		void add(Event event) {
+			long sequence = fNext.getAndIncrement();
+			event.fSequence = sequence;
+			fEvents.set((int) sequence & (BUFFER_SIZE - 1), event);
+		}
+
+		List<Event> getEvents() {
+			long first = fNext.get() - BUFFER_SIZE;
+			List<Event> events = new ArrayList<>(BUFFER_SIZE);
+			for (int i = 0; i < BUFFER_SIZE; i++) {
+				Event event = fEvents.get(i);
+				if (event != null && event.fSequence >= first) {
+					events.add(event);
+				}
+			}
+			Collections.sort(events, new Comparator<Event>() {
+				@Override
+				public int compare(Event e1, Event e2) {
+					return Long.compare(e1.fSequence, e2.fSequence);
+				}
+			});
+			return events;
+		}
+	}
+
+	/*
+	 * Writes queued events on its own thread.
+	 */
+	private static class Sink extends Thread {
+		private final BlockingQueue<Event> fQueue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+		private final AtomicLong fDropped = new AtomicLong();
+		private final SimpleDateFormat fDateFormat = new SimpleDateFormat("HH:mm:ss.SSS"); //$NON-NLS-1$
+		private final String fFile;
+		private final DebugTrace fDebugTrace;
+		private volatile boolean fClosed;
+
+		Sink(String file, DebugTrace debugTrace) {
+			super("Remote Trace Writer"); //$NON-NLS-1$
+			setDaemon(true);
+			fFile = file;
+			fDebugTrace = debugTrace;
+		}
+
+		void offer(Event event) {
+			if (!fQueue.offer(event)) {
+				fDropped.incrementAndGet();
+			}
+		}
+
+		void close() {
+			fClosed = true;
+			interrupt();
+		}
+
+		@Override
+		public void run() {
+			Writer writer = null;
+			try {
+				if (fFile != null) {
+					writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(fFile), true),
+							StandardCharsets.UTF_8));
+				}
+				while (!fClosed) {
+					Event event;
+					try {
+						event = fQueue.take();
+					} catch (InterruptedException e) {
+						continue;
+					}
+					write(writer, event);
+					while ((event = fQueue.poll()) != null) {
+						write(writer, event);
+					}
+					long dropped = fDropped.getAndSet(0);
+					if (dropped > 0) {
+						write(writer, "dropped " + dropped + " trace events"); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					if (writer != null) {
+						writer.flush();
+					}
+				}
+			} catch (IOException e) {
+				RemoteCorePlugin.log(e);
+			} finally {
+				if (writer != null) {
+					try {
+						writer.close();
+					} catch (IOException e) {
+						// Ignore
+					}
+				}
+			}
+		}
+
+		private void write(Writer writer, Event event) throws IOException {
+			if (fDebugTrace != null) {
+				fDebugTrace.trace(event.getOption().getName(), event.getMessage());
+			}
+			write(writer, event.format(fDateFormat));
+		}
+
+		private void write(Writer writer, String line) throws IOException {
+			if (writer != null) {
+				writer.write(line);
+				writer.write(System.lineSeparator());
+			} else {
+				System.out.println(line);
+			}
+		}
+	}
+
+	private static final ConcurrentMap<String, Option> fOptions = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, Ring> fRings = new ConcurrentHashMap<>();
+	private static volatile DebugOptions fDebugOptions;
+	private static volatile Sink fSink;
+
+	/**
+	 * Get a trace option.
+	 *
+	 * @param name
+	 *            full name of the option, e.g. org.eclipse.remote.core/debug/commands
+	 */
+	public static Option getOption(String name) {
+		Option option = fOptions.get(name);
+		if (option == null) {
+			Option newOption = new Option(name);
+			option = fOptions.putIfAbsent(name, newOption);
+			if (option == null) {
+				option = newOption;
+				option.update(fDebugOptions);
+			}
+		}
+		return option;
+	}
+
+	/**
+	 * Update the options and the output when the debug options change. Called by the debug options listeners of the
+	 * bundles that trace.
+	 */
+	public static synchronized void optionsChanged(DebugOptions options) {
+		fDebugOptions = options;
+		for (Option option : fOptions.values()) {
+			option.update(options);
+		}
+		Sink sink = fSink;
+		if (!options.isDebugEnabled()) {
+			if (sink != null) {
+				sink.close();
+				fSink = null;
+			}
+			return;
+		}
+		String file = options.getOption(FILE_OPTION);
+		if (file != null && file.isEmpty()) {
+			file = null;
+		}
+		if (sink == null || (sink.fFile == null ? file != null : !sink.fFile.equals(file))) {
+			if (sink != null) {
+				sink.close();
+			}
+			sink = new Sink(file, options.newDebugTrace(RemoteCorePlugin.getUniqueIdentifier()));
+			sink.start();
+			fSink = sink;
+		}
+	}
+
+	/**
+	 * Trace an event if the option is on.
+	 *
+	 * @param option
+	 *            option that switches the event on
+	 * @param connection
+	 *            name of the connection the event is about, or null
+	 * @param format
+	 *            message, with {0}, {1}, ... replaced by the arguments when it is formatted
+	 * @param arguments
+	 *            arguments of the message
+	 */
+	public static void trace(Option option, String connection, String format, Object... arguments) {
+		if (option.isEnabled()) {
+			add(new Event(option, connection, format, arguments, null));
+		}
+	}
+
+	/**
+	 * Trace an event if the option is on.
+	 *
+	 * @param option
+	 *            option that switches the event on
+	 * @param connection
+	 *            name of the connection the event is about, or null
+	 * @param message
+	 *            message, which is computed when the event is written or dumped
+	 */
+	public static void trace(Option option, String connection, Message message) {
+		if (option.isEnabled()) {
+			add(new Event(option, connection, null, null, message));
+		}
+	}
+
+	private static void add(Event event) {
+		getRing(event.getConnection()).add(event);
+		Sink sink = fSink;
+		if (sink != null) {
+			sink.offer(event);
+		}
+	}
+
+	private static Ring getRing(String connection) {
+		String key = connection != null ? connection : NO_CONNECTION;
+		Ring ring = fRings.get(key);
+		if (ring == null) {
+			Ring newRing = new Ring();
+			ring = fRings.putIfAbsent(key, newRing);
+			if (ring == null) {
+				ring = newRing;
+			}
+		}
+		return ring;
+	}
+
+	/**
+	 * Get the most recent events of a connection.
+	 *
+	 * @param connection
+	 *            name of the connection, or null for the events that aren't about a connection
+	 * @return events, oldest first
+	 */
+	public static List<Event> getEvents(String connection) {
+		Ring ring = fRings.get(connection != null ? connection : NO_CONNECTION);
+		if (ring == null) {
+			return Collections.emptyList();
+		}
+		return ring.getEvents();
+	}
+
+	/**
+	 * Print the most recent events of a connection.
+	 *
+	 * @param connection
+	 *            name of the connection, or null for the events that aren't about a connection
+	 */
+	public static void dump(String connection, PrintStream out) {
+		SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS"); //$NON-NLS-1$
+		for (Event event : getEvents(connection)) {
+			out.println(event.format(dateFormat));
+		}
+	}
+
+	/**
+	 * Discard the events of a connection, e.g. when it is removed.
+	 */
+	public static void clear(String connection) {
+		fRings.remove(connection != null ? connection : NO_CONNECTION);
+	}
+
+	private RemoteTrace() {
+	}
+}
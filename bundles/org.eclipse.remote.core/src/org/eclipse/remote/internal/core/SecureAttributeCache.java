@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the decrypted secure attributes of a connection in memory for a limited time, so they don't have to be read from
+ * secure storage every time they are needed. The values are held as char arrays that are overwritten when they expire or
+ * are invalidated.
+ */
+class SecureAttributeCache {
+	private static class Entry {
+		final char[] value;
+		final long expires;
+		ScheduledFuture<?> expiry;
+
+		Entry(String value, long expires) {
+			this.value = value.toCharArray();
+			this.expires = expires;
+		}
+
+		void clear() {
+			Arrays.fill(value, '\0');
+			if (expiry != null) {
+				expiry.cancel(false);
+			}
+		}
+	}
+
+	private static ScheduledThreadPoolExecutor scheduler;
+
+	private static synchronized ScheduledThreadPoolExecutor getScheduler() {
+		if (scheduler == null) {
+			scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Remote secure attribute cache"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			scheduler.setRemoveOnCancelPolicy(true);
+		}
+		return scheduler;
+	}
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private long generation;
+
+	/**
+	 * Get a cached value.
+	 *
+	 * @param key
+	 *            attribute key
+	 * @return the value, or null if it is not cached or has expired
+	 */
+	public synchronized String get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() >= entry.expires) {
+			entries.remove(key);
+			entry.clear();
+			return null;
+		}
+		return new String(entry.value);
+	}
+
+	/**
+	 * Get the generation of the cache, which changes whenever it is invalidated. Take the generation before reading a value
+	 * from secure storage and pass it to {@link #put(String, String, int, long)}, so that a value read before the
+	 * attributes were changed isn't cached.
+	 *
+	 * @return current generation
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Cache a value, unless the cache has been invalidated since the value was read.
+	 *
+	 * @param key
+	 *            attribute key
+	 * @param value
+	 *            decrypted value
+	 * @param timeout
+	 *            time in seconds to keep the value; nothing is cached if this is not positive
+	 * @param readGeneration
+	 *            generation of the cache from before the value was read, see {@link #getGeneration()}
+	 */
+	public synchronized void put(final String key, String value, int timeout, long readGeneration) {
+		if (timeout <= 0 || readGeneration != generation) {
+			return;
+		}
+		final Entry entry = new Entry(value, System.currentTimeMillis() + timeout * 1000L);
+		Entry old = entries.put(key, entry);
+		if (old != null) {
+			old.clear();
+		}
+		entry.expiry = getScheduler().schedule(new Runnable() {
+			@Override
+			public void run() {
+				expire(key, entry);
+			}
+		}, timeout, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Forget all the cached values, e.g. because the attributes have been changed.
+	 */
+	public synchronized void invalidate() {
+		generation++;
+		for (Entry entry : entries.values()) {
+			entry.clear();
+		}
+		entries.clear();
+	}
+
+	private synchronized void expire(String key, Entry entry) {
+		if (entries.get(key) == entry) {
+			entries.remove(key);
+		}
+		Arrays.fill(entry.value, '\0');
+	}
+}
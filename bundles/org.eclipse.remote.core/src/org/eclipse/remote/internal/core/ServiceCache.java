@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A map of lazily created values, such as services or service factories. Lookups of values that already exist do not
+ * lock. Values are created at most once per key; creation holds a lock on the cache, which is reentrant so a value may be
+ * looked up while creating another one. Null values are not cached, so creation is retried on the next lookup.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public abstract class ServiceCache<K, V> {
+	private final ConcurrentMap<K, V> values = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the value for the key, creating it if necessary.
+	 *
+	 * @param key
+	 *            key to look up
+	 * @return the value or null if none could be created
+	 */
+	public V get(K key) {
+		V value = values.get(key);
+		if (value == null) {
+			synchronized (values) {
+				value = values.get(key);
+				if (value == null) {
+					value = create(key);
+					if (value != null) {
+						values.put(key, value);
+					}
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Check if a value has been created for the key.
+	 *
+	 * @param key
+	 *            key to check
+	 * @return true if the value exists
+	 */
+	public boolean contains(K key) {
+		return values.containsKey(key);
+	}
+
+	/**
+	 * Create the value for a key. Called at most once per key unless it returns null.
+	 *
+	 * @param key
+	 *            key to create the value for
+	 * @return the new value or null if there is none
+	 */
+	protected abstract V create(K key);
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.internal.core.messages.Messages;
+
+/**
+ * Reports the progress of a transfer to a progress monitor.
+ *
+ * Transfers report every chunk they move, which can be many thousands per second. The bytes are added to a counter, and
+ * the monitor is only updated {@link #UPDATES_PER_SECOND} times a second, with the amount transferred, the throughput
+ * and the estimated time left. Between updates {@link #add(long)} doesn't allocate or call the monitor, so cancellation
+ * is noticed at the next update.
+ *
+ * The monitor is given a fixed amount of work, so transfers of any size are reported without overflowing the int work
+ * of {@link IProgressMonitor}.
+ *
+ * An instance is meant to be used by one thread at a time.
+ */
+public class TransferProgress {
+	/**
+	 * System property setting how many times a second the monitor is updated.
+	 */
+	public static final String UPDATES_PROPERTY = "org.eclipse.remote.core.progress.updatesPerSecond"; //$NON-NLS-1$
+
+	public static final int UPDATES_PER_SECOND = Math.max(1, Integer.getInteger(UPDATES_PROPERTY, 4));
+
+	private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1) / UPDATES_PER_SECOND;
+	private static final int WORK = 1000;
+	// weight of the latest interval in the smoothed throughput
+	private static final double SMOOTHING = 0.3;
+	private static final String[] UNITS = { "bytes", "KB", "MB", "GB", "TB" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	private final IProgressMonitor fMonitor;
+	private final String fPrefix;
+	private long fTotal;
+	private long fTransferred;
+	private int fWorked;
+	private long fLastUpdate;
+	private long fLastTransferred;
+	private long fNextUpdate;
+	private double fRate;
+	private boolean fCanceled;
+
+	/**
+	 * @param prefix
+	 *            text shown before the progress, or null
+	 * @param monitor
+	 *            monitor to report to
+	 */
+	public TransferProgress(String prefix, IProgressMonitor monitor) {
+		fPrefix = prefix;
+		fMonitor = monitor;
+	}
+
+	/**
+	 * Start the transfer.
+	 *
+	 * @param name
+	 *            task name
+	 * @param total
+	 *            number of bytes to transfer, or a negative number if it isn't known
+	 */
+	public void begin(String name, long total) {
+		fTotal = total;
+		fTransferred = 0;
+		fWorked = 0;
+		fLastTransferred = 0;
+		fRate = 0;
+		fLastUpdate = System.nanoTime();
+		fNextUpdate = fLastUpdate + INTERVAL;
+		fMonitor.beginTask(name, total > 0 ? WORK : IProgressMonitor.UNKNOWN);
+	}
+
+	/**
+	 * Add bytes that have been transferred.
+	 *
+	 * @return false if the monitor was canceled
+	 */
+	public boolean add(long count) {
+		fTransferred += count;
+		long now = System.nanoTime();
+		if (now - fNextUpdate >= 0) {
+			update(now);
+		}
+		return !fCanceled;
+	}
+
+	/**
+	 * Update the monitor with the final progress of the transfer and mark it done.
+	 */
+	public void done() {
+		update(System.nanoTime());
+		fMonitor.done();
+	}
+
+	/**
+	 * @return number of bytes transferred so far
+	 */
+	public long getTransferred() {
+		return fTransferred;
+	}
+
+	/**
+	 * @return smoothed throughput in bytes per second, as of the last update
+	 */
+	public double getRate() {
+		return fRate;
+	}
+
+	/**
+	 * @return estimated time left in seconds as of the last update, or -1 if it can't be estimated
+	 */
+	public long getSecondsLeft() {
+		if (fTotal <= 0 || fRate <= 0) {
+			return -1;
+		}
+		return (long) Math.ceil(Math.max(0, fTotal - fTransferred) / fRate);
+	}
+
+	private void update(long now) {
+		long elapsed = now - fLastUpdate;
+		if (elapsed > 0) {
+			double rate = (fTransferred - fLastTransferred) * 1e9 / elapsed;
+			fRate = fRate == 0 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * fRate;
+		}
+		fLastUpdate = now;
+		fLastTransferred = fTransferred;
+		fNextUpdate = now + INTERVAL;
+
+		if (fTotal > 0) {
+			int worked = (int) Math.min(WORK, fTransferred * WORK / fTotal);
+			if (worked > fWorked) {
+				fMonitor.worked(worked - fWorked);
+				fWorked = worked;
+			}
+		}
+		fMonitor.subTask(getMessage());
+		fCanceled = fMonitor.isCanceled();
+	}
+
+	private String getMessage() {
+		StringBuilder message = new StringBuilder();
+		if (fPrefix != null) {
+			message.append(fPrefix);
+		}
+		if (fTotal > 0) {
+			message.append(NLS.bind(Messages.TransferProgress_Progress, new Object[] { formatSize(fTransferred),
+					formatSize(fTotal), Long.toString(Math.min(100, fTransferred * 100 / fTotal)) }));
+		} else {
+			message.append(NLS.bind(Messages.TransferProgress_Completed, formatSize(fTransferred)));
+		}
+		if (fRate > 0) {
+			long left = getSecondsLeft();
+			if (left >= 0) {
+				message.append(NLS.bind(Messages.TransferProgress_Rate_and_time_left, formatSize((long) fRate),
+						formatTime(left)));
+			} else {
+				message.append(NLS.bind(Messages.TransferProgress_Rate, formatSize((long) fRate)));
+			}
+		}
+		return message.toString();
+	}
+
+	/**
+	 * Format a number of bytes with the largest unit that keeps it at least 1, e.g. 12.3 MB.
+	 */
+	public static String formatSize(long bytes) {
+		if (bytes < 1024) {
+			return bytes + " " + UNITS[0]; //$NON-NLS-1$
+		}
+		double size = bytes;
+		int unit = 0;
+		while (size >= 1024 && unit < UNITS.length - 1) {
+			size /= 1024;
+			unit++;
+		}
+		return String.format("%.1f %s", size, UNITS[unit]); //$NON-NLS-1$
+	}
+
+	/**
+	 * Format a number of seconds as h:mm:ss or m:ss.
+	 */
+	public static String formatTime(long seconds) {
+		long hours = seconds / 3600;
+		long minutes = seconds / 60 % 60;
+		long secs = seconds % 60;
+		if (hours > 0) {
+			return String.format("%d:%02d:%02d", hours, minutes, secs); //$NON-NLS-1$
+		}
+		return String.format("%d:%02d", minutes, secs); //$NON-NLS-1$
+	}
+}
@@ -6,8 +6,13 @@ public class Messages extends NLS {
 	private static final String BUNDLE_NAME = "org.eclipse.remote.internal.core.messages.messages"; //$NON-NLS-1$
 	public static String LocalConnection_1;
 	public static String LocalConnection_2;
+	public static String LocalFileService_Operation_cancelled;
 	public static String RemoteServicesProxy_0;
 	public static String RemoteServicesProxy_1;
+	public static String TransferProgress_Completed;
+	public static String TransferProgress_Progress;
+	public static String TransferProgress_Rate;
+	public static String TransferProgress_Rate_and_time_left;
 	public static String Unable_to_create_new_local_connections;
 
 	static {
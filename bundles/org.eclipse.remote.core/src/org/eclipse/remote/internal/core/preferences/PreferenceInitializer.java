@@ -24,5 +24,6 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 	@Override
 	public void initializeDefaultPreferences() {
 		Preferences.setDefaultString(IRemotePreferenceConstants.PREF_CONNECTION_TYPE_ID, "org.eclipse.remote.JSch"); //$NON-NLS-1$
+		Preferences.setDefaultInt(IRemotePreferenceConstants.PREF_SECURE_ATTRIBUTE_CACHE_TIMEOUT, 300);
 	}
 }
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.core.services.local;
+
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnection.Service;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
+import org.eclipse.remote.internal.core.RemoteConnectionMetrics;
+
+/**
+ * Metrics of the local connection. Processes started and bulk uploads and downloads are recorded; file stores are those of
+ * the local file system and are not.
+ */
+public class LocalConnectionMetricsService extends RemoteConnectionMetrics {
+	public static final String UPLOAD = "upload"; //$NON-NLS-1$
+	public static final String DOWNLOAD = "download"; //$NON-NLS-1$
+
+	public LocalConnectionMetricsService(IRemoteConnection connection) {
+		super(connection);
+	}
+
+	public static class Factory implements IRemoteConnectionMetricsService.Factory {
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T extends Service> T getService(IRemoteConnection remoteConnection, Class<T> service) {
+			if (service.equals(IRemoteConnectionMetricsService.class)) {
+				return (T) new LocalConnectionMetricsService(remoteConnection);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Record an operation of a connection, if it records metrics.
+	 *
+	 * @param start
+	 *            {@link System#nanoTime()} when the operation started
+	 */
+	static void record(IRemoteConnection connection, String name, long start, boolean error) {
+		RemoteConnectionMetrics metrics = get(connection);
+		if (metrics != null) {
+			metrics.recordLatency(name, System.nanoTime() - start, error);
+		}
+	}
+}
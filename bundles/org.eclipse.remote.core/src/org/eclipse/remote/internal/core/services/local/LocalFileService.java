@@ -10,19 +10,52 @@
  *******************************************************************************/
 package org.eclipse.remote.internal.core.services.local;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.filesystem.URIUtil;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.remote.core.IRemoteBulkFileService;
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnection.Service;
 import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.IRemoteProcessService;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.core.RemoteChecksums;
+import org.eclipse.remote.internal.core.messages.Messages;
 
-public class LocalFileService implements IRemoteFileService {
+public class LocalFileService implements IRemoteFileService, IRemoteBulkFileService {
 
 	private final IRemoteConnection connection;
 
@@ -34,7 +67,7 @@ public class LocalFileService implements IRemoteFileService {
 		@SuppressWarnings("unchecked")
 		@Override
 		public <T extends Service> T getService(IRemoteConnection remoteConnection, Class<T> service) {
-			if (IRemoteFileService.class.equals(service)) {
+			if (IRemoteFileService.class.equals(service) || IRemoteBulkFileService.class.equals(service)) {
 				return (T) new LocalFileService(remoteConnection);
 			}
 			return null;
@@ -81,4 +114,228 @@ public class LocalFileService implements IRemoteFileService {
 		return URIUtil.toURI(path);
 	}
 
+	@Override
+	public void upload(IFileStore source, String path, int options, IProgressMonitor monitor) throws RemoteConnectionException {
+		long start = System.nanoTime();
+		boolean done = false;
+		try {
+			source.copy(getResource(path), EFS.OVERWRITE, monitor);
+			done = true;
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		} finally {
+			LocalConnectionMetricsService.record(connection, LocalConnectionMetricsService.UPLOAD, start, !done);
+		}
+	}
+
+	@Override
+	public void download(String path, IFileStore destination, int options, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		long start = System.nanoTime();
+		boolean done = false;
+		try {
+			getResource(path).copy(destination, EFS.OVERWRITE, monitor);
+			done = true;
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		} finally {
+			LocalConnectionMetricsService.record(connection, LocalConnectionMetricsService.DOWNLOAD, start, !done);
+		}
+	}
+
+	@Override
+	public Map<String, String> getChecksums(Collection<String> paths, final String algorithm,
+			final IChecksumListener listener, IProgressMonitor monitor) throws RemoteConnectionException {
+		try {
+			RemoteChecksums.getDigest(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		}
+		final List<String> requested = new ArrayList<String>(paths);
+		List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+		for (final String path : requested) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() throws IOException {
+					return RemoteChecksums.checksum(toFile(path), algorithm);
+				}
+			});
+		}
+		final Map<String, String> result = new HashMap<String, String>();
+		runParallel(tasks, new Completion<String>() {
+			@Override
+			public void completed(int index, String checksum) {
+				result.put(requested.get(index), checksum);
+				if (listener != null) {
+					listener.checksumComputed(requested.get(index), checksum);
+				}
+			}
+		}, monitor);
+		return result;
+	}
+
+	@Override
+	public Map<IPath, IFileInfo> fetchInfos(Collection<IPath> paths, final IFileInfoListener listener, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		final List<IPath> requested = new ArrayList<IPath>(paths);
+		List<Callable<IFileInfo>> tasks = new ArrayList<Callable<IFileInfo>>();
+		for (final IPath path : requested) {
+			tasks.add(new Callable<IFileInfo>() {
+				@Override
+				public IFileInfo call() {
+					return fetchInfo(toFile(path.toOSString()).toPath());
+				}
+			});
+		}
+		final IFileInfo[] infos = new IFileInfo[requested.size()];
+		runParallel(tasks, new Completion<IFileInfo>() {
+			@Override
+			public void completed(int index, IFileInfo info) {
+				infos[index] = info;
+				if (listener != null) {
+					listener.fileInfoFetched(requested.get(index), info);
+				}
+			}
+		}, monitor);
+		Map<IPath, IFileInfo> result = new LinkedHashMap<IPath, IFileInfo>();
+		for (int i = 0; i < infos.length; i++) {
+			result.put(requested.get(i), infos[i]);
+		}
+		return result;
+	}
+
+	@Override
+	public void putInfos(Map<IPath, IFileInfo> infos, int options, IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, infos.size());
+		CoreException failure = null;
+		for (Map.Entry<IPath, IFileInfo> entry : infos.entrySet()) {
+			try {
+				IFileStore store = EFS.getLocalFileSystem().fromLocalFile(toFile(entry.getKey().toOSString()));
+				store.putInfo(entry.getValue(), options, subMon.newChild(1));
+			} catch (CoreException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw new RemoteConnectionException(failure);
+		}
+	}
+
+	@Override
+	public Map<String, String> delete(Collection<String> paths, IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, paths.size());
+		Map<String, String> failures = new LinkedHashMap<String, String>();
+		for (String path : paths) {
+			if (subMon.isCanceled()) {
+				throw new RemoteConnectionException(Messages.LocalFileService_Operation_cancelled);
+			}
+			try {
+				EFS.getLocalFileSystem().fromLocalFile(toFile(path)).delete(EFS.NONE, subMon.newChild(1));
+			} catch (CoreException e) {
+				failures.put(path, e.getMessage());
+			}
+		}
+		return failures;
+	}
+
+	private File toFile(String path) {
+		File file = new File(path);
+		if (!file.isAbsolute()) {
+			file = new File(getBaseDirectory(), path);
+		}
+		return file;
+	}
+
+	/*
+	 * Equivalent of the local file system's fetchInfo(), reading all the attributes with one call where the platform
+	 * supports it.
+	 */
+	private static IFileInfo fetchInfo(java.nio.file.Path file) {
+		java.nio.file.Path name = file.getFileName();
+		FileInfo info = new FileInfo(name == null ? "" : name.toString()); //$NON-NLS-1$
+		try {
+			BasicFileAttributes attrs;
+			try {
+				PosixFileAttributes posix = Files.readAttributes(file, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				Set<PosixFilePermission> perms = posix.permissions();
+				info.setAttribute(EFS.ATTRIBUTE_OWNER_READ, perms.contains(PosixFilePermission.OWNER_READ));
+				info.setAttribute(EFS.ATTRIBUTE_OWNER_WRITE, perms.contains(PosixFilePermission.OWNER_WRITE));
+				info.setAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE, perms.contains(PosixFilePermission.OWNER_EXECUTE));
+				info.setAttribute(EFS.ATTRIBUTE_GROUP_READ, perms.contains(PosixFilePermission.GROUP_READ));
+				info.setAttribute(EFS.ATTRIBUTE_GROUP_WRITE, perms.contains(PosixFilePermission.GROUP_WRITE));
+				info.setAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE, perms.contains(PosixFilePermission.GROUP_EXECUTE));
+				info.setAttribute(EFS.ATTRIBUTE_OTHER_READ, perms.contains(PosixFilePermission.OTHERS_READ));
+				info.setAttribute(EFS.ATTRIBUTE_OTHER_WRITE, perms.contains(PosixFilePermission.OTHERS_WRITE));
+				info.setAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE, perms.contains(PosixFilePermission.OTHERS_EXECUTE));
+				info.setAttribute(EFS.ATTRIBUTE_READ_ONLY, !perms.contains(PosixFilePermission.OWNER_WRITE));
+				info.setAttribute(EFS.ATTRIBUTE_EXECUTABLE, perms.contains(PosixFilePermission.OWNER_EXECUTE));
+				attrs = posix;
+			} catch (UnsupportedOperationException e) {
+				attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				info.setAttribute(EFS.ATTRIBUTE_READ_ONLY, !Files.isWritable(file));
+				info.setAttribute(EFS.ATTRIBUTE_HIDDEN, Files.isHidden(file));
+			}
+			info.setExists(true);
+			info.setDirectory(attrs.isDirectory());
+			info.setLength(attrs.isDirectory() ? 0 : attrs.size());
+			info.setLastModified(attrs.lastModifiedTime().toMillis());
+			if (attrs.isSymbolicLink()) {
+				info.setAttribute(EFS.ATTRIBUTE_SYMLINK, true);
+				info.setStringAttribute(EFS.ATTRIBUTE_LINK_TARGET, Files.readSymbolicLink(file).toString());
+			}
+		} catch (NoSuchFileException e) {
+			info.setExists(false);
+		} catch (IOException e) {
+			info.setExists(false);
+			info.setError(IFileInfo.IO_ERROR);
+		}
+		return info;
+	}
+
+	private interface Completion<T> {
+		void completed(int index, T result);
+	}
+
+	/*
+	 * Run the tasks on a pool sized to the number of processors, passing each result to completion on this thread in the
+	 * order they finish. Tasks that fail are skipped.
+	 */
+	private static <T> void runParallel(List<Callable<T>> tasks, Completion<T> completion, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, tasks.size());
+		if (tasks.isEmpty()) {
+			return;
+		}
+		int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			CompletionService<T> service = new ExecutorCompletionService<T>(pool);
+			Map<Future<T>, Integer> indexes = new HashMap<Future<T>, Integer>();
+			for (int i = 0; i < tasks.size(); i++) {
+				indexes.put(service.submit(tasks.get(i)), i);
+			}
+			for (int remaining = tasks.size(); remaining > 0;) {
+				if (subMon.isCanceled()) {
+					throw new RemoteConnectionException(Messages.LocalFileService_Operation_cancelled);
+				}
+				Future<T> future = service.poll(100, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				remaining--;
+				subMon.worked(1);
+				try {
+					completion.completed(indexes.get(future), future.get());
+				} catch (ExecutionException e) {
+					// File doesn't exist or can't be read
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
 }
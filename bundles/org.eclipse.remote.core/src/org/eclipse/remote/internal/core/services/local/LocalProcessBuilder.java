@@ -34,6 +34,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.remote.core.AbstractRemoteProcessBuilder;
 import org.eclipse.remote.core.IProcessFactory;
 import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
 import org.eclipse.remote.core.IRemoteProcess;
 import org.eclipse.remote.core.IRemoteProcessBuilder;
 import org.eclipse.remote.internal.core.RemoteCorePlugin;
@@ -118,6 +119,8 @@ public class LocalProcessBuilder extends AbstractRemoteProcessBuilder {
 			environmentArray[index++] = entry.getKey() + "=" + entry.getValue(); //$NON-NLS-1$
 		}
 
+		long start = System.nanoTime();
+		boolean started = false;
 		try {
 			if ((flags & IRemoteProcessBuilder.ALLOCATE_PTY) != 0) {
 				pty = new PTY(Mode.TERMINAL);
@@ -131,8 +134,11 @@ public class LocalProcessBuilder extends AbstractRemoteProcessBuilder {
 					localProcess = fProcessFactory.exec(commandArray, environmentArray);
 				}
 			}
+			started = true;
 		} catch (CoreException e) {
 			throw new IOException(e.getMessage());
+		} finally {
+			LocalConnectionMetricsService.record(getRemoteConnection(), IRemoteConnectionMetricsService.EXEC, start, !started);
 		}
 		return new RemoteProcess(getRemoteConnection(), this);
 	}
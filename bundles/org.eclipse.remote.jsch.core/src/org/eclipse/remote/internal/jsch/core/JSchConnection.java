@@ -15,6 +15,7 @@ package org.eclipse.remote.internal.jsch.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +28,7 @@ import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnectionChangeListener;
 import org.eclipse.remote.core.IRemoteConnectionControlService;
 import org.eclipse.remote.core.IRemoteConnectionHostService;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
 import org.eclipse.remote.core.IRemoteConnectionPropertyService;
 import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
 import org.eclipse.remote.core.IRemotePortForwardingService;
@@ -38,13 +40,17 @@ import org.eclipse.remote.core.RemoteServicesUtils;
 import org.eclipse.remote.core.exception.AddressInUseException;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.eclipse.remote.core.exception.UnableToForwardPortException;
+import org.eclipse.remote.internal.core.RemoteConnectionMetrics;
+import org.eclipse.remote.internal.core.RemoteFlightRecorder;
 import org.eclipse.remote.internal.jsch.core.commands.ExecCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline;
 import org.eclipse.remote.internal.jsch.core.messages.Messages;
 
 import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.ChannelShell;
+import com.jcraft.jsch.ChannelSubsystem;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 
@@ -68,11 +74,23 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 	public static final String TIMEOUT_ATTR = "JSCH_TIMEOUT_ATTR"; //$NON-NLS-1$
 	public static final String USE_LOGIN_SHELL_ATTR = "JSCH_USE_LOGIN_SHELL_ATTR"; //$NON-NLS-1$
 	public static final String LOGIN_SHELL_COMMAND_ATTR = "JSCH_LOGIN_SHELL_COMMAND_ATTR"; //$NON-NLS-1$
+	public static final String DIRECT_TRANSFER_ATTR = "JSCH_DIRECT_TRANSFER_ATTR"; //$NON-NLS-1$
+	public static final String TRANSFER_SEGMENT_SIZE_ATTR = "JSCH_TRANSFER_SEGMENT_SIZE_ATTR"; //$NON-NLS-1$
+	public static final String TRANSFER_PARALLELISM_ATTR = "JSCH_TRANSFER_PARALLELISM_ATTR"; //$NON-NLS-1$
+	public static final String TRANSFER_SESSIONS_ATTR = "JSCH_TRANSFER_SESSIONS_ATTR"; //$NON-NLS-1$
+	public static final String TRANSFER_VERIFY_ATTR = "JSCH_TRANSFER_VERIFY_ATTR"; //$NON-NLS-1$
+	public static final String MKDIR_EXEC_ATTR = "JSCH_MKDIR_EXEC_ATTR"; //$NON-NLS-1$
 
 	public static final int DEFAULT_PORT = 22;
 	public static final int DEFAULT_TIMEOUT = 0;
 	public static final boolean DEFAULT_IS_PASSWORD = false;
 	public static final boolean DEFAULT_USE_LOGIN_SHELL = true;
+	public static final boolean DEFAULT_DIRECT_TRANSFER = false;
+	public static final int DEFAULT_TRANSFER_SEGMENT_SIZE = 8 * 1024 * 1024;
+	public static final int DEFAULT_TRANSFER_PARALLELISM = 4;
+	public static final int DEFAULT_TRANSFER_SESSIONS = 1;
+	public static final boolean DEFAULT_TRANSFER_VERIFY = false;
+	public static final boolean DEFAULT_MKDIR_EXEC = false;
 	public static final String DEFAULT_LOGIN_SHELL_COMMAND = "/bin/bash -l -c '{0}'"; //$NON-NLS-1$
 	public static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
@@ -80,28 +98,38 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 
 	private final IRemoteConnection fRemoteConnection;
 	private final IJSchService fJSchService;
+	private final RemoteConnectionMetrics fMetrics;
 
 	private final Map<String, String> fEnv = new HashMap<>();
 	private final Map<String, String> fProperties = new HashMap<>();
 	private final List<Session> fSessions = new ArrayList<>();
 
+	private final List<Session> fTransferSessions = new ArrayList<>();
+	private final LinkedList<ChannelSftp> fTransferChannels = new LinkedList<>();
+	private int fNextTransferSession;
+	private SftpPipeline fSftpPipeline;
+
 	private ChannelSftp fSftpCommandChannel;
 	private boolean isFullySetup; // including sftp channel and environment
+	private volatile boolean fRemoved;
 
 	private static final Map<IRemoteConnection, JSchConnection> connectionMap = new HashMap<>();
 
 	public JSchConnection(IRemoteConnection connection) {
 		fRemoteConnection = connection;
 		fJSchService = Activator.getDefault().getService();
+		fMetrics = new RemoteConnectionMetrics(connection);
 		connection.addConnectionChangeListener(this);
 	}
 
 	@Override
 	public void connectionChanged(RemoteConnectionChangeEvent event) {
 		if (event.getType() == RemoteConnectionChangeEvent.CONNECTION_REMOVED) {
+			fRemoved = true;
 			synchronized (connectionMap) {
 				connectionMap.remove(event.getConnection());
 			}
+			JschFileStore.clearInstances(event.getConnection().getName());
 		}
 	}
 
@@ -143,6 +171,8 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 					|| IRemoteConnectionPropertyService.class.equals(service) || IRemotePortForwardingService.class.equals(service)
 					|| IRemoteProcessService.class.equals(service) || IRemoteConnectionHostService.class.equals(service)) {
 				return (T) connection.getService(JSchConnection.class);
+			} else if (IRemoteConnectionMetricsService.class.equals(service)) {
+				return (T) connection.getService(JSchConnection.class).getMetrics();
 			} else {
 				return null;
 			}
@@ -197,6 +227,22 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 			}
 			fSftpCommandChannel = null;
 		}
+		synchronized (fTransferChannels) {
+			for (ChannelSftp channel : fTransferChannels) {
+				channel.disconnect();
+			}
+			fTransferChannels.clear();
+			if (fSftpPipeline != null) {
+				fSftpPipeline.disconnect();
+				fSftpPipeline = null;
+			}
+			for (Session session : fTransferSessions) {
+				if (session != null && session.isConnected()) {
+					session.disconnect();
+				}
+			}
+			fTransferSessions.clear();
+		}
 		for (Session session : fSessions) {
 			if (session.isConnected()) {
 				session.disconnect();
@@ -414,6 +460,158 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 		}
 	}
 
+	/**
+	 * Get an sftp channel for one part of a parallel transfer. Channels are taken from a pool and, if more than one transfer
+	 * session is configured (see {@link #getTransferSessions()}), are spread across the sessions so that each has its own
+	 * window and cipher. The channel must be returned with {@link #releaseTransferChannel(ChannelSftp)}.
+	 *
+	 * @return sftp channel
+	 * @throws RemoteConnectionException
+	 *             if a channel could not be opened
+	 */
+	public ChannelSftp acquireTransferChannel() throws RemoteConnectionException {
+		synchronized (fTransferChannels) {
+			while (!fTransferChannels.isEmpty()) {
+				ChannelSftp channel = fTransferChannels.removeFirst();
+				if (channel.isConnected()) {
+					return channel;
+				}
+			}
+		}
+		ChannelSftp channel = openSftpChannel(nextTransferSession());
+		if (channel == null) {
+			throw new RemoteConnectionException(Messages.JSchConnection_Unable_to_open_sftp_channel);
+		}
+		return channel;
+	}
+
+	/**
+	 * Return a channel obtained from {@link #acquireTransferChannel()} to the pool. Channels that are no longer connected, or
+	 * that would take the pool beyond the configured parallelism, are closed.
+	 *
+	 * @param channel
+	 *            channel to return
+	 */
+	public void releaseTransferChannel(ChannelSftp channel) {
+		if (channel.isConnected() && hasOpenSession()) {
+			synchronized (fTransferChannels) {
+				if (fTransferChannels.size() < getTransferParallelism()) {
+					fTransferChannels.addLast(channel);
+					return;
+				}
+			}
+		}
+		channel.disconnect();
+	}
+
+	/**
+	 * Get a pipeline for sending batches of sftp requests without waiting for each reply. One idle pipeline is kept open
+	 * between batches. The pipeline must be returned with {@link #releaseSftpPipeline(SftpPipeline)}.
+	 *
+	 * @return sftp pipeline
+	 * @throws RemoteConnectionException
+	 *             if a channel could not be opened
+	 */
+	public SftpPipeline acquireSftpPipeline() throws RemoteConnectionException {
+		synchronized (fTransferChannels) {
+			SftpPipeline pipeline = fSftpPipeline;
+			fSftpPipeline = null;
+			if (pipeline != null && pipeline.isConnected()) {
+				return pipeline;
+			}
+		}
+		try {
+			return new SftpPipeline((ChannelSubsystem) fSessions.get(0).openChannel("subsystem")); //$NON-NLS-1$
+		} catch (JSchException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Return a pipeline obtained from {@link #acquireSftpPipeline()}.
+	 *
+	 * @param pipeline
+	 *            pipeline to return
+	 */
+	public void releaseSftpPipeline(SftpPipeline pipeline) {
+		if (pipeline.isConnected() && hasOpenSession()) {
+			synchronized (fTransferChannels) {
+				if (fSftpPipeline == null) {
+					fSftpPipeline = pipeline;
+					return;
+				}
+			}
+		}
+		pipeline.disconnect();
+	}
+
+	/**
+	 * Open an exec channel for one part of a parallel transfer. Like {@link #acquireTransferChannel()}, channels are spread
+	 * across the transfer sessions.
+	 *
+	 * @return exec channel
+	 * @throws RemoteConnectionException
+	 *             if a channel could not be opened
+	 */
+	public ChannelExec getTransferExecChannel() throws RemoteConnectionException {
+		try {
+			return (ChannelExec) nextTransferSession().openChannel("exec"); //$NON-NLS-1$
+		} catch (JSchException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		}
+	}
+
+	/*
+	 * Round robin over the main session and any additional transfer sessions, opening the additional sessions on first use.
+	 * Sessions are connected without holding the lock, so that a slow connect doesn't hold up transfers on the sessions
+	 * that are already open.
+	 */
+	private Session nextTransferSession() throws RemoteConnectionException {
+		int index;
+		synchronized (fTransferChannels) {
+			int count = Math.max(getTransferSessions(), 1);
+			index = (fNextTransferSession++ & Integer.MAX_VALUE) % count;
+			if (index == 0) {
+				return fSessions.get(0);
+			}
+			while (fTransferSessions.size() < index) {
+				fTransferSessions.add(null);
+			}
+			Session session = fTransferSessions.get(index - 1);
+			if (session != null && session.isConnected()) {
+				return session;
+			}
+		}
+		Session session = connectSession(null);
+		synchronized (fTransferChannels) {
+			if (fSessions.isEmpty() || !fSessions.get(0).isConnected()) {
+				// The connection was closed while the session was connecting
+				session.disconnect();
+				throw new RemoteConnectionException(Messages.JSchConnection_connectionNotOpen);
+			}
+			while (fTransferSessions.size() < index) {
+				fTransferSessions.add(null);
+			}
+			Session current = fTransferSessions.get(index - 1);
+			if (current != null && current.isConnected()) {
+				// Another thread connected the session first
+				session.disconnect();
+				return current;
+			}
+			fTransferSessions.set(index - 1, session);
+			return session;
+		}
+	}
+
+	/**
+	 * Get the recorder for the metrics of this connection.
+	 *
+	 * @return metrics recorder
+	 */
+	public RemoteConnectionMetrics getMetrics() {
+		return fMetrics;
+	}
+
 	public String getPassphrase() {
 		return fRemoteConnection.getSecureAttribute(PASSPHRASE_ATTR);
 	}
@@ -617,6 +815,16 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 		return hasOpenSession() && isFullySetup;
 	}
 
+	/**
+	 * Check if the connection has been removed from its connection type. Objects that hold on to a JSchConnection
+	 * should look it up again if so.
+	 *
+	 * @return true if the connection has been removed
+	 */
+	public boolean isRemoved() {
+		return fRemoved;
+	}
+
 	public boolean usePassword() {
 		String str = fRemoteConnection.getAttribute(IS_PASSWORD_ATTR);
 		return !str.isEmpty() ? Boolean.parseBoolean(str) : DEFAULT_IS_PASSWORD;
@@ -751,6 +959,30 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 	}
 
 	private Session newSession(IProgressMonitor monitor) throws RemoteConnectionException {
+		RemoteFlightRecorder.Event event = RemoteFlightRecorder.CONNECTION_PHASE.begin();
+		boolean done = false;
+		try {
+			Session session = connectSession(monitor);
+			if (session != null) {
+				fSessions.add(session);
+			}
+			done = true;
+			return session;
+		} finally {
+			endPhase(event, "session", !done); //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * Commit the flight recorder event of a phase of opening the connection
+	 */
+	private void endPhase(RemoteFlightRecorder.Event event, String phase, boolean failed) {
+		if (event != null) {
+			event.commit(getRemoteConnection().getName(), phase, failed);
+		}
+	}
+
+	private Session connectSession(IProgressMonitor monitor) throws RemoteConnectionException {
 		SubMonitor progress = SubMonitor.convert(monitor, 10);
 		try {
 			IRemoteConnectionWorkingCopy wc = getRemoteConnection().getWorkingCopy();
@@ -782,8 +1014,9 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 			if (progress.isCanceled()) {
 				return null;
 			}
-			wc.save();
-			fSessions.add(session);
+			if (wc.isDirty()) {
+				wc.save();
+			}
 			return session;
 		} catch (OperationCanceledException e) {
 			throw new RemoteConnectionException(Messages.JSchConnection_0);
@@ -835,16 +1068,28 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 		if (setupFully && !isFullySetup) { // happens on the first open with setupFully==true, which might not be the first open
 			isFullySetup = true;
 			// getCwd checks the exec channel before checkConfiguration checks the sftp channel
+			RemoteFlightRecorder.Event event = RemoteFlightRecorder.CONNECTION_PHASE.begin();
 			fWorkingDir = getCwd(subMon.newChild(10));
+			endPhase(event, "cwd", fWorkingDir == null); //$NON-NLS-1$
+			event = RemoteFlightRecorder.CONNECTION_PHASE.begin();
+			String phase = "configuration"; //$NON-NLS-1$
 			try {
 				if (!checkConfiguration(fSessions.get(0), subMon.newChild(20))) {
+					endPhase(event, phase, false);
+					event = null;
 					newSession(subMon.newChild(10));
+					event = RemoteFlightRecorder.CONNECTION_PHASE.begin();
+					phase = "environment"; //$NON-NLS-1$
 					loadEnv(subMon.newChild(10));
 				}
+				endPhase(event, phase, false);
 			} catch (RemoteConnectionException e) {
+				endPhase(event, phase, true);
 				// Do not throw exception now, it will be thrown if FileService is accessed.
 			}
+			event = RemoteFlightRecorder.CONNECTION_PHASE.begin();
 			loadProperties(subMon.newChild(10));
+			endPhase(event, "properties", false); //$NON-NLS-1$
 			fRemoteConnection.fireConnectionChangeEvent(RemoteConnectionChangeEvent.CONNECTION_OPENED);
 		}
 	}
@@ -905,6 +1150,69 @@ public class JSchConnection implements IRemoteConnectionControlService, IRemoteC
 		}
 	}
 
+	/**
+	 * Check if files copied from this connection to another JSch connection may be sent directly between the two hosts (using
+	 * scp on this host) rather than being piped through the client.
+	 *
+	 * @return true if a direct host-to-host transfer should be attempted
+	 */
+	public boolean useDirectTransfer() {
+		String str = fRemoteConnection.getAttribute(DIRECT_TRANSFER_ATTR);
+		return !str.isEmpty() ? Boolean.parseBoolean(str) : DEFAULT_DIRECT_TRANSFER;
+	}
+
+	/**
+	 * Get the size of the byte ranges that large files are split into for parallel transfers.
+	 *
+	 * @return segment size in bytes
+	 */
+	public int getTransferSegmentSize() {
+		String str = fRemoteConnection.getAttribute(TRANSFER_SEGMENT_SIZE_ATTR);
+		return !str.isEmpty() ? Integer.parseInt(str) : DEFAULT_TRANSFER_SEGMENT_SIZE;
+	}
+
+	/**
+	 * Get the number of segments of a large file that are transferred concurrently. A value of 1 disables parallel
+	 * transfers.
+	 *
+	 * @return number of concurrent segments
+	 */
+	public int getTransferParallelism() {
+		String str = fRemoteConnection.getAttribute(TRANSFER_PARALLELISM_ATTR);
+		return !str.isEmpty() ? Integer.parseInt(str) : DEFAULT_TRANSFER_PARALLELISM;
+	}
+
+	/**
+	 * Get the number of ssh sessions that parallel transfers are spread over, including the main session.
+	 *
+	 * @return number of sessions
+	 */
+	public int getTransferSessions() {
+		String str = fRemoteConnection.getAttribute(TRANSFER_SESSIONS_ATTR);
+		return !str.isEmpty() ? Integer.parseInt(str) : DEFAULT_TRANSFER_SESSIONS;
+	}
+
+	/**
+	 * Check if parallel transfers should be verified by comparing checksums once they are complete. This reads both copies
+	 * of the file again, so it is off unless enabled for the connection.
+	 *
+	 * @return true if transfers should be verified
+	 */
+	public boolean verifyTransfers() {
+		String str = fRemoteConnection.getAttribute(TRANSFER_VERIFY_ATTR);
+		return !str.isEmpty() ? Boolean.parseBoolean(str) : DEFAULT_TRANSFER_VERIFY;
+	}
+
+	/**
+	 * Check if directories should be created by running "mkdir -p" on the remote host rather than with sftp requests.
+	 *
+	 * @return true if mkdir should be run as a command
+	 */
+	public boolean useMkdirExec() {
+		String str = fRemoteConnection.getAttribute(MKDIR_EXEC_ATTR);
+		return !str.isEmpty() ? Boolean.parseBoolean(str) : DEFAULT_MKDIR_EXEC;
+	}
+
 	@Override
 	public boolean useLoginShell() {
 		String str = fRemoteConnection.getAttribute(USE_LOGIN_SHELL_ATTR);
@@ -11,20 +11,46 @@
  *******************************************************************************/
 package org.eclipse.remote.internal.jsch.core;
 
+import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.IRemoteBulkFileService;
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnection.Service;
 import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.IRemoteProcessService;
 import org.eclipse.remote.core.RemoteServicesUtils;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.commands.BulkDeleteCommand;
+import org.eclipse.remote.internal.jsch.core.commands.ChecksumCommand;
+import org.eclipse.remote.internal.jsch.core.commands.ExecCommand;
+import org.eclipse.remote.internal.jsch.core.commands.FetchInfosCommand;
+import org.eclipse.remote.internal.jsch.core.commands.PutInfosCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedPutCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedTransferCommand;
+import org.eclipse.remote.internal.jsch.core.commands.TarDownloadCommand;
+import org.eclipse.remote.internal.jsch.core.commands.TarUploadCommand;
 import org.eclipse.remote.internal.jsch.core.messages.Messages;
 
-public class JSchFileManager implements IRemoteFileService {
+public class JSchFileManager implements IRemoteFileService, IRemoteBulkFileService {
 	private final IRemoteConnection fConnection;
+	private final ConcurrentMap<String, Boolean> fCommands = new ConcurrentHashMap<String, Boolean>();
 
 	private JSchFileManager(IRemoteConnection connection) {
 		fConnection = connection;
@@ -34,7 +60,7 @@ public class JSchFileManager implements IRemoteFileService {
 		@SuppressWarnings("unchecked")
 		@Override
 		public <T extends Service> T getService(IRemoteConnection remoteConnection, Class<T> service) {
-			if (IRemoteFileService.class.equals(service)) {
+			if (IRemoteFileService.class.equals(service) || IRemoteBulkFileService.class.equals(service)) {
 				if (remoteConnection instanceof JSchConnection)
 					try {
 						((JSchConnection) remoteConnection).getSftpCommandChannel();
@@ -60,11 +86,202 @@ public class JSchFileManager implements IRemoteFileService {
 
 	@Override
 	public IFileStore getResource(String pathStr) {
+		return JschFileStore.getInstance(JSchFileSystem.getURIFor(fConnection.getName(), getPath(pathStr).toString()));
+	}
+
+	private IPath getPath(String pathStr) {
 		IPath path = RemoteServicesUtils.posixPath(pathStr);
 		if (!path.isAbsolute()) {
 			path = RemoteServicesUtils.posixPath(getBaseDirectory()).append(path);
 		}
-		return JschFileStore.getInstance(JSchFileSystem.getURIFor(fConnection.getName(), path.toString()));
+		return path;
+	}
+
+	private JSchConnection getOpenConnection() throws RemoteConnectionException {
+		JSchConnection connection = fConnection.getService(JSchConnection.class);
+		if (!connection.isOpen()) {
+			throw new RemoteConnectionException(Messages.JSchConnection_connectionNotOpen);
+		}
+		return connection;
+	}
+
+	/**
+	 * Check if a command is available on the remote host. The answer is remembered for the life of this service. If the
+	 * check itself fails, e.g. because it was cancelled or the channel couldn't be opened, the command is treated as
+	 * missing this time and checked again next time.
+	 */
+	private boolean hasCommand(JSchConnection connection, String command, IProgressMonitor monitor) {
+		Boolean result = fCommands.get(command);
+		if (result != null) {
+			return result;
+		}
+		String status;
+		try {
+			// Print the exit status, so that a missing command can be told apart from a failure to run the check
+			status = new ExecCommand(connection).setCommand("command -v " + command + " >/dev/null; echo $?") //$NON-NLS-1$ //$NON-NLS-2$
+					.getResult(monitor).trim();
+		} catch (RemoteConnectionException e) {
+			return false;
+		}
+		// Startup files of the shell may print something first
+		status = status.substring(status.lastIndexOf('\n') + 1).trim();
+		if (!status.matches("\\d+")) { //$NON-NLS-1$
+			return false;
+		}
+		result = Boolean.valueOf(status.equals("0")); //$NON-NLS-1$
+		fCommands.putIfAbsent(command, result);
+		return result;
+	}
+
+	@Override
+	public void upload(IFileStore source, String path, int options, IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		JSchConnection connection = getOpenConnection();
+		try {
+			IFileInfo info = source.fetchInfo(EFS.NONE, subMon.newChild(1));
+			if (!info.isDirectory()) {
+				File localFile = source.toLocalFile(EFS.NONE, subMon.newChild(1));
+				if (localFile != null && SegmentedTransferCommand.isSegmented(connection, info.getLength())) {
+					new SegmentedPutCommand(connection, localFile, getPath(path)).getResult(subMon.newChild(16));
+					getResource(path).putInfo(info, EFS.SET_ATTRIBUTES | EFS.SET_LAST_MODIFIED, subMon.newChild(2));
+				} else {
+					source.copy(getResource(path), EFS.OVERWRITE, subMon.newChild(18));
+				}
+				return;
+			}
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		}
+		if (hasCommand(connection, "tar", subMon.newChild(1))) { //$NON-NLS-1$
+			boolean compress = (options & COMPRESS) != 0 && hasCommand(connection, "gzip", subMon.newChild(1)); //$NON-NLS-1$
+			subMon.setWorkRemaining(18);
+			new TarUploadCommand(connection, source, getPath(path), compress).getResult(subMon.newChild(18));
+		} else {
+			subMon.setWorkRemaining(18);
+			try {
+				source.copy(getResource(path), EFS.OVERWRITE, subMon.newChild(18));
+			} catch (CoreException e) {
+				throw new RemoteConnectionException(e);
+			}
+		}
+	}
+
+	@Override
+	public void download(String path, IFileStore destination, int options, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		JSchConnection connection = getOpenConnection();
+		try {
+			// A single file is copied through EFS, which transfers large files in parallel segments
+			IFileStore store = getResource(path);
+			if (!store.fetchInfo(EFS.NONE, subMon.newChild(1)).isDirectory()) {
+				store.copy(destination, EFS.OVERWRITE, subMon.newChild(19));
+				return;
+			}
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		}
+		if (hasCommand(connection, "tar", subMon.newChild(1))) { //$NON-NLS-1$
+			boolean compress = (options & COMPRESS) != 0 && hasCommand(connection, "gzip", subMon.newChild(1)); //$NON-NLS-1$
+			subMon.setWorkRemaining(18);
+			new TarDownloadCommand(connection, getPath(path), destination, compress).getResult(subMon.newChild(18));
+		} else {
+			subMon.setWorkRemaining(18);
+			try {
+				getResource(path).copy(destination, EFS.OVERWRITE, subMon.newChild(18));
+			} catch (CoreException e) {
+				throw new RemoteConnectionException(e);
+			}
+		}
+	}
+
+	@Override
+	public Map<String, String> getChecksums(Collection<String> paths, String algorithm, final IChecksumListener listener,
+			IProgressMonitor monitor) throws RemoteConnectionException {
+		JSchConnection connection = getOpenConnection();
+
+		/*
+		 * The command works on absolute paths, so keep track of the path each one was requested as
+		 */
+		final Map<String, String> requested = new HashMap<String, String>();
+		for (String path : paths) {
+			requested.put(getPath(path).toString(), path);
+		}
+		IChecksumListener commandListener = null;
+		if (listener != null) {
+			commandListener = new IChecksumListener() {
+				@Override
+				public void checksumComputed(String path, String checksum) {
+					listener.checksumComputed(requested.get(path), checksum);
+				}
+			};
+		}
+		Map<String, String> checksums = new ChecksumCommand(connection, requested.keySet(), algorithm, commandListener)
+				.getResult(monitor);
+		if (checksums == null) {
+			throw new RemoteConnectionException(NLS.bind(Messages.JSchFileManager_Checksum_not_supported, algorithm));
+		}
+		Map<String, String> result = new HashMap<String, String>();
+		for (Map.Entry<String, String> entry : checksums.entrySet()) {
+			result.put(requested.get(entry.getKey()), entry.getValue());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<IPath, IFileInfo> fetchInfos(Collection<IPath> paths, final IFileInfoListener listener, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		JSchConnection connection = getOpenConnection();
+		final List<IPath> requested = new ArrayList<IPath>(paths);
+		final Map<IPath, IPath> absolute = new HashMap<IPath, IPath>();
+		List<IPath> remotePaths = new ArrayList<IPath>();
+		for (IPath path : requested) {
+			IPath remotePath = getPath(path.toString());
+			absolute.put(remotePath, path);
+			remotePaths.add(remotePath);
+		}
+		IFileInfoListener commandListener = null;
+		if (listener != null) {
+			commandListener = new IFileInfoListener() {
+				@Override
+				public void fileInfoFetched(IPath path, IFileInfo info) {
+					listener.fileInfoFetched(absolute.get(path), info);
+				}
+			};
+		}
+		Map<IPath, IFileInfo> infos = new FetchInfosCommand(connection, remotePaths, commandListener).getResult(monitor);
+		Map<IPath, IFileInfo> result = new LinkedHashMap<IPath, IFileInfo>();
+		for (int i = 0; i < requested.size(); i++) {
+			result.put(requested.get(i), infos.get(remotePaths.get(i)));
+		}
+		return result;
+	}
+
+	@Override
+	public void putInfos(Map<IPath, IFileInfo> infos, int options, IProgressMonitor monitor) throws RemoteConnectionException {
+		Map<IPath, IFileInfo> remoteInfos = new LinkedHashMap<IPath, IFileInfo>();
+		for (Map.Entry<IPath, IFileInfo> entry : infos.entrySet()) {
+			remoteInfos.put(getPath(entry.getKey().toString()), entry.getValue());
+		}
+		new PutInfosCommand(getOpenConnection(), remoteInfos, options).getResult(monitor);
+	}
+
+	@Override
+	public Map<String, String> delete(Collection<String> paths, IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		JSchConnection connection = getOpenConnection();
+		Map<IPath, String> requested = new LinkedHashMap<IPath, String>();
+		for (String path : paths) {
+			requested.put(getPath(path), path);
+		}
+		boolean useExec = hasCommand(connection, "xargs", subMon.newChild(1)); //$NON-NLS-1$
+		Map<IPath, String> failures = new BulkDeleteCommand(connection, requested.keySet(), useExec)
+				.getResult(subMon.newChild(19));
+		Map<String, String> result = new LinkedHashMap<String, String>();
+		for (Map.Entry<IPath, String> failure : failures.entrySet()) {
+			result.put(requested.get(failure.getKey()), failure.getValue());
+		}
+		return result;
 	}
 
 	@Override
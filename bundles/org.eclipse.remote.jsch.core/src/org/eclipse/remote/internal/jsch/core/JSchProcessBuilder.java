@@ -25,11 +25,14 @@ import java.util.Set;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.remote.core.AbstractRemoteProcessBuilder;
 import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
 import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.IRemoteProcess;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.eclipse.remote.internal.core.RemoteDebugOptions;
+import org.eclipse.remote.internal.core.RemoteFlightRecorder;
 import org.eclipse.remote.internal.core.RemoteProcess;
+import org.eclipse.remote.internal.core.RemoteTrace;
 import org.eclipse.remote.internal.jsch.core.messages.Messages;
 
 import com.jcraft.jsch.Channel;
@@ -39,9 +42,22 @@ import com.jcraft.jsch.JSchException;
 
 public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 
+	/** Characters that are not escaped in commands */
+	private static final Set<Character> charSet = new HashSet<Character>();
+
+	static {
+		// Create set of characters not to escape
+		String trustedChars = null;
+		trustedChars = "abcdefghijklmnopqrstuvwxyz" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ"; //$NON-NLS-1$ //$NON-NLS-2$
+		trustedChars += "0123456789" + "/._-"; //$NON-NLS-1$ //$NON-NLS-2$
+		CharacterIterator it = new StringCharacterIterator(trustedChars);
+		for (char c = it.first(); c != CharacterIterator.DONE; c = it.next()) {
+			charSet.add(c);
+		}
+	}
+
 	private final JSchConnection fConnection;
 	private final Map<String, String> fRemoteEnv = new HashMap<String, String>();
-	private final Set<Character> charSet = new HashSet<Character>();
 
 	private Channel fChannel;
 	private Map<String, String> fNewRemoteEnv;
@@ -52,15 +68,6 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 		super(connection, command);
 		fConnection = connection.getService(JSchConnection.class);
 		fRemoteEnv.putAll(fConnection.getEnv());
-
-		// Create set of characters not to escape
-		String trustedChars = null;
-		trustedChars = "abcdefghijklmnopqrstuvwxyz" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ"; //$NON-NLS-1$ //$NON-NLS-2$
-		trustedChars += "0123456789" + "/._-"; //$NON-NLS-1$ //$NON-NLS-2$
-		CharacterIterator it = new StringCharacterIterator(trustedChars);
-		for (char c = it.first(); c != CharacterIterator.DONE; c = it.next()) {
-			charSet.add(c);
-		}
 	}
 
 	public JSchProcessBuilder(IRemoteConnection connection, String... command) {
@@ -108,14 +115,7 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 			throw new IndexOutOfBoundsException();
 		}
 
-		String remoteCmd = ""; //$NON-NLS-1$
-
-		for (int i = 0; i < cmdArgs.size(); i++) {
-			if (i > 0) {
-				remoteCmd += " "; //$NON-NLS-1$
-			}
-			remoteCmd += charEscapify(cmdArgs.get(i), charSet);
-		}
+		String remoteCmd = buildCommandLine(cmdArgs);
 
 		/*
 		 * There are two possibilities:
@@ -162,6 +162,9 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 			}
 		}
 
+		long start = System.nanoTime();
+		RemoteFlightRecorder.Event event = RemoteFlightRecorder.PROCESS_START.begin();
+		boolean started = false;
 		try {
 			if (fShell) {
 				fChannel = fConnection.getShellChannel();
@@ -169,7 +172,7 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 					((ChannelShell) fChannel).setPty(true);
 					((ChannelShell) fChannel).setPtyType((flags & FORWARD_X11) == FORWARD_X11 ? "xterm" : "vt100"); //$NON-NLS-1$ //$NON-NLS-2$
 				}
-				RemoteDebugOptions.trace(RemoteDebugOptions.DEBUG_REMOTE_COMMANDS, "executing shell"); //$NON-NLS-1$
+				RemoteTrace.trace(RemoteDebugOptions.COMMANDS, getRemoteConnection().getName(), "executing shell"); //$NON-NLS-1$
 			} else {
 				fChannel = fConnection.getExecChannel();
 				String command = buildCommand(remoteCmd, env, clearEnv);
@@ -178,15 +181,24 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 					((ChannelExec) fChannel).setPty(true);
 					((ChannelExec) fChannel).setPtyType((flags & FORWARD_X11) == FORWARD_X11 ? "xterm" : "vt100"); //$NON-NLS-1$ //$NON-NLS-2$
 				}
-				RemoteDebugOptions.trace(RemoteDebugOptions.DEBUG_REMOTE_COMMANDS, "executing command: " + command); //$NON-NLS-1$
+				RemoteTrace.trace(RemoteDebugOptions.COMMANDS, getRemoteConnection().getName(), "executing command: {0}", command); //$NON-NLS-1$
 			}
 			fChannel.setXForwarding((flags & FORWARD_X11) == FORWARD_X11);
 			fChannel.connect();
+			started = true;
 			return new RemoteProcess(getRemoteConnection(), this);
 		} catch (RemoteConnectionException e) {
 			throw new IOException(e.getMessage());
 		} catch (JSchException e) {
 			throw new IOException(e.getMessage());
+		} finally {
+			fConnection.getMetrics().recordLatency(
+					fShell ? IRemoteConnectionMetricsService.SHELL : IRemoteConnectionMetricsService.EXEC,
+					System.nanoTime() - start, !started);
+			if (event != null) {
+				// the command line without the environment, which may hold secrets
+				event.commit(getRemoteConnection().getName(), fShell ? null : remoteCmd, fShell, !started);
+			}
 		}
 	}
 
@@ -199,10 +211,61 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 	}
 
 	private String buildCommand(String cmd, List<String> environment, boolean clearEnv) {
-		StringBuffer sb = new StringBuffer();
+		String dir = null;
+		String loginShellCommand = null;
 		if (fPreamble) {
 			if (directory() != null) {
-				sb.append("cd " + charEscapify(directory().toURI().getPath(), charSet) + " && "); //$NON-NLS-1$ //$NON-NLS-2$
+				dir = directory().toURI().getPath();
+			}
+			if (fConnection.useLoginShell()) {
+				loginShellCommand = fConnection.getLoginShellCommand();
+			}
+		}
+		return buildCommand(cmd, fPreamble, dir, environment, clearEnv, loginShellCommand);
+	}
+
+	/**
+	 * Escape the command arguments and join them into a command line.
+	 * 
+	 * @param cmdArgs
+	 *            command and arguments
+	 * @return command line
+	 */
+	static String buildCommandLine(List<String> cmdArgs) {
+		String remoteCmd = ""; //$NON-NLS-1$
+
+		for (int i = 0; i < cmdArgs.size(); i++) {
+			if (i > 0) {
+				remoteCmd += " "; //$NON-NLS-1$
+			}
+			remoteCmd += charEscapify(cmdArgs.get(i), charSet);
+		}
+		return remoteCmd;
+	}
+
+	/**
+	 * Build the command that is run on the exec channel.
+	 * 
+	 * @param cmd
+	 *            escaped command line
+	 * @param preamble
+	 *            whether to change directory, set up the environment and use the login shell
+	 * @param directory
+	 *            working directory, or null to stay in the default one
+	 * @param environment
+	 *            environment variables to set, as "name=value"
+	 * @param clearEnv
+	 *            whether to clear the environment first
+	 * @param loginShellCommand
+	 *            login shell command to run the command with, or null to run it directly
+	 * @return command
+	 */
+	static String buildCommand(String cmd, boolean preamble, String directory, List<String> environment, boolean clearEnv,
+			String loginShellCommand) {
+		StringBuffer sb = new StringBuffer();
+		if (preamble) {
+			if (directory != null) {
+				sb.append("cd " + charEscapify(directory, charSet) + " && "); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			if (clearEnv) {
 				sb.append("env -i"); //$NON-NLS-1$
@@ -217,13 +280,13 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 			}
 		}
 		sb.append(cmd);
-		if (fPreamble && fConnection.useLoginShell()) {
-			return substitute(fConnection.getLoginShellCommand(), sb.toString());
+		if (preamble && loginShellCommand != null) {
+			return substitute(loginShellCommand, sb.toString());
 		}
 		return sb.toString();
 	}
 
-	private String charEscapify(String inputString, Set<Character> charSet) {
+	private static String charEscapify(String inputString, Set<Character> charSet) {
 		if (inputString == null) {
 			return null;
 		}
@@ -243,7 +306,7 @@ public class JSchProcessBuilder extends AbstractRemoteProcessBuilder {
 		return inputString;
 	}
 
-	private String substitute(String str, String... args) {
+	private static String substitute(String str, String... args) {
 		int length = str.length();
 		StringBuffer buffer = new StringBuffer(length + (args.length * 5));
 		for (int i = 0; i < length; i++) {
@@ -12,11 +12,10 @@
  *******************************************************************************/
 package org.eclipse.remote.internal.jsch.core;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileInfo;
@@ -32,15 +31,19 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnectionType;
 import org.eclipse.remote.core.IRemoteServicesManager;
-import org.eclipse.remote.core.RemoteServicesUtils;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.core.RemotePath;
 import org.eclipse.remote.internal.jsch.core.commands.ChildInfosCommand;
+import org.eclipse.remote.internal.jsch.core.commands.ChildNamesCommand;
 import org.eclipse.remote.internal.jsch.core.commands.DeleteCommand;
 import org.eclipse.remote.internal.jsch.core.commands.FetchInfoCommand;
 import org.eclipse.remote.internal.jsch.core.commands.GetInputStreamCommand;
 import org.eclipse.remote.internal.jsch.core.commands.GetOutputStreamCommand;
 import org.eclipse.remote.internal.jsch.core.commands.MkdirCommand;
 import org.eclipse.remote.internal.jsch.core.commands.PutInfoCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedGetCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedTransferCommand;
+import org.eclipse.remote.internal.jsch.core.commands.TransferCommand;
 import org.eclipse.remote.internal.jsch.core.messages.Messages;
 
 public class JschFileStore extends FileStore {
@@ -52,48 +55,66 @@ public class JschFileStore extends FileStore {
 	 * @return an JschFileStore instance for the URI.
 	 */
 	public static JschFileStore getInstance(URI uri) {
-		synchronized (instanceMap) {
-			JschFileStore store = instanceMap.get(uri.toString());
-			if (store == null) {
-				store = new JschFileStore(uri);
-				instanceMap.put(uri.toString(), store);
-			}
-			return store;
-		}
+		return instanceCache.get(uri);
+	}
+
+	/**
+	 * Forget the interned instances for a connection, e.g. because the connection has been removed.
+	 *
+	 * @param connectionName
+	 *            name of the connection
+	 */
+	public static void clearInstances(String connectionName) {
+		instanceCache.clear(connectionName);
 	}
 
-	private static Map<String, JschFileStore> instanceMap = new HashMap<String, JschFileStore>();
+	private static final JschFileStoreCache instanceCache = JschFileStoreCache.create();
 
 	private final IPath fRemotePath;
 	private final URI fURI;
+	private volatile JSchConnection fConnection;
 
-	private JschFileStore(URI uri) {
+	JschFileStore(URI uri) {
 		fURI = uri;
-		fRemotePath = RemoteServicesUtils.posixPath(uri.getPath());
+		// RemotePath shares segments between a path and its children, which matters when crawling large trees
+		fRemotePath = RemotePath.forPosix(uri.getPath());
 	}
 
 	private JSchConnection checkConnection(IProgressMonitor monitor) throws RemoteConnectionException {
+		JSchConnection connection = fConnection;
+		if (connection == null || connection.isRemoved()
+				|| !connection.getRemoteConnection().getName().equals(fURI.getAuthority())) {
+			connection = resolveConnection();
+			fConnection = connection;
+		}
+		if (!connection.isOpen()) {
+			try {
+				connection.getRemoteConnection().open(monitor);
+			} catch (CoreException e) {
+				throw new RemoteConnectionException(e);
+			}
+			if (!connection.isOpen()) {
+				throw new RemoteConnectionException(Messages.JschFileStore_Connection_is_not_open);
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Look up the connection for the URI. The result is cached by {@link #checkConnection(IProgressMonitor)} until the
+	 * connection is removed or renamed.
+	 */
+	private JSchConnection resolveConnection() throws RemoteConnectionException {
 		IRemoteServicesManager manager = Activator.getService(IRemoteServicesManager.class);
 		IRemoteConnectionType connectionType = manager.getConnectionType(fURI);
 		if (connectionType == null) {
 			throw new RemoteConnectionException(NLS.bind(Messages.JschFileStore_No_remote_services_found_for_URI, fURI));
 		}
-
-		try {
-			IRemoteConnection connection = connectionType.getConnection(fURI);
-			if (connection == null) {
-				throw new RemoteConnectionException(NLS.bind(Messages.JschFileStore_Invalid_connection_for_URI, fURI));
-			}
-			if (!connection.isOpen()) {
-				connection.open(monitor);
-				if (!connection.isOpen()) {
-					throw new RemoteConnectionException(Messages.JschFileStore_Connection_is_not_open);
-				}
-			}
-			return connection.getService(JSchConnection.class);
-		} catch (CoreException e) {
-			throw new RemoteConnectionException(e);
+		IRemoteConnection connection = connectionType.getConnection(fURI);
+		if (connection == null) {
+			throw new RemoteConnectionException(NLS.bind(Messages.JschFileStore_Invalid_connection_for_URI, fURI));
 		}
+		return connection.getService(JSchConnection.class);
 	}
 
 	/*
@@ -106,7 +127,7 @@ public class JschFileStore extends FileStore {
 	public IFileInfo[] childInfos(int options, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMon = SubMonitor.convert(monitor, 10);
 		JSchConnection connection = checkConnection(subMon.newChild(1));
-		ChildInfosCommand command = new ChildInfosCommand(connection, fRemotePath);
+		ChildInfosCommand command = new ChildInfosCommand(connection, fRemotePath, options);
 		return command.getResult(subMon.newChild(9));
 	}
 
@@ -119,12 +140,51 @@ public class JschFileStore extends FileStore {
 	@Override
 	public String[] childNames(int options, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMon = SubMonitor.convert(monitor, 10);
-		IFileInfo[] infos = childInfos(options, subMon.newChild(10));
-		String[] names = new String[infos.length];
-		for (int i = 0; i < infos.length; i++) {
-			names[i] = infos[i].getName();
+		JSchConnection connection = checkConnection(subMon.newChild(1));
+		ChildNamesCommand command = new ChildNamesCommand(connection, fRemotePath, options);
+		return command.getResult(subMon.newChild(9));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.core.filesystem.provider.FileStore#copyFile(org.eclipse.core.filesystem.IFileInfo,
+	 * org.eclipse.core.filesystem.IFileStore, int, org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	protected void copyFile(IFileInfo sourceInfo, IFileStore destination, int options, IProgressMonitor monitor)
+			throws CoreException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 30);
+		JSchConnection connection = checkConnection(subMon.newChild(1));
+		File localFile = null;
+		if (!(destination instanceof JschFileStore)) {
+			localFile = destination.toLocalFile(EFS.NONE, subMon.newChild(1));
+			if (localFile == null || !SegmentedTransferCommand.isSegmented(connection, sourceInfo.getLength())) {
+				super.copyFile(sourceInfo, destination, options, subMon.newChild(28));
+				return;
+			}
+		}
+		/*
+		 * Large files copied to the local file system are transferred in parallel segments. Copies between two JSch
+		 * stores (possibly on different connections) avoid streaming the contents through EFS on the client.
+		 */
+		if ((options & EFS.OVERWRITE) == 0 && destination.fetchInfo(EFS.NONE, subMon.newChild(8)).exists()) {
+			throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_EXISTS,
+					NLS.bind(Messages.JschFileStore_A_file_of_name_already_exists, destination.toString()), null));
+		}
+		subMon.setWorkRemaining(20);
+		if (localFile != null) {
+			SegmentedGetCommand command = new SegmentedGetCommand(connection, fRemotePath, localFile);
+			command.getResult(subMon.newChild(15));
+		} else {
+			JschFileStore target = (JschFileStore) destination;
+			JSchConnection targetConnection = target.checkConnection(subMon.newChild(1));
+			TransferCommand command = new TransferCommand(connection, fRemotePath, targetConnection, target.fRemotePath);
+			command.getResult(subMon.newChild(14));
+		}
+		if (!subMon.isCanceled()) {
+			destination.putInfo(sourceInfo, EFS.SET_ATTRIBUTES | EFS.SET_LAST_MODIFIED, subMon.newChild(5));
 		}
-		return names;
 	}
 
 	/*
@@ -137,11 +197,9 @@ public class JschFileStore extends FileStore {
 	public void delete(int options, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMon = SubMonitor.convert(monitor, 20);
 		JSchConnection connection = checkConnection(subMon.newChild(1));
-		IFileInfo info = fetchInfo(EFS.NONE, subMon.newChild(9));
-		if (!subMon.isCanceled() && info.exists()) {
-			DeleteCommand command = new DeleteCommand(connection, fRemotePath);
-			command.getResult(subMon.newChild(10));
-		}
+		// rm -rf succeeds if the path doesn't exist, so there is no need to check first
+		DeleteCommand command = new DeleteCommand(connection, fRemotePath);
+		command.getResult(subMon.newChild(19));
 	}
 
 	/*
@@ -222,38 +280,33 @@ public class JschFileStore extends FileStore {
 		SubMonitor subMon = SubMonitor.convert(monitor, 20);
 		JSchConnection connection = checkConnection(subMon.newChild(1));
 
-		if ((options & EFS.SHALLOW) == EFS.SHALLOW) {
+		/*
+		 * The command reports what is at the path afterwards, so there is no need to check the parent first or to stat the
+		 * result again.
+		 */
+		boolean shallow = (options & EFS.SHALLOW) == EFS.SHALLOW;
+		IFileInfo info;
+		try {
+			info = new MkdirCommand(connection, fRemotePath, shallow).getResult(subMon.newChild(19));
+		} catch (RemoteConnectionException e) {
+			throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRITE,
+					NLS.bind(Messages.JschFileStore_The_directory_could_not_be_created, fRemotePath.toString()), e));
+		}
+		if (subMon.isCanceled()) {
+			return this;
+		}
+		if (!info.exists()) {
 			IFileStore parent = getParent();
-			if (parent != null && !parent.fetchInfo(EFS.NONE, subMon.newChild(9)).exists()) {
+			if (shallow && parent != null && !parent.fetchInfo(EFS.NONE, null).exists()) {
 				throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRITE,
 						NLS.bind(Messages.JschFileStore_The_parent_of_directory_does_not_exist, fRemotePath.toString()), null));
 			}
-			if (subMon.isCanceled()) {
-				return this;
-			}
+			throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRITE,
+					NLS.bind(Messages.JschFileStore_The_directory_could_not_be_created, fRemotePath.toString()), null));
 		}
-
-		try {
-			MkdirCommand command = new MkdirCommand(connection, fRemotePath);
-			command.getResult(subMon.newChild(10));
-		} catch (Exception e) {
-			// Ignore any exceptions
-		}
-		if (!subMon.isCanceled()) {
-			/*
-			 * Check if the result exists and is a directory, throw an exception if neither.
-			 */
-			IFileInfo info = fetchInfo(EFS.NONE, subMon.newChild(10));
-			if (!subMon.isCanceled()) {
-				if (!info.exists()) {
-					throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRITE,
-							NLS.bind(Messages.JschFileStore_The_directory_could_not_be_created, fRemotePath.toString()), null));
-				}
-				if (!info.isDirectory()) {
-					throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRONG_TYPE,
-							NLS.bind(Messages.JschFileStore_A_file_of_name_already_exists, fRemotePath.toString()), null));
-				}
-			}
+		if (!info.isDirectory()) {
+			throw new CoreException(new Status(IStatus.ERROR, Activator.getUniqueIdentifier(), EFS.ERROR_WRONG_TYPE,
+					NLS.bind(Messages.JschFileStore_A_file_of_name_already_exists, fRemotePath.toString()), null));
 		}
 
 		return this;
@@ -0,0 +1,214 @@
+package org.eclipse.remote.internal.jsch.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.remote.internal.core.RemoteDebugOptions;
+import org.eclipse.remote.internal.core.RemoteTrace;
+
+/**
+ * Interns {@link JschFileStore} instances by URI. Stores are only weakly referenced, so ones that are no longer in use can
+ * be collected, and the number of entries is bounded. A store that is evicted while still in use keeps working, a later
+ * lookup just creates a new instance.
+ *
+ * Lookups don't lock. Each entry remembers the value of the miss counter when it was last looked up, which orders the
+ * entries by how recently they were used. When a miss takes the cache over its bound, one thread evicts the least recently
+ * used entries until the cache is an eighth below the bound, so the cost of eviction is spread over many misses.
+ *
+ * The bound defaults to {@link #DEFAULT_MAX_SIZE} and can be changed with the {@link #MAX_SIZE_PROPERTY} framework or system
+ * property. The hits, misses and evictions are traced with the {@link RemoteDebugOptions#COMMANDS} option when the stores
+ * of a connection are cleared.
+ */
+public class JschFileStoreCache {
+	public static final String MAX_SIZE_PROPERTY = "org.eclipse.remote.jsch.core.fileStoreCacheSize"; //$NON-NLS-1$
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private static class StoreReference extends WeakReference<JschFileStore> {
+		private final String fKey;
+		private final String fConnectionName;
+		private volatile long fLastUsed;
+
+		public StoreReference(String key, JschFileStore store, ReferenceQueue<JschFileStore> queue, long lastUsed) {
+			super(store, queue);
+			fKey = key;
+			fConnectionName = store.toURI().getAuthority();
+			fLastUsed = lastUsed;
+		}
+	}
+
+	private final ConcurrentMap<String, StoreReference> fStores = new ConcurrentHashMap<String, StoreReference>();
+	private final ReferenceQueue<JschFileStore> fQueue = new ReferenceQueue<JschFileStore>();
+	private final int fMaxSize;
+	private final int fTrimSize;
+	private final AtomicBoolean fTrimming = new AtomicBoolean();
+	private final AtomicLong fHits = new AtomicLong();
+	private final AtomicLong fMisses = new AtomicLong();
+	private final AtomicLong fEvictions = new AtomicLong();
+
+	public JschFileStoreCache(int maxSize) {
+		fMaxSize = Math.max(maxSize, 0);
+		fTrimSize = fMaxSize - fMaxSize / 8;
+	}
+
+	/**
+	 * Create a cache sized from the {@link #MAX_SIZE_PROPERTY} property.
+	 */
+	public static JschFileStoreCache create() {
+		String size = null;
+		Activator plugin = Activator.getDefault();
+		if (plugin != null) {
+			size = plugin.getBundle().getBundleContext().getProperty(MAX_SIZE_PROPERTY);
+		} else {
+			size = System.getProperty(MAX_SIZE_PROPERTY);
+		}
+		int maxSize = DEFAULT_MAX_SIZE;
+		if (size != null) {
+			try {
+				maxSize = Integer.parseInt(size.trim());
+			} catch (NumberFormatException e) {
+				Activator.log(e);
+			}
+		}
+		return new JschFileStoreCache(maxSize);
+	}
+
+	/**
+	 * Return the interned store for the URI, creating it if necessary.
+	 */
+	public JschFileStore get(URI uri) {
+		String key = uri.toString();
+		StoreReference ref = fStores.get(key);
+		JschFileStore store = ref != null ? ref.get() : null;
+		if (store != null) {
+			fHits.incrementAndGet();
+			long now = fMisses.get();
+			// Only write when it changes, so threads looking up the same store don't keep invalidating its cache line
+			if (ref.fLastUsed != now) {
+				ref.fLastUsed = now;
+			}
+			return store;
+		}
+		long now = fMisses.incrementAndGet();
+		expunge();
+		JschFileStore newStore = new JschFileStore(uri);
+		StoreReference newRef = new StoreReference(key, newStore, fQueue, now);
+		while (true) {
+			if (ref == null) {
+				ref = fStores.putIfAbsent(key, newRef);
+				if (ref == null) {
+					break;
+				}
+			} else if (fStores.replace(key, ref, newRef)) {
+				break;
+			}
+			/*
+			 * Lost a race with another thread. Use its store if it is still alive.
+			 */
+			store = ref.get();
+			if (store != null) {
+				return store;
+			}
+		}
+		if (fStores.size() > fMaxSize) {
+			trim();
+		}
+		return newStore;
+	}
+
+	/**
+	 * Remove all the stores that belong to a connection.
+	 *
+	 * @param connectionName
+	 *            name of the connection (the authority of the store URIs)
+	 */
+	public void clear(String connectionName) {
+		for (StoreReference ref : fStores.values()) {
+			if (connectionName.equals(ref.fConnectionName)) {
+				fStores.remove(ref.fKey, ref);
+			}
+		}
+		RemoteTrace.trace(RemoteDebugOptions.COMMANDS, connectionName,
+				"file store cache: {0} hits, {1} misses, {2} evictions, {3} of {4} stores", //$NON-NLS-1$
+				getHitCount(), getMissCount(), getEvictionCount(), size(), getMaxSize());
+	}
+
+	/**
+	 * Remove all stores.
+	 */
+	public void clear() {
+		fStores.clear();
+	}
+
+	public int size() {
+		return fStores.size();
+	}
+
+	public int getMaxSize() {
+		return fMaxSize;
+	}
+
+	public long getHitCount() {
+		return fHits.get();
+	}
+
+	public long getMissCount() {
+		return fMisses.get();
+	}
+
+	/**
+	 * @return number of live stores removed to keep the cache within its bound
+	 */
+	public long getEvictionCount() {
+		return fEvictions.get();
+	}
+
+	private void expunge() {
+		StoreReference ref;
+		while ((ref = (StoreReference) fQueue.poll()) != null) {
+			fStores.remove(ref.fKey, ref);
+		}
+	}
+
+	/**
+	 * Evict the least recently used entries until the cache is down to {@link #fTrimSize}. Entries of stores that have
+	 * been collected are removed first. If another thread is already trimming, leave it to that thread.
+	 */
+	private void trim() {
+		if (!fTrimming.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long[] used = new long[fStores.size()];
+			int count = 0;
+			for (Iterator<StoreReference> iter = fStores.values().iterator(); iter.hasNext() && count < used.length;) {
+				StoreReference ref = iter.next();
+				if (ref.get() == null) {
+					fStores.remove(ref.fKey, ref);
+				} else {
+					used[count++] = ref.fLastUsed;
+				}
+			}
+			int excess = fStores.size() - fTrimSize;
+			if (excess <= 0 || count == 0) {
+				return;
+			}
+			Arrays.sort(used, 0, count);
+			long oldest = used[Math.min(excess, count) - 1];
+			for (Iterator<StoreReference> iter = fStores.values().iterator(); iter.hasNext() && fStores.size() > fTrimSize;) {
+				StoreReference ref = iter.next();
+				if (ref.fLastUsed <= oldest && fStores.remove(ref.fKey, ref)) {
+					fEvictions.incrementAndGet();
+				}
+			}
+		} finally {
+			fTrimming.set(false);
+		}
+	}
+}
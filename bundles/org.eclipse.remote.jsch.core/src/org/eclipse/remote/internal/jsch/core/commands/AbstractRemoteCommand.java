@@ -11,10 +11,12 @@
  *****************************************************************************/
 package org.eclipse.remote.internal.jsch.core.commands;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.CharacterIterator;
-import java.text.MessageFormat;
 import java.text.StringCharacterIterator;
+import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -22,6 +24,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileInfo;
@@ -29,13 +32,19 @@ import org.eclipse.core.filesystem.provider.FileInfo;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.RemoteServicesUtils;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.core.RemoteDebugOptions;
+import org.eclipse.remote.internal.core.RemoteFlightRecorder;
+import org.eclipse.remote.internal.core.RemoteTrace;
+import org.eclipse.remote.internal.core.TransferProgress;
 import org.eclipse.remote.internal.jsch.core.JSchConnection;
 import org.eclipse.remote.internal.jsch.core.messages.Messages;
 
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.ChannelSftp.LsEntry;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.SftpATTRS;
 import com.jcraft.jsch.SftpException;
@@ -46,68 +55,49 @@ import com.jcraft.jsch.SftpProgressMonitor;
  * 
  */
 public abstract class AbstractRemoteCommand<T> {
+	/**
+	 * Reports the progress of an sftp transfer with a {@link TransferProgress}, which updates the monitor a few times a
+	 * second however small the chunks are.
+	 */
 	protected static class CommandProgressMonitor implements SftpProgressMonitor {
-		private final IProgressMonitor fMonitor;
-		private double fWorkPercentFactor;
-		private Long fMaxWork;
-		private String fMaxWorkSize;
-		private long fWorkToDate;
-		private String fPrefix;
+		private final TransferProgress fProgress;
+		private AbstractRemoteCommand<?> fCommand;
+		private int fDirection;
 
 		public CommandProgressMonitor(IProgressMonitor monitor) {
-			fMonitor = monitor;
+			this(null, monitor);
 		}
 
 		public CommandProgressMonitor(String prefix, IProgressMonitor monitor) {
-			fPrefix = prefix;
-			fMonitor = monitor;
+			fProgress = new TransferProgress(prefix, monitor);
+		}
+
+		/**
+		 * Create a monitor that also records the bytes transferred as received (GET) or sent (PUT) by a command,
+		 * depending on the direction given to {@link #init(int, String, String, long)}.
+		 */
+		public CommandProgressMonitor(String prefix, IProgressMonitor monitor, AbstractRemoteCommand<?> command) {
+			this(prefix, monitor);
+			fCommand = command;
 		}
 
 		@Override
 		public boolean count(long count) {
-			fWorkToDate += count;
-			String size;
-			Long workToDate;
-			if (fWorkToDate < 1024L) {
-				size = "bytes"; //$NON-NLS-1$
-				workToDate = fWorkToDate;
-			} else {
-				size = "KB"; //$NON-NLS-1$
-				workToDate = fWorkToDate / 1024L;
-			}
-			StringBuffer taskName = new StringBuffer();
-			if (fPrefix != null) {
-				taskName.append(fPrefix);
+			if (fCommand != null) {
+				fCommand.recordBytes(count, fDirection == GET);
 			}
-			if (fWorkPercentFactor < 0) {
-				taskName.append(MessageFormat.format(Messages.AbstractRemoteCommand_format1, new Object[] { workToDate, size }));
-			} else {
-				Double workPercent = new Double(fWorkPercentFactor * fWorkToDate);
-				taskName.append(MessageFormat.format(Messages.AbstractRemoteCommand_format2,
-						new Object[] { workToDate, size, fMaxWork, fMaxWorkSize, workPercent }));
-			}
-			fMonitor.subTask(taskName.toString());
-			fMonitor.worked((int) count);
-			return !(fMonitor.isCanceled());
+			return fProgress.add(count);
 		}
 
 		@Override
 		public void end() {
-			fMonitor.done();
+			fProgress.done();
 		}
 
 		@Override
 		public void init(int op, String src, String dest, long max) {
-			fWorkPercentFactor = 1.0 / max;
-			if (max < 1024L) {
-				fMaxWorkSize = "bytes"; //$NON-NLS-1$
-				fMaxWork = max;
-			} else {
-				fMaxWorkSize = "KB"; //$NON-NLS-1$
-				fMaxWork = max / 1024L;
-			}
-			fWorkToDate = 0;
-			fMonitor.beginTask(RemoteServicesUtils.posixPath(src).lastSegment(), (int) max);
+			fDirection = op;
+			fProgress.begin(RemoteServicesUtils.posixPath(src).lastSegment(), max);
 		}
 	}
 
@@ -115,9 +105,9 @@ public abstract class AbstractRemoteCommand<T> {
 		private IProgressMonitor fProgressMonitor;
 		private ChannelExec fExecChannel;
 
-		private Future<T1> asyncCmdInThread() throws RemoteConnectionException {
+		private Future<T1> asyncCmdInThread(RemoteFlightRecorder.Event event) throws RemoteConnectionException {
 			setChannel(fConnection.getExecChannel());
-			return fPool.submit(this);
+			return submit(this, event);
 		}
 
 		/*
@@ -147,11 +137,17 @@ public abstract class AbstractRemoteCommand<T> {
 		public T1 getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 			Future<T1> future = null;
 			fProgressMonitor = SubMonitor.convert(monitor, 10);
+			long start = System.nanoTime();
+			RemoteFlightRecorder.Event event = RemoteFlightRecorder.COMMAND.begin();
+			boolean done = false;
 			try {
-				future = asyncCmdInThread();
-				return waitCmdInThread(future);
+				future = asyncCmdInThread(event);
+				T1 result = waitCmdInThread(future);
+				done = true;
+				return result;
 			} finally {
 				finalizeCmdInThread();
+				recordRequest(start, event, !done);
 			}
 		}
 
@@ -187,9 +183,9 @@ public abstract class AbstractRemoteCommand<T> {
 		private IProgressMonitor fProgressMonitor;
 		private ChannelSftp fSftpChannel;
 
-		private Future<T1> asyncCmdInThread() throws RemoteConnectionException {
+		private Future<T1> asyncCmdInThread(RemoteFlightRecorder.Event event) throws RemoteConnectionException {
 			setChannel(fConnection.getSftpCommandChannel());
-			return fPool.submit(this);
+			return submit(this, event);
 		}
 
 		/*
@@ -219,11 +215,17 @@ public abstract class AbstractRemoteCommand<T> {
 		public T1 getResult(IProgressMonitor monitor) throws SftpException, RemoteConnectionException {
 			Future<T1> future = null;
 			fProgressMonitor = SubMonitor.convert(monitor, 10);
+			long start = System.nanoTime();
+			RemoteFlightRecorder.Event event = RemoteFlightRecorder.COMMAND.begin();
+			boolean done = false;
 			try {
-				future = asyncCmdInThread();
-				return waitCmdInThread(future);
+				future = asyncCmdInThread(event);
+				T1 result = waitCmdInThread(future);
+				done = true;
+				return result;
 			} finally {
 				finalizeCmdInThread();
+				recordRequest(start, event, !done);
 			}
 		}
 
@@ -256,9 +258,23 @@ public abstract class AbstractRemoteCommand<T> {
 		}
 	}
 
+	/**
+	 * Shortest and longest time in milliseconds between checks for a command to exit.
+	 */
+	private static final long MIN_EXIT_POLL = 1;
+	private static final long MAX_EXIT_POLL = 50;
+
 	private static ExecutorService fPool = Executors.newSingleThreadExecutor();
 
+	private static final ClassValue<String> fOperationNames = new ClassValue<String>() {
+		@Override
+		protected String computeValue(Class<?> type) {
+			return type.getSimpleName();
+		}
+	};
+
 	private final JSchConnection fConnection;
+	private final AtomicLong fBytes = new AtomicLong();
 
 	public static final int UNKNOWN = 0;
 
@@ -313,19 +329,8 @@ public abstract class AbstractRemoteCommand<T> {
 	protected IFileInfo convertToFileInfo(final String name, final IPath parentPath, SftpATTRS attrs, IProgressMonitor monitor)
 			throws RemoteConnectionException {
 		SubMonitor progress = SubMonitor.convert(monitor, 10);
-		FileInfo fileInfo = new FileInfo(name);
-		fileInfo.setExists(true);
-		fileInfo.setDirectory(attrs.isDir());
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE, (attrs.getPermissions() & 0100) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_WRITE, (attrs.getPermissions() & 0200) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_READ, (attrs.getPermissions() & 0400) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE, (attrs.getPermissions() & 0010) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_WRITE, (attrs.getPermissions() & 0020) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_READ, (attrs.getPermissions() & 0040) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE, (attrs.getPermissions() & 0001) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_WRITE, (attrs.getPermissions() & 0002) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_READ, (attrs.getPermissions() & 0004) != 0);
-		fileInfo.setAttribute(EFS.ATTRIBUTE_SYMLINK, attrs.isLink());
+		FileInfo fileInfo = convertToFileInfo(name, attrs.getPermissions(), attrs.isDir(), attrs.isLink(), attrs.getMTime(),
+				attrs.getSize());
 		if (attrs.isLink()) {
 			SftpCallable<String> c2 = new SftpCallable<String>() {
 				@Override
@@ -342,15 +347,175 @@ public abstract class AbstractRemoteCommand<T> {
 				// Ignore
 			}
 		}
-		fileInfo.setLastModified(attrs.getMTime() * 1000L);
-		fileInfo.setLength(attrs.getSize());
 		return fileInfo;
 	}
 
+	/**
+	 * Create file info from raw sftp attributes, without resolving the target of a symbolic link.
+	 */
+	protected FileInfo convertToFileInfo(String name, int permissions, boolean isDir, boolean isLink, long mtime, long size) {
+		FileInfo fileInfo = new FileInfo(name);
+		fileInfo.setExists(true);
+		fileInfo.setDirectory(isDir);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE, (permissions & 0100) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_WRITE, (permissions & 0200) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OWNER_READ, (permissions & 0400) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE, (permissions & 0010) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_WRITE, (permissions & 0020) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_GROUP_READ, (permissions & 0040) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE, (permissions & 0001) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_WRITE, (permissions & 0002) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_OTHER_READ, (permissions & 0004) != 0);
+		fileInfo.setAttribute(EFS.ATTRIBUTE_SYMLINK, isLink);
+		fileInfo.setLastModified(mtime * 1000L);
+		fileInfo.setLength(size);
+		return fileInfo;
+	}
+
+	/**
+	 * Check if a directory entry should be left out of a listing.
+	 *
+	 * @param options
+	 *            {@link IRemoteFileService#EXCLUDE_HIDDEN} to leave out hidden entries
+	 */
+	protected static boolean isExcluded(String fileName, int options) {
+		if (fileName.equals(".") || fileName.equals("..")) { //$NON-NLS-1$ //$NON-NLS-2$
+			// Ignore parent and current dir entry.
+			return true;
+		}
+		return (options & IRemoteFileService.EXCLUDE_HIDDEN) != 0 && fileName.startsWith("."); //$NON-NLS-1$
+	}
+
+	/**
+	 * List a directory with a single sftp readdir sequence.
+	 */
+	protected Vector<LsEntry> list(final IPath path, IProgressMonitor monitor) throws RemoteConnectionException {
+		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		SftpCallable<Vector<LsEntry>> c = new SftpCallable<Vector<LsEntry>>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public Vector<LsEntry> call() throws JSchException, SftpException {
+				return getChannel().ls(quote(path.toString(), true));
+			}
+		};
+		try {
+			return c.getResult(subMon.newChild(10));
+		} catch (SftpException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		}
+	}
+
 	public JSchConnection getConnection() {
 		return fConnection;
 	}
 
+	/**
+	 * Get the name the metrics of this command are recorded under, which is the name of its class.
+	 */
+	protected String getOperationName() {
+		return fOperationNames.get(getClass());
+	}
+
+	/**
+	 * Get the remote path this command works on, which is reported with its flight recorder events.
+	 *
+	 * @return the path, or null if the command doesn't work on a path
+	 */
+	protected IPath getRemotePath() {
+		return null;
+	}
+
+	/**
+	 * Record a request this command made to the remote host in the connection metrics, commit its flight recorder event
+	 * and trace it if it failed.
+	 *
+	 * @param start
+	 *            {@link System#nanoTime()} when the request was started
+	 * @param event
+	 *            event returned by {@link RemoteFlightRecorder#COMMAND} when the request was started, or null
+	 * @param error
+	 *            true if the request failed
+	 */
+	protected void recordRequest(long start, RemoteFlightRecorder.Event event, boolean error) {
+		long latency = System.nanoTime() - start;
+		fConnection.getMetrics().recordLatency(getOperationName(), latency, error);
+		if (error && RemoteDebugOptions.COMMANDS.isEnabled()) {
+			RemoteTrace.trace(RemoteDebugOptions.COMMANDS, fConnection.getRemoteConnection().getName(),
+					"{0} failed after {1} ms", getOperationName(), latency / 1000000); //$NON-NLS-1$
+		}
+		if (event != null) {
+			IPath path = getRemotePath();
+			event.commit(fConnection.getRemoteConnection().getName(), getOperationName(),
+					path != null ? path.toString() : null, fBytes.get(), error);
+		}
+	}
+
+	/**
+	 * Record data transferred by this command in the connection metrics.
+	 *
+	 * @param count
+	 *            number of bytes
+	 * @param received
+	 *            true if the bytes were received from the remote, false if they were sent
+	 */
+	protected void recordBytes(long count, boolean received) {
+		if (received) {
+			fConnection.getMetrics().recordBytes(getOperationName(), count, 0);
+		} else {
+			fConnection.getMetrics().recordBytes(getOperationName(), 0, count);
+		}
+		if (RemoteFlightRecorder.isEnabled()) {
+			fBytes.addAndGet(count);
+		}
+	}
+
+	/**
+	 * Run a batch of pipelined sftp requests, recording the batch as one request in the connection metrics.
+	 */
+	protected void runPipelined(SftpPipeline pipeline, int count, SftpPipeline.Batch batch, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		long start = System.nanoTime();
+		RemoteFlightRecorder.Event event = RemoteFlightRecorder.COMMAND.begin();
+		boolean done = false;
+		try {
+			pipeline.run(count, batch, monitor);
+			done = true;
+		} finally {
+			recordRequest(start, event, !done);
+		}
+	}
+
+	/**
+	 * Create a progress monitor for an sftp transfer that also records the bytes transferred in the connection metrics.
+	 */
+	protected CommandProgressMonitor newProgressMonitor(String prefix, IProgressMonitor monitor) {
+		return new CommandProgressMonitor(prefix, monitor, this);
+	}
+
+	/*
+	 * Queue a callable on the command pool, recording how long it waits to be run and, if there is an event, how long
+	 * it runs.
+	 */
+	private <T1> Future<T1> submit(final Callable<T1> callable, final RemoteFlightRecorder.Event event) {
+		final long queued = System.nanoTime();
+		return fPool.submit(new Callable<T1>() {
+			@Override
+			public T1 call() throws Exception {
+				long start = System.nanoTime();
+				fConnection.getMetrics().recordQueueWait(getOperationName(), start - queued);
+				if (event == null) {
+					return callable.call();
+				}
+				event.set(RemoteFlightRecorder.COMMAND_QUEUE_WAIT, start - queued);
+				try {
+					return callable.call();
+				} finally {
+					event.set(RemoteFlightRecorder.COMMAND_EXECUTION, System.nanoTime() - start);
+				}
+			}
+		});
+	}
+
 	public int getFinishStatus() {
 		int code = 0;
 
@@ -433,6 +598,62 @@ public abstract class AbstractRemoteCommand<T> {
 
 	protected abstract T getResult(IProgressMonitor monitor) throws RemoteConnectionException;
 
+	/**
+	 * Wait for a command started on an exec channel to finish. The output of the command is read to the end first, and the
+	 * channel is then polled until it closes, as the exit status is sent between the end of the output and the close.
+	 * Polling starts at a millisecond and backs off to 50 milliseconds, so short commands aren't held up.
+	 *
+	 * @param out
+	 *            standard output of the command, obtained before the channel was connected
+	 * @throws RemoteConnectionException
+	 *             if the command exits with a non-zero status (the message is the contents of err), or the monitor is
+	 *             cancelled or the thread interrupted
+	 */
+	protected void waitForExit(ChannelExec channel, InputStream out, ByteArrayOutputStream err, IProgressMonitor monitor)
+			throws RemoteConnectionException {
+		byte[] buffer = new byte[8192];
+		long delay = MIN_EXIT_POLL;
+		try {
+			while (!channel.isEOF()) {
+				if (out.available() > 0) {
+					out.read(buffer);
+					delay = MIN_EXIT_POLL;
+				} else {
+					delay = pause(delay, monitor);
+				}
+			}
+			// The channel has seen the end of the output, so this doesn't block
+			while (out.read(buffer) >= 0) {
+				// discard
+			}
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		}
+		delay = MIN_EXIT_POLL;
+		while (!channel.isClosed()) {
+			delay = pause(delay, monitor);
+		}
+		if (channel.getExitStatus() != 0) {
+			throw new RemoteConnectionException(err.toString());
+		}
+	}
+
+	/*
+	 * Sleep while waiting for a command, and return the next, longer, delay.
+	 */
+	private static long pause(long delay, IProgressMonitor monitor) throws RemoteConnectionException {
+		if (monitor.isCanceled()) {
+			throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+		}
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+		}
+		return Math.min(delay * 2, MAX_EXIT_POLL);
+	}
+
 	protected String quote(String path, boolean full) {
 		StringBuffer buffer = new StringBuffer();
 		StringCharacterIterator iter = new StringCharacterIterator(path);
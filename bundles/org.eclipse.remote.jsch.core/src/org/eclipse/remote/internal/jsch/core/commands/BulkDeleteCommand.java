@@ -0,0 +1,224 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.ChannelSftp.LsEntry;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+
+/**
+ * Delete many paths (recursively) at once. The result maps each path that could not be deleted to the reason. Paths that
+ * do not exist are not failures.
+ *
+ * If the remote host has xargs, the paths are streamed NUL separated to a single "xargs -0 rm -rf", so only one channel is
+ * opened however many paths there are. Otherwise the trees are listed over sftp and the files and directories are removed
+ * with pipelined requests.
+ */
+public class BulkDeleteCommand extends AbstractRemoteCommand<Map<IPath, String>> {
+	private static final int SSH_FXP_REMOVE = 13;
+	private static final int SSH_FXP_RMDIR = 15;
+
+	private final List<IPath> fRemotePaths;
+	private final boolean fUseExec;
+
+	/**
+	 * @param useExec
+	 *            true if the remote host has xargs and rm
+	 */
+	public BulkDeleteCommand(JSchConnection connection, Collection<IPath> paths, boolean useExec) {
+		super(connection);
+		fRemotePaths = new ArrayList<IPath>(paths);
+		fUseExec = useExec;
+	}
+
+	@Override
+	public Map<IPath, String> getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		if (fRemotePaths.isEmpty()) {
+			return new LinkedHashMap<IPath, String>();
+		}
+		if (fUseExec) {
+			return deleteWithExec(monitor);
+		}
+		return deleteWithSftp(monitor);
+	}
+
+	private Map<IPath, String> deleteWithExec(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		final OutputStream[] stdin = new OutputStream[1];
+		final InputStream[] stdout = new InputStream[1];
+		ExecCallable<ChannelExec> c = new ExecCallable<ChannelExec>() {
+			@Override
+			public ChannelExec call() throws JSchException, IOException {
+				ChannelExec channel = getChannel();
+				channel.setCommand("xargs -0 rm -rf --"); //$NON-NLS-1$
+				channel.setErrStream(err);
+				stdin[0] = channel.getOutputStream();
+				stdout[0] = channel.getInputStream();
+				channel.connect();
+				return channel;
+			}
+		};
+		ChannelExec channel = c.getResult(subMon.newChild(2));
+		try {
+			try (OutputStream out = stdin[0]) {
+				for (IPath path : fRemotePaths) {
+					out.write(path.toString().getBytes("UTF-8")); //$NON-NLS-1$
+					out.write(0);
+				}
+			}
+			waitForExit(channel, stdout[0], err, subMon.newChild(14));
+			return new LinkedHashMap<IPath, String>();
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} catch (RemoteConnectionException e) {
+			if (subMon.isCanceled()) {
+				throw e;
+			}
+		} finally {
+			channel.disconnect();
+		}
+
+		/*
+		 * rm failed for some of the paths. Find out which ones are still there, and use the matching error message if
+		 * there is one.
+		 */
+		String[] errors = err.toString().split("\n"); //$NON-NLS-1$
+		Map<IPath, String> failures = new LinkedHashMap<IPath, String>();
+		Map<IPath, IFileInfo> infos = new FetchInfosCommand(getConnection(), fRemotePaths, null).getResult(subMon.newChild(4));
+		for (IPath path : fRemotePaths) {
+			IFileInfo info = infos.get(path);
+			if (info != null && info.exists()) {
+				String message = NLS.bind(Messages.BulkDeleteCommand_Could_not_delete, path.toString());
+				for (String error : errors) {
+					if (error.contains(path.toString())) {
+						message = error.trim();
+						break;
+					}
+				}
+				failures.put(path, message);
+			}
+		}
+		return failures;
+	}
+
+	private Map<IPath, String> deleteWithSftp(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 30);
+		final Map<IPath, String> failures = new LinkedHashMap<IPath, String>();
+
+		/*
+		 * Walk the trees to find everything to remove. Directories are added after their contents, so removing them in
+		 * order works bottom up.
+		 */
+		final List<IPath> files = new ArrayList<IPath>();
+		final List<IPath> dirs = new ArrayList<IPath>();
+		Map<IPath, IFileInfo> infos = new FetchInfosCommand(getConnection(), fRemotePaths, null).getResult(subMon.newChild(5));
+		SubMonitor walkMon = SubMonitor.convert(subMon.newChild(10), fRemotePaths.size());
+		for (IPath path : fRemotePaths) {
+			IFileInfo info = infos.get(path);
+			if (info.exists()) {
+				if (info.isDirectory() && !info.getAttribute(EFS.ATTRIBUTE_SYMLINK)) {
+					walk(path, files, dirs, failures, walkMon.newChild(1));
+				} else {
+					files.add(path);
+				}
+			} else if (info.getError() != IFileInfo.NONE) {
+				failures.put(path, NLS.bind(Messages.BulkDeleteCommand_Could_not_delete, path.toString()));
+			}
+		}
+
+		SftpPipeline pipeline = getConnection().acquireSftpPipeline();
+		try {
+			remove(pipeline, files, SSH_FXP_REMOVE, failures, subMon.newChild(10));
+			remove(pipeline, dirs, SSH_FXP_RMDIR, failures, subMon.newChild(5));
+		} finally {
+			getConnection().releaseSftpPipeline(pipeline);
+		}
+
+		/*
+		 * Only report failures for the paths that were asked for
+		 */
+		Map<IPath, String> result = new LinkedHashMap<IPath, String>();
+		for (IPath path : fRemotePaths) {
+			for (Map.Entry<IPath, String> failure : failures.entrySet()) {
+				if (path.isPrefixOf(failure.getKey())) {
+					result.put(path, failure.getValue());
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	private void walk(final IPath dir, List<IPath> files, List<IPath> dirs, Map<IPath, String> failures,
+			IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		SftpCallable<Vector<LsEntry>> c = new SftpCallable<Vector<LsEntry>>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public Vector<LsEntry> call() throws JSchException, SftpException {
+				return getChannel().ls(quote(dir.toString(), true));
+			}
+		};
+		try {
+			for (LsEntry entry : c.getResult(subMon.newChild(5))) {
+				String name = entry.getFilename();
+				if (name.equals(".") || name.equals("..")) { //$NON-NLS-1$ //$NON-NLS-2$
+					continue;
+				}
+				IPath child = dir.append(name);
+				if (entry.getAttrs().isDir()) {
+					walk(child, files, dirs, failures, subMon.newChild(0));
+				} else {
+					files.add(child);
+				}
+			}
+		} catch (SftpException e) {
+			failures.put(dir, e.getMessage());
+		}
+		dirs.add(dir);
+	}
+
+	private void remove(SftpPipeline pipeline, final List<IPath> paths, final int type, final Map<IPath, String> failures,
+			IProgressMonitor monitor) throws RemoteConnectionException {
+		runPipelined(pipeline, paths.size(), new SftpPipeline.Batch() {
+			@Override
+			public int writeRequest(int index, DataOutputStream out) throws IOException {
+				SftpPipeline.writeString(out, paths.get(index).toString());
+				return type;
+			}
+
+			@Override
+			public void handleResponse(int index, Response response) {
+				int status = response.getStatus();
+				if (status != ChannelSftp.SSH_FX_OK && status != ChannelSftp.SSH_FX_NO_SUCH_FILE
+						&& !failures.containsKey(paths.get(index))) {
+					failures.put(paths.get(index), response.getMessage());
+				}
+			}
+		}, monitor);
+	}
+}
@@ -0,0 +1,208 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.IRemoteBulkFileService;
+import org.eclipse.remote.core.IRemoteBulkFileService.IChecksumListener;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+
+/**
+ * Compute checksums of remote files by running sha256sum, md5sum or xxhsum. As many paths as fit in a reasonably sized
+ * command line are passed to each invocation, and results are reported as the lines are read.
+ *
+ * The result is null if the tool for the algorithm is not installed on the remote host.
+ */
+public class ChecksumCommand extends AbstractRemoteCommand<Map<String, String>> {
+	private static final int MAX_COMMAND_LENGTH = 64 * 1024;
+
+	private final Collection<String> fPaths;
+	private final String fAlgorithm;
+	private final IChecksumListener fListener;
+
+	public ChecksumCommand(JSchConnection connection, Collection<String> paths, String algorithm, IChecksumListener listener) {
+		super(connection);
+		fPaths = paths;
+		fAlgorithm = algorithm;
+		fListener = listener;
+	}
+
+	/**
+	 * Get the name of the command that computes the algorithm.
+	 *
+	 * @return command name, or null if the algorithm is not known
+	 */
+	public static String getTool(String algorithm) {
+		if (IRemoteBulkFileService.SHA256.equals(algorithm)) {
+			return "sha256sum"; //$NON-NLS-1$
+		}
+		if (IRemoteBulkFileService.MD5.equals(algorithm)) {
+			return "md5sum"; //$NON-NLS-1$
+		}
+		if (IRemoteBulkFileService.XXHASH.equals(algorithm)) {
+			return "xxhsum"; //$NON-NLS-1$
+		}
+		return null;
+	}
+
+	/**
+	 * Parse a line of output of the tools. Lines are "&lt;checksum&gt;  &lt;name&gt;" (or " *&lt;name&gt;" in binary
+	 * mode). GNU tools escape names containing a backslash or newline and mark the line with a leading backslash.
+	 *
+	 * @return the lower case checksum and the name as given on the command line, or null if the line has no checksum
+	 */
+	public static String[] parseLine(String line) {
+		boolean escaped = line.startsWith("\\"); //$NON-NLS-1$
+		if (escaped) {
+			line = line.substring(1);
+		}
+		int space = line.indexOf(' ');
+		if (space <= 0 || space + 2 > line.length()) {
+			return null;
+		}
+		String checksum = line.substring(0, space).toLowerCase();
+		String name = line.substring(space + 2);
+		return new String[] { checksum, escaped ? unescape(name) : name };
+	}
+
+	/*
+	 * Undo the escaping of a name in a single pass, so that an escaped backslash followed by 'n' stays as it is.
+	 */
+	private static String unescape(String name) {
+		StringBuilder result = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == '\\' && i + 1 < name.length()) {
+				char next = name.charAt(++i);
+				if (next == 'n') {
+					result.append('\n');
+				} else if (next == '\\') {
+					result.append('\\');
+				} else {
+					result.append(c).append(next);
+				}
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	@Override
+	public Map<String, String> getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		String tool = getTool(fAlgorithm);
+		if (tool == null) {
+			return null;
+		}
+
+		/*
+		 * Split the paths into batches. The tools print the name as given on the command line, which is used to match
+		 * the results back to the paths.
+		 */
+		List<List<String>> batches = new ArrayList<List<String>>();
+		List<String> batch = new ArrayList<String>();
+		int length = 0;
+		for (String path : fPaths) {
+			String arg = quote(path, true);
+			if (!batch.isEmpty() && length + arg.length() > MAX_COMMAND_LENGTH) {
+				batches.add(batch);
+				batch = new ArrayList<String>();
+				length = 0;
+			}
+			batch.add(path);
+			length += arg.length() + 1;
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+
+		SubMonitor subMon = SubMonitor.convert(monitor, fPaths.size() + batches.size());
+		subMon.subTask(NLS.bind(Messages.ChecksumCommand_Computing, tool));
+		Map<String, String> result = new HashMap<String, String>();
+		for (List<String> paths : batches) {
+			StringBuilder cmd = new StringBuilder(tool).append(" --"); //$NON-NLS-1$
+			Map<String, String> names = new HashMap<String, String>();
+			for (String path : paths) {
+				cmd.append(' ').append(quote(path, true));
+				names.put(path, path);
+			}
+			if (!run(cmd.toString(), names, result, subMon)) {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Returns false if the tool could not be found.
+	 */
+	private boolean run(final String command, Map<String, String> names, Map<String, String> result, SubMonitor subMon)
+			throws RemoteConnectionException {
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		final InputStream[] stdout = new InputStream[1];
+		ExecCallable<ChannelExec> c = new ExecCallable<ChannelExec>() {
+			@Override
+			public ChannelExec call() throws JSchException, IOException {
+				ChannelExec channel = getChannel();
+				channel.setCommand(command);
+				channel.setErrStream(err);
+				stdout[0] = channel.getInputStream();
+				channel.connect();
+				return channel;
+			}
+		};
+		ChannelExec channel = c.getResult(subMon.newChild(1));
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(stdout[0], "UTF-8")); //$NON-NLS-1$
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (subMon.isCanceled()) {
+					throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+				}
+				String[] parsed = parseLine(line);
+				if (parsed == null) {
+					continue;
+				}
+				String checksum = parsed[0];
+				String name = parsed[1];
+				String path = names.get(name);
+				if (path != null) {
+					result.put(path, checksum);
+					if (fListener != null) {
+						fListener.checksumComputed(path, checksum);
+					}
+					subMon.worked(1);
+				}
+			}
+			while (!channel.isClosed()) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					// Ignore
+				}
+			}
+			// A non-zero status just means some of the files could not be read
+			return channel.getExitStatus() != ERROR_NOT_FOUND;
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			channel.disconnect();
+		}
+	}
+}
@@ -1,67 +1,102 @@
 package org.eclipse.remote.internal.jsch.core.commands;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Vector;
 
+import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.provider.FileInfo;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
 
 import com.jcraft.jsch.ChannelSftp.LsEntry;
-import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpATTRS;
 
 public class ChildInfosCommand extends AbstractRemoteCommand<IFileInfo[]> {
 
 	private final IPath fRemotePath;
+	private final int fOptions;
 
 	public ChildInfosCommand(JSchConnection connection, IPath path) {
+		this(connection, path, EFS.NONE);
+	}
+
+	/**
+	 * @param options
+	 *            bit-wise or of {@link IRemoteFileService#NO_LINK_TARGETS} and {@link IRemoteFileService#EXCLUDE_HIDDEN}
+	 */
+	public ChildInfosCommand(JSchConnection connection, IPath path, int options) {
 		super(connection);
 		fRemotePath = path;
+		fOptions = options;
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
 	}
 
 	@Override
 	public IFileInfo[] getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		final SubMonitor subMon = SubMonitor.convert(monitor, 20);
 
-		Vector<LsEntry> files = getResult(fRemotePath.toString(), subMon.newChild(10));
+		Vector<LsEntry> files = list(fRemotePath, subMon.newChild(10));
 
-		List<IFileInfo> result = new ArrayList<IFileInfo>();
+		final List<FileInfo> result = new ArrayList<FileInfo>();
+		final List<FileInfo> links = new ArrayList<FileInfo>();
 
 		if (files != null && !subMon.isCanceled()) {
 			Enumeration<LsEntry> enumeration = files.elements();
 			while (enumeration.hasMoreElements() && !subMon.isCanceled()) {
 				LsEntry entry = enumeration.nextElement();
 				final String fileName = entry.getFilename();
-				if (fileName.equals(".") || fileName.equals("..")) { //$NON-NLS-1$ //$NON-NLS-2$
-					// Ignore parent and current dir entry.
+				if (isExcluded(fileName, fOptions)) {
 					continue;
 				}
-				result.add(convertToFileInfo(fileName, fRemotePath, entry.getAttrs(), subMon.newChild(10)));
+				SftpATTRS attrs = entry.getAttrs();
+				FileInfo info = convertToFileInfo(fileName, attrs.getPermissions(), attrs.isDir(), attrs.isLink(),
+						attrs.getMTime(), attrs.getSize());
+				if (attrs.isLink() && (fOptions & IRemoteFileService.NO_LINK_TARGETS) == 0) {
+					links.add(info);
+				}
+				result.add(info);
 			}
 		}
 
-		return result.toArray(new IFileInfo[result.size()]);
-	}
+		/*
+		 * Read the targets of all the links in one pipelined batch rather than a round trip for each
+		 */
+		if (!links.isEmpty() && !subMon.isCanceled()) {
+			SftpPipeline pipeline = getConnection().acquireSftpPipeline();
+			try {
+				runPipelined(pipeline, links.size(), new SftpPipeline.Batch() {
+					@Override
+					public int writeRequest(int index, DataOutputStream out) throws IOException {
+						SftpPipeline.writeString(out, fRemotePath.append(links.get(index).getName()).toString());
+						return SftpPipeline.SSH_FXP_READLINK;
+					}
 
-	private Vector<LsEntry> getResult(String path, IProgressMonitor monitor) throws RemoteConnectionException {
-		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
-		SftpCallable<Vector<LsEntry>> c = new SftpCallable<Vector<LsEntry>>() {
-			@SuppressWarnings("unchecked")
-			@Override
-			public Vector<LsEntry> call() throws JSchException, SftpException {
-				return getChannel().ls(quote(fRemotePath.toString(), true));
+					@Override
+					public void handleResponse(int index, Response response) throws IOException {
+						if (response.getType() == SftpPipeline.SSH_FXP_NAME) {
+							links.get(index).setStringAttribute(EFS.ATTRIBUTE_LINK_TARGET, response.getName());
+						}
+					}
+				}, subMon.newChild(10));
+			} finally {
+				getConnection().releaseSftpPipeline(pipeline);
 			}
-		};
-		try {
-			return c.getResult(subMon.newChild(10));
-		} catch (SftpException e) {
-			throw new RemoteConnectionException(e.getMessage());
 		}
+
+		return result.toArray(new IFileInfo[result.size()]);
 	}
 }
@@ -0,0 +1,54 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.remote.core.IRemoteFileService;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+
+import com.jcraft.jsch.ChannelSftp.LsEntry;
+
+/**
+ * List the names of the children of a directory. Unlike {@link ChildInfosCommand}, no file info is built and symbolic
+ * links are not resolved.
+ */
+public class ChildNamesCommand extends AbstractRemoteCommand<String[]> {
+
+	private final IPath fRemotePath;
+	private final int fOptions;
+
+	/**
+	 * @param options
+	 *            {@link IRemoteFileService#EXCLUDE_HIDDEN} to leave out hidden entries
+	 */
+	public ChildNamesCommand(JSchConnection connection, IPath path, int options) {
+		super(connection);
+		fRemotePath = path;
+		fOptions = options;
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
+	@Override
+	public String[] getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		Vector<LsEntry> files = list(fRemotePath, subMon.newChild(10));
+		List<String> names = new ArrayList<String>();
+		if (files != null) {
+			for (LsEntry entry : files) {
+				if (!isExcluded(entry.getFilename(), fOptions)) {
+					names.add(entry.getFilename());
+				}
+			}
+		}
+		return names.toArray(new String[names.size()]);
+	}
+}
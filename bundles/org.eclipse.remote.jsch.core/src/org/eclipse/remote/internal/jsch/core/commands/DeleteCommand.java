@@ -15,6 +15,11 @@ public class DeleteCommand extends AbstractRemoteCommand<Void> {
 		fRemotePath = path;
 	}
 
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
 	@Override
 	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
@@ -22,6 +22,11 @@ public class FetchInfoCommand extends AbstractRemoteCommand<IFileInfo> {
 		fRemotePath = path;
 	}
 
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
 	@Override
 	public IFileInfo getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		SubMonitor subMon = SubMonitor.convert(monitor, 20);
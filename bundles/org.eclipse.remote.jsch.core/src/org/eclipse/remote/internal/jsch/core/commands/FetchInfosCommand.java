@@ -0,0 +1,110 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.remote.core.IRemoteBulkFileService.IFileInfoListener;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Attributes;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
+
+import com.jcraft.jsch.ChannelSftp;
+
+/**
+ * Fetch the file info of many paths at once. The lstat requests are pipelined, followed by a second pipelined batch to
+ * read the targets of any symbolic links, so the whole operation costs about two round trips regardless of the number of
+ * paths.
+ */
+public class FetchInfosCommand extends AbstractRemoteCommand<Map<IPath, IFileInfo>> {
+
+	private final List<IPath> fRemotePaths;
+	private final IFileInfoListener fListener;
+
+	public FetchInfosCommand(JSchConnection connection, Collection<IPath> paths, IFileInfoListener listener) {
+		super(connection);
+		fRemotePaths = new ArrayList<IPath>(paths);
+		fListener = listener;
+	}
+
+	@Override
+	public Map<IPath, IFileInfo> getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		final FileInfo[] infos = new FileInfo[fRemotePaths.size()];
+		final List<Integer> links = new ArrayList<Integer>();
+
+		SftpPipeline pipeline = getConnection().acquireSftpPipeline();
+		try {
+			runPipelined(pipeline, infos.length, new SftpPipeline.Batch() {
+				@Override
+				public int writeRequest(int index, DataOutputStream out) throws IOException {
+					SftpPipeline.writeString(out, fRemotePaths.get(index).toString());
+					return SftpPipeline.SSH_FXP_LSTAT;
+				}
+
+				@Override
+				public void handleResponse(int index, Response response) throws IOException {
+					IPath path = fRemotePaths.get(index);
+					if (response.getType() == SftpPipeline.SSH_FXP_ATTRS) {
+						Attributes attrs = response.getAttributes();
+						infos[index] = convertToFileInfo(path.lastSegment(), attrs.permissions, attrs.isDirectory(),
+								attrs.isLink(), attrs.mtime & 0xffffffffL, attrs.size);
+						if (attrs.isLink()) {
+							links.add(index);
+							return;
+						}
+					} else {
+						infos[index] = new FileInfo(path.lastSegment());
+						infos[index].setExists(false);
+						if (response.getStatus() != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+							infos[index].setError(IFileInfo.IO_ERROR);
+						}
+					}
+					if (fListener != null) {
+						fListener.fileInfoFetched(path, infos[index]);
+					}
+				}
+			}, subMon.newChild(10));
+
+			if (!links.isEmpty()) {
+				runPipelined(pipeline, links.size(), new SftpPipeline.Batch() {
+					@Override
+					public int writeRequest(int index, DataOutputStream out) throws IOException {
+						SftpPipeline.writeString(out, fRemotePaths.get(links.get(index)).toString());
+						return SftpPipeline.SSH_FXP_READLINK;
+					}
+
+					@Override
+					public void handleResponse(int index, Response response) throws IOException {
+						int i = links.get(index);
+						if (response.getType() == SftpPipeline.SSH_FXP_NAME) {
+							infos[i].setStringAttribute(EFS.ATTRIBUTE_LINK_TARGET, response.getName());
+						}
+						if (fListener != null) {
+							fListener.fileInfoFetched(fRemotePaths.get(i), infos[i]);
+						}
+					}
+				}, subMon.newChild(10));
+			}
+		} finally {
+			getConnection().releaseSftpPipeline(pipeline);
+		}
+
+		Map<IPath, IFileInfo> result = new LinkedHashMap<IPath, IFileInfo>();
+		for (int i = 0; i < infos.length; i++) {
+			result.put(fRemotePaths.get(i), infos[i]);
+		}
+		return result;
+	}
+}
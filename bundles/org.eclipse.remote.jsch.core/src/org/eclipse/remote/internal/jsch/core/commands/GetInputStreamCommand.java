@@ -34,6 +34,11 @@ public class GetInputStreamCommand extends AbstractRemoteCommand<InputStream> {
 		fRemotePath = path;
 	}
 
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
 	@Override
 	public InputStream getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
@@ -56,7 +61,7 @@ public class GetInputStreamCommand extends AbstractRemoteCommand<InputStream> {
 
 			@Override
 			public InputStream call() throws JSchException, SftpException, IOException {
-				return newChannel().get(fRemotePath.toString(), new CommandProgressMonitor(
+				return newChannel().get(fRemotePath.toString(), newProgressMonitor(
 						NLS.bind(Messages.GetInputStreamCommand_Receiving, fRemotePath.toString()), getProgressMonitor()));
 			}
 		};
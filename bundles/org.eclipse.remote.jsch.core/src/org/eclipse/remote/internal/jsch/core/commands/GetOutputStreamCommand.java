@@ -32,6 +32,11 @@ public class GetOutputStreamCommand extends AbstractRemoteCommand<OutputStream>
 		fIsClosed = false;
 	}
 
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
 	@Override
 	public OutputStream getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
@@ -53,7 +58,7 @@ public class GetOutputStreamCommand extends AbstractRemoteCommand<OutputStream>
 									getChannel().put(
 											input,
 											fRemotePath.toString(),
-											new CommandProgressMonitor(NLS.bind(Messages.GetOutputStreamCommand_Sending, fRemotePath.toString()),
+											newProgressMonitor(NLS.bind(Messages.GetOutputStreamCommand_Sending, fRemotePath.toString()),
 													getProgressMonitor()), mode);
 									input.close();
 								} finally {
@@ -1,53 +1,150 @@
 package org.eclipse.remote.internal.jsch.core.commands;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.provider.FileInfo;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Attributes;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
 
-import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.ChannelSftp;
 
-public class MkdirCommand extends AbstractRemoteCommand<Void> {
+/**
+ * Create a directory and, unless shallow, any missing ancestors. The result is the info of the path after the attempt, so
+ * the caller can tell whether a directory now exists without another round trip.
+ *
+ * A mkdir request is pipelined for every level followed by an lstat of the path, so the whole operation costs about one
+ * round trip however deep the path is. Failures of the individual mkdirs (e.g. because the directory already exists) are
+ * ignored. If the connection is configured to use "mkdir -p" (see {@link JSchConnection#useMkdirExec()}), that is run
+ * instead.
+ */
+public class MkdirCommand extends AbstractRemoteCommand<IFileInfo> {
 
 	private final IPath fRemotePath;
+	private final boolean fShallow;
 
 	public MkdirCommand(JSchConnection connection, IPath path) {
+		this(connection, path, false);
+	}
+
+	public MkdirCommand(JSchConnection connection, IPath path, boolean shallow) {
 		super(connection);
 		fRemotePath = path;
+		fShallow = shallow;
 	}
 
 	@Override
-	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
+	@Override
+	public IFileInfo getResult(IProgressMonitor monitor) throws RemoteConnectionException {
 		final SubMonitor subMon = SubMonitor.convert(monitor, 20);
 
-		/*
-		 * Recursively create parent directories
-		 */
-		FetchInfoCommand command = new FetchInfoCommand(getConnection(), fRemotePath.removeLastSegments(1));
-		IFileInfo info = command.getResult(subMon.newChild(10));
-		if (!info.exists()) {
-			MkdirCommand mkdirCommand = new MkdirCommand(getConnection(), fRemotePath.removeLastSegments(1));
-			mkdirCommand.getResult(subMon.newChild(10));
+		if (!fShallow && getConnection().useMkdirExec()) {
+			try {
+				new ExecCommand(getConnection()).setCommand("mkdir -p -- " + quote(fRemotePath.toString(), true)) //$NON-NLS-1$
+						.getResult(subMon.newChild(10));
+				FileInfo info = new FileInfo(fRemotePath.lastSegment());
+				info.setExists(true);
+				info.setDirectory(true);
+				return info;
+			} catch (RemoteConnectionException e) {
+				// Find out why below
+			}
+			return new FetchInfoCommand(getConnection(), fRemotePath).getResult(subMon.newChild(10));
 		}
 
-		/*
-		 * Now create directory
-		 */
-		SftpCallable<Void> c = new SftpCallable<Void>() {
-			@Override
-			public Void call() throws JSchException, SftpException {
-				getChannel().mkdir(fRemotePath.toString());
-				return null;
-			}
-		};
+		final List<IPath> dirs = new ArrayList<IPath>();
+		for (int i = fShallow ? fRemotePath.segmentCount() : 1; i <= fRemotePath.segmentCount(); i++) {
+			dirs.add(fRemotePath.uptoSegment(i));
+		}
+		final List<IPath> failed = new ArrayList<IPath>();
+		final IFileInfo[] result = new IFileInfo[1];
+		SftpPipeline pipeline = getConnection().acquireSftpPipeline();
 		try {
-			c.getResult(subMon.newChild(10));
-		} catch (SftpException e) {
-			throw new RemoteConnectionException(e.getMessage());
+			runPipelined(pipeline, dirs.size() + 1, new SftpPipeline.Batch() {
+				@Override
+				public int writeRequest(int index, DataOutputStream out) throws IOException {
+					if (index < dirs.size()) {
+						SftpPipeline.writeString(out, dirs.get(index).toString());
+						SftpPipeline.writeAttributes(out, new Attributes());
+						return SftpPipeline.SSH_FXP_MKDIR;
+					}
+					SftpPipeline.writeString(out, fRemotePath.toString());
+					return SftpPipeline.SSH_FXP_LSTAT;
+				}
+
+				@Override
+				public void handleResponse(int index, Response response) throws IOException {
+					if (index < dirs.size()) {
+						if (response.getStatus() != ChannelSftp.SSH_FX_OK) {
+							failed.add(dirs.get(index));
+						}
+					} else {
+						result[0] = toFileInfo(response);
+					}
+				}
+			}, subMon.newChild(10));
+
+			/*
+			 * Servers may handle requests for different paths in any order, in which case a mkdir may have been attempted
+			 * before its parent was created, or the lstat answered before the last mkdir. Retry the ones that failed in
+			 * order, and look at the path again.
+			 */
+			if (!result[0].isDirectory()) {
+				SubMonitor retryMon = SubMonitor.convert(subMon.newChild(10), failed.size() + 1);
+				for (final IPath dir : failed) {
+					runPipelined(pipeline, 1, new SftpPipeline.Batch() {
+						@Override
+						public int writeRequest(int index, DataOutputStream out) throws IOException {
+							SftpPipeline.writeString(out, dir.toString());
+							SftpPipeline.writeAttributes(out, new Attributes());
+							return SftpPipeline.SSH_FXP_MKDIR;
+						}
+
+						@Override
+						public void handleResponse(int index, Response response) {
+							// Checked below
+						}
+					}, retryMon.newChild(1));
+				}
+				runPipelined(pipeline, 1, new SftpPipeline.Batch() {
+					@Override
+					public int writeRequest(int index, DataOutputStream out) throws IOException {
+						SftpPipeline.writeString(out, fRemotePath.toString());
+						return SftpPipeline.SSH_FXP_LSTAT;
+					}
+
+					@Override
+					public void handleResponse(int index, Response response) throws IOException {
+						result[0] = toFileInfo(response);
+					}
+				}, retryMon.newChild(1));
+			}
+		} finally {
+			getConnection().releaseSftpPipeline(pipeline);
+		}
+		return result[0];
+	}
+
+	private IFileInfo toFileInfo(Response response) throws IOException {
+		if (response.getType() == SftpPipeline.SSH_FXP_ATTRS) {
+			Attributes attrs = response.getAttributes();
+			return convertToFileInfo(fRemotePath.lastSegment(), attrs.permissions, attrs.isDirectory(), attrs.isLink(),
+					attrs.mtime & 0xffffffffL, attrs.size);
 		}
-		return null;
+		FileInfo info = new FileInfo(fRemotePath.lastSegment());
+		info.setExists(false);
+		return info;
 	}
 }
@@ -0,0 +1,120 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelSftp;
+
+/**
+ * Set the attributes of many files at once. Permissions and modification time are sent in a single SSH_FXP_SETSTAT per
+ * file, and the requests are pipelined, so the whole batch costs about one round trip.
+ */
+public class PutInfosCommand extends AbstractRemoteCommand<Void> {
+	private static final int S_IRUSR = 0400; // owner has read permission
+	private static final int S_IWUSR = 0200; // owner has write permission
+	private static final int S_IXUSR = 0100; // owner has execute permission
+	private static final int S_IRGRP = 0040; // group has read permission
+	private static final int S_IWGRP = 0020; // group has write permission
+	private static final int S_IXGRP = 0010; // group has execute permission
+	private static final int S_IROTH = 0004; // others have read permission
+	private static final int S_IWOTH = 0002; // others have write permission
+	private static final int S_IXOTH = 0001; // others have execute permission
+
+	private final List<IPath> fRemotePaths;
+	private final List<IFileInfo> fFileInfos;
+	private final int fOptions;
+
+	public PutInfosCommand(JSchConnection connection, Map<IPath, IFileInfo> infos, int options) {
+		super(connection);
+		fRemotePaths = new ArrayList<IPath>(infos.keySet());
+		fFileInfos = new ArrayList<IFileInfo>(infos.values());
+		fOptions = options;
+	}
+
+	/**
+	 * Set the attributes of all the files, even if some of them fail.
+	 *
+	 * @throws RemoteConnectionException
+	 *             if the attributes of any file could not be set. The message names the first file that failed.
+	 */
+	@Override
+	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		if ((fOptions & (EFS.SET_ATTRIBUTES | EFS.SET_LAST_MODIFIED)) == 0 || fRemotePaths.isEmpty()) {
+			return null;
+		}
+		final String[] failure = new String[1];
+		SftpPipeline pipeline = getConnection().acquireSftpPipeline();
+		try {
+			runPipelined(pipeline, fRemotePaths.size(), new SftpPipeline.Batch() {
+				@Override
+				public int writeRequest(int index, DataOutputStream out) throws IOException {
+					IFileInfo info = fFileInfos.get(index);
+					int permissions = (fOptions & EFS.SET_ATTRIBUTES) != 0 ? getPermissions(info) : -1;
+					long mtime = (fOptions & EFS.SET_LAST_MODIFIED) != 0 ? info.getLastModified() / 1000 : -1;
+					SftpPipeline.writeString(out, fRemotePaths.get(index).toString());
+					SftpPipeline.writeAttributes(out, SftpPipeline.newAttributes(permissions, mtime));
+					return SftpPipeline.SSH_FXP_SETSTAT;
+				}
+
+				@Override
+				public void handleResponse(int index, Response response) throws IOException {
+					if (response.getStatus() != ChannelSftp.SSH_FX_OK && failure[0] == null) {
+						failure[0] = NLS.bind(Messages.PutInfosCommand_Failed, fRemotePaths.get(index).toString(),
+								response.getMessage());
+					}
+				}
+			}, monitor);
+		} finally {
+			getConnection().releaseSftpPipeline(pipeline);
+		}
+		if (failure[0] != null) {
+			throw new RemoteConnectionException(failure[0]);
+		}
+		return null;
+	}
+
+	private static int getPermissions(IFileInfo info) {
+		int permissions = 0;
+		if (info.getAttribute(EFS.ATTRIBUTE_OWNER_READ)) {
+			permissions |= S_IRUSR;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_OWNER_WRITE)) {
+			permissions |= S_IWUSR;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE)) {
+			permissions |= S_IXUSR;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_GROUP_READ)) {
+			permissions |= S_IRGRP;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_GROUP_WRITE)) {
+			permissions |= S_IWGRP;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE)) {
+			permissions |= S_IXGRP;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_OTHER_READ)) {
+			permissions |= S_IROTH;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_OTHER_WRITE)) {
+			permissions |= S_IWOTH;
+		}
+		if (info.getAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE)) {
+			permissions |= S_IXOTH;
+		}
+		return permissions;
+	}
+}
@@ -0,0 +1,118 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Download a large file in segments. Each segment is read over a pooled sftp channel starting at its offset, and written
+ * at the same position into a temporary file next to the local file. The temporary file replaces the local file once the
+ * download is complete, and is deleted if the download fails or is cancelled.
+ */
+public class SegmentedGetCommand extends SegmentedTransferCommand {
+	private File fTempFile;
+	private RandomAccessFile fFile;
+	private FileChannel fChannel;
+
+	public SegmentedGetCommand(JSchConnection connection, IPath remotePath, File localFile) {
+		super(connection, remotePath, localFile);
+	}
+
+	@Override
+	protected long getSize(IProgressMonitor monitor) throws RemoteConnectionException {
+		return getRemoteSize(monitor);
+	}
+
+	@Override
+	protected void prepare(long size, IProgressMonitor monitor) throws IOException {
+		File dir = fLocalFile.getAbsoluteFile().getParentFile();
+		fTempFile = File.createTempFile("." + fLocalFile.getName() + ".", ".part", dir); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		fFile = new RandomAccessFile(fTempFile, "rw"); //$NON-NLS-1$
+		fFile.setLength(size);
+		fChannel = fFile.getChannel();
+	}
+
+	@Override
+	protected void transferSegment(long offset, long length) throws IOException, SftpException, RemoteConnectionException {
+		ChannelSftp channel = getConnection().acquireTransferChannel();
+		boolean reuse = false;
+		try {
+			try (InputStream in = channel.get(fRemotePath.toString(), null, offset)) {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				while (length > 0) {
+					int len = in.read(buffer, 0, (int) Math.min(buffer.length, length));
+					if (len < 0) {
+						throw new EOFException();
+					}
+					ByteBuffer data = ByteBuffer.wrap(buffer, 0, len);
+					while (data.hasRemaining()) {
+						offset += fChannel.write(data, offset);
+					}
+					length -= len;
+					transferred(len);
+				}
+			}
+			reuse = true;
+		} finally {
+			if (reuse) {
+				getConnection().releaseTransferChannel(channel);
+			} else {
+				channel.disconnect();
+			}
+		}
+	}
+
+	@Override
+	protected File getTransferFile() {
+		return fTempFile;
+	}
+
+	@Override
+	protected void complete() throws IOException {
+		fFile.close();
+		Files.move(fTempFile.toPath(), fLocalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		fTempFile = null;
+	}
+
+	@Override
+	protected void close() {
+		if (fFile != null) {
+			try {
+				fFile.close();
+			} catch (IOException e) {
+				// Ignore
+			}
+		}
+		if (fTempFile != null) {
+			fTempFile.delete();
+			fTempFile = null;
+		}
+	}
+
+	@Override
+	protected int getDirection() {
+		return SftpProgressMonitor.GET;
+	}
+
+	@Override
+	protected String getTaskName() {
+		return NLS.bind(Messages.GetInputStreamCommand_Receiving, fRemotePath.toString());
+	}
+}
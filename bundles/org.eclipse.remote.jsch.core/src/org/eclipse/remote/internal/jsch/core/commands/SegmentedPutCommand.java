@@ -0,0 +1,114 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Upload a large file in segments. Each segment is read from its position in the local file and written by a "dd" with
+ * the matching seek running on its own exec channel. JSch only opens sftp files for writing with truncate or append
+ * semantics, so it can't write a range of an existing file itself.
+ */
+public class SegmentedPutCommand extends SegmentedTransferCommand {
+	private RandomAccessFile fFile;
+	private FileChannel fChannel;
+
+	public SegmentedPutCommand(JSchConnection connection, File localFile, IPath remotePath) {
+		super(connection, remotePath, localFile);
+	}
+
+	@Override
+	protected long getSize(IProgressMonitor monitor) {
+		return fLocalFile.length();
+	}
+
+	@Override
+	protected void prepare(long size, IProgressMonitor monitor) throws IOException, RemoteConnectionException {
+		fFile = new RandomAccessFile(fLocalFile, "r"); //$NON-NLS-1$
+		fChannel = fFile.getChannel();
+		// Create or truncate the remote file
+		ChannelSftp channel = getConnection().acquireTransferChannel();
+		try {
+			channel.put(fRemotePath.toString(), ChannelSftp.OVERWRITE).close();
+		} catch (SftpException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		} finally {
+			getConnection().releaseTransferChannel(channel);
+		}
+	}
+
+	@Override
+	protected void transferSegment(long offset, long length) throws IOException, JSchException, RemoteConnectionException {
+		long segmentSize = Math.max(getConnection().getTransferSegmentSize(), BUFFER_SIZE);
+		ChannelExec channel = getConnection().getTransferExecChannel();
+		try {
+			ByteArrayOutputStream err = new ByteArrayOutputStream();
+			channel.setCommand("dd of=" + quote(fRemotePath.toString(), true) + " bs=" + segmentSize + " seek=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ offset / segmentSize + " conv=notrunc"); //$NON-NLS-1$
+			channel.setErrStream(err);
+			OutputStream out = channel.getOutputStream();
+			InputStream in = channel.getInputStream();
+			channel.connect();
+			try {
+				ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+				while (length > 0) {
+					buffer.clear();
+					buffer.limit((int) Math.min(buffer.capacity(), length));
+					int len = fChannel.read(buffer, offset);
+					if (len < 0) {
+						throw new IOException(NLS.bind(Messages.TarUploadCommand_File_changed, fLocalFile.toString()));
+					}
+					out.write(buffer.array(), 0, len);
+					offset += len;
+					length -= len;
+					transferred(len);
+				}
+			} finally {
+				out.close();
+			}
+			waitForExit(channel, in, err, new NullProgressMonitor());
+		} finally {
+			channel.disconnect();
+		}
+	}
+
+	@Override
+	protected void close() {
+		if (fFile != null) {
+			try {
+				fFile.close();
+			} catch (IOException e) {
+				// Ignore
+			}
+		}
+	}
+
+	@Override
+	protected int getDirection() {
+		return SftpProgressMonitor.PUT;
+	}
+
+	@Override
+	protected String getTaskName() {
+		return NLS.bind(Messages.GetOutputStreamCommand_Sending, fRemotePath.toString());
+	}
+}
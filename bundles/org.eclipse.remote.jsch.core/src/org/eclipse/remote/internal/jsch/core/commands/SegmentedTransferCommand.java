@@ -0,0 +1,244 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.IRemoteBulkFileService;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.core.RemoteChecksums;
+import org.eclipse.remote.internal.core.RemoteFlightRecorder;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Base for transfers of a single large file that split the file into byte ranges (segments) and move several of them at
+ * once, each over its own channel. Segment size, parallelism and verification are taken from the connection attributes.
+ */
+public abstract class SegmentedTransferCommand extends AbstractRemoteCommand<Void> {
+	protected static final int BUFFER_SIZE = 32 * 1024;
+
+	protected final IPath fRemotePath;
+	protected final File fLocalFile;
+
+	private final AtomicLong fTransferred = new AtomicLong();
+	private volatile boolean fCancelled;
+
+	protected SegmentedTransferCommand(JSchConnection connection, IPath remotePath, File localFile) {
+		super(connection);
+		fRemotePath = remotePath;
+		fLocalFile = localFile;
+	}
+
+	/**
+	 * Check if a file of the given size is worth splitting up on this connection.
+	 *
+	 * @param connection
+	 *            connection the transfer will use
+	 * @param size
+	 *            file size in bytes
+	 * @return true if the file should be transferred in segments
+	 */
+	public static boolean isSegmented(JSchConnection connection, long size) {
+		return connection.getTransferParallelism() > 1 && size > connection.getTransferSegmentSize();
+	}
+
+	/**
+	 * Get the size of the file being transferred.
+	 */
+	protected abstract long getSize(IProgressMonitor monitor) throws RemoteConnectionException;
+
+	/**
+	 * Called once before any segments are transferred, e.g. to create the destination file.
+	 */
+	protected abstract void prepare(long size, IProgressMonitor monitor) throws IOException, RemoteConnectionException;
+
+	/**
+	 * Transfer one segment. This is called concurrently from several threads. Implementations must call
+	 * {@link #transferred(int)} as data is moved.
+	 */
+	protected abstract void transferSegment(long offset, long length) throws IOException, JSchException, SftpException,
+			RemoteConnectionException;
+
+	/**
+	 * Called once all segments have been transferred and verified, e.g. to move the data into place.
+	 */
+	protected void complete() throws IOException {
+	}
+
+	/**
+	 * Called once the transfer is complete or has failed, to release anything acquired by
+	 * {@link #prepare(long, IProgressMonitor)}. If the transfer failed or was cancelled, anything left incomplete should
+	 * be removed.
+	 */
+	protected abstract void close();
+
+	/**
+	 * Get the local file the data is read from or written to while the transfer runs.
+	 */
+	protected File getTransferFile() {
+		return fLocalFile;
+	}
+
+	protected abstract String getTaskName();
+
+	/**
+	 * @return {@link SftpProgressMonitor#GET} or {@link SftpProgressMonitor#PUT}
+	 */
+	protected abstract int getDirection();
+
+	/**
+	 * Record progress of a segment.
+	 *
+	 * @throws IOException
+	 *             if the transfer has been cancelled
+	 */
+	protected void transferred(int count) throws IOException {
+		if (fCancelled) {
+			throw new IOException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+		}
+		fTransferred.addAndGet(count);
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
+	@Override
+	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 100);
+		final long size = getSize(subMon.newChild(5));
+		final long segmentSize = Math.max(getConnection().getTransferSegmentSize(), BUFFER_SIZE);
+		final int segments = (int) ((size + segmentSize - 1) / segmentSize);
+		int threads = Math.max(1, Math.min(getConnection().getTransferParallelism(), segments));
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		RemoteFlightRecorder.Event event = RemoteFlightRecorder.COMMAND.begin();
+		boolean done = false;
+		try {
+			prepare(size, subMon.newChild(5));
+			final AtomicInteger next = new AtomicInteger();
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						int segment;
+						while (!fCancelled && (segment = next.getAndIncrement()) < segments) {
+							long offset = segment * segmentSize;
+							transferSegment(offset, Math.min(segmentSize, size - offset));
+						}
+						return null;
+					}
+				}));
+			}
+
+			CommandProgressMonitor progress = newProgressMonitor(getTaskName(), subMon.newChild(80));
+			progress.init(getDirection(), fRemotePath.toString(), fLocalFile.toString(), size);
+			long reported = 0;
+			for (Future<Void> future : futures) {
+				while (true) {
+					try {
+						future.get(100, TimeUnit.MILLISECONDS);
+						break;
+					} catch (TimeoutException e) {
+						// Update progress below
+					} catch (InterruptedException e) {
+						fCancelled = true;
+						throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+					} catch (ExecutionException e) {
+						fCancelled = true;
+						if (e.getCause() instanceof RemoteConnectionException) {
+							throw (RemoteConnectionException) e.getCause();
+						}
+						throw new RemoteConnectionException(e.getCause().getMessage(), e.getCause());
+					}
+					long transferred = fTransferred.get();
+					if (!progress.count(transferred - reported)) {
+						fCancelled = true;
+						throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+					}
+					reported = transferred;
+				}
+			}
+			progress.count(fTransferred.get() - reported);
+			progress.end();
+
+			verify(size, subMon.newChild(10));
+			complete();
+			done = true;
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			fCancelled = true;
+			pool.shutdownNow();
+			close();
+			recordRequest(start, event, !done);
+		}
+		return null;
+	}
+
+	/**
+	 * Get the size of the remote file.
+	 */
+	protected long getRemoteSize(IProgressMonitor monitor) throws RemoteConnectionException {
+		SftpCallable<Long> c = new SftpCallable<Long>() {
+			@Override
+			public Long call() throws JSchException, SftpException {
+				return getChannel().stat(fRemotePath.toString()).getSize();
+			}
+		};
+		try {
+			return c.getResult(monitor);
+		} catch (SftpException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		}
+	}
+
+	/*
+	 * Compare the sizes of the two files and, if enabled with JSchConnection.TRANSFER_VERIFY_ATTR and the remote host has
+	 * sha256sum, their checksums. Checksums mean reading both files again, so they are off by default.
+	 */
+	private void verify(long size, IProgressMonitor monitor) throws IOException, RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		String failed = NLS.bind(Messages.SegmentedTransferCommand_Verification_failed, fRemotePath.toString());
+		File localFile = getTransferFile();
+		if (localFile.length() != size || getRemoteSize(subMon.newChild(1)) != size) {
+			throw new RemoteConnectionException(failed);
+		}
+		if (!getConnection().verifyTransfers()) {
+			return;
+		}
+		String path = fRemotePath.toString();
+		Map<String, String> remote = new ChecksumCommand(getConnection(), Collections.singleton(path),
+				IRemoteBulkFileService.SHA256, null).getResult(subMon.newChild(5));
+		if (remote == null || !remote.containsKey(path)) {
+			return;
+		}
+		if (!remote.get(path).equals(RemoteChecksums.checksum(localFile, IRemoteBulkFileService.SHA256))) {
+			throw new RemoteConnectionException(failed);
+		}
+	}
+}
@@ -0,0 +1,321 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.ChannelSubsystem;
+import com.jcraft.jsch.JSchException;
+
+/**
+ * A minimal SFTP (version 3) client for sending many small requests without waiting for each reply. ChannelSftp only
+ * has one request outstanding at a time, so operations on many paths cost one round trip each. Here up to
+ * {@link #MAX_OUTSTANDING} requests are written before the first reply is read, so a batch costs roughly one round trip
+ * plus transfer time.
+ *
+ * Only the requests needed for batched metadata operations are supported. A pipeline must only be used by one thread at a
+ * time.
+ */
+public class SftpPipeline {
+	public static final int SSH_FXP_LSTAT = 7;
+	public static final int SSH_FXP_SETSTAT = 9;
+	public static final int SSH_FXP_MKDIR = 14;
+	public static final int SSH_FXP_READLINK = 19;
+
+	public static final int SSH_FXP_STATUS = 101;
+	public static final int SSH_FXP_NAME = 104;
+	public static final int SSH_FXP_ATTRS = 105;
+
+	public static final int SSH_FILEXFER_ATTR_SIZE = 0x00000001;
+	public static final int SSH_FILEXFER_ATTR_UIDGID = 0x00000002;
+	public static final int SSH_FILEXFER_ATTR_PERMISSIONS = 0x00000004;
+	public static final int SSH_FILEXFER_ATTR_ACMODTIME = 0x00000008;
+	public static final int SSH_FILEXFER_ATTR_EXTENDED = 0x80000000;
+
+	private static final int SSH_FXP_INIT = 1;
+	private static final int SSH_FXP_VERSION = 2;
+	private static final int VERSION = 3;
+	private static final int MAX_OUTSTANDING = 64;
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	/**
+	 * Attributes as sent and received in SFTP packets. Only the fields indicated by flags are valid.
+	 */
+	public static class Attributes {
+		public int flags;
+		public long size;
+		public int uid;
+		public int gid;
+		public int permissions;
+		public int atime;
+		public int mtime;
+
+		public boolean isDirectory() {
+			return (flags & SSH_FILEXFER_ATTR_PERMISSIONS) != 0 && (permissions & 0170000) == 0040000;
+		}
+
+		public boolean isLink() {
+			return (flags & SSH_FILEXFER_ATTR_PERMISSIONS) != 0 && (permissions & 0170000) == 0120000;
+		}
+	}
+
+	/**
+	 * A reply to a request.
+	 */
+	public static class Response {
+		private final int fType;
+		private final DataInputStream fData;
+		private int fStatus = -1;
+		private String fMessage;
+
+		private Response(int type, DataInputStream data) throws IOException {
+			fType = type;
+			fData = data;
+			if (type == SSH_FXP_STATUS) {
+				fStatus = data.readInt();
+				fMessage = data.available() > 0 ? readString(data) : null;
+			}
+		}
+
+		public int getType() {
+			return fType;
+		}
+
+		/**
+		 * Get the status code of an SSH_FXP_STATUS reply (the same values as {@link ChannelSftp#SSH_FX_OK} etc.), or -1 for
+		 * other replies.
+		 */
+		public int getStatus() {
+			return fStatus;
+		}
+
+		/**
+		 * Get the error message of an SSH_FXP_STATUS reply.
+		 */
+		public String getMessage() {
+			return fMessage;
+		}
+
+		/**
+		 * Get the attributes of an SSH_FXP_ATTRS reply.
+		 */
+		public Attributes getAttributes() throws IOException {
+			return readAttributes(fData);
+		}
+
+		/**
+		 * Get the first name of an SSH_FXP_NAME reply.
+		 */
+		public String getName() throws IOException {
+			if (fData.readInt() < 1) {
+				return null;
+			}
+			return readString(fData);
+		}
+	}
+
+	/**
+	 * Requests sent as a batch. Called on the thread running the batch.
+	 */
+	public interface Batch {
+		/**
+		 * Write the fields of the request with the given index that follow the request id.
+		 *
+		 * @return the packet type of the request
+		 */
+		int writeRequest(int index, DataOutputStream out) throws IOException;
+
+		/**
+		 * Handle the reply to the request with the given index.
+		 */
+		void handleResponse(int index, Response response) throws IOException;
+	}
+
+	private final ChannelSubsystem fChannel;
+	private final DataInputStream fIn;
+	private final OutputStream fOut;
+	private final ByteArrayOutputStream fPacket = new ByteArrayOutputStream();
+	private int fNextId;
+
+	/**
+	 * Open a pipeline over a new sftp subsystem channel.
+	 */
+	public SftpPipeline(ChannelSubsystem channel) throws RemoteConnectionException {
+		fChannel = channel;
+		try {
+			channel.setSubsystem("sftp"); //$NON-NLS-1$
+			InputStream in = channel.getInputStream();
+			fOut = channel.getOutputStream();
+			channel.connect();
+			fIn = new DataInputStream(in);
+
+			DataOutputStream out = new DataOutputStream(fOut);
+			out.writeInt(5);
+			out.writeByte(SSH_FXP_INIT);
+			out.writeInt(VERSION);
+			out.flush();
+			DataInputStream reply = receive();
+			if (reply.readUnsignedByte() != SSH_FXP_VERSION) {
+				throw new IOException(Messages.JSchConnection_Unable_to_open_sftp_channel);
+			}
+		} catch (JSchException | IOException e) {
+			channel.disconnect();
+			throw new RemoteConnectionException(e.getMessage(), e);
+		}
+	}
+
+	public boolean isConnected() {
+		return fChannel.isConnected();
+	}
+
+	public void disconnect() {
+		fChannel.disconnect();
+	}
+
+	/**
+	 * Send count requests, keeping up to {@link #MAX_OUTSTANDING} of them in flight, and pass each reply to the batch as it
+	 * arrives.
+	 *
+	 * @throws RemoteConnectionException
+	 *             if the channel fails or the monitor is cancelled. The pipeline can't be used after a failure, as replies
+	 *             to the requests in flight would be read by the next batch, so the channel is disconnected whenever a
+	 *             batch doesn't complete, including when the batch itself throws.
+	 */
+	public void run(int count, Batch batch, IProgressMonitor monitor) throws RemoteConnectionException {
+		int firstId = fNextId;
+		int sent = 0;
+		int received = 0;
+		try {
+			while (received < count) {
+				while (sent < count && sent - received < MAX_OUTSTANDING) {
+					int type = batch.writeRequest(sent++, new DataOutputStream(fPacket));
+					send(type, fNextId++);
+				}
+				fOut.flush();
+				if (monitor != null && monitor.isCanceled()) {
+					throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+				}
+				DataInputStream reply = receive();
+				int type = reply.readUnsignedByte();
+				int index = reply.readInt() - firstId;
+				if (index < 0 || index >= count) {
+					throw new IOException(Messages.JSchConnection_Unable_to_open_sftp_channel);
+				}
+				batch.handleResponse(index, new Response(type, reply));
+				received++;
+			}
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			if (received < count) {
+				fChannel.disconnect();
+			}
+		}
+	}
+
+	/*
+	 * Send the buffered request fields with the packet header
+	 */
+	private void send(int type, int id) throws IOException {
+		DataOutputStream out = new DataOutputStream(fOut);
+		out.writeInt(fPacket.size() + 5);
+		out.writeByte(type);
+		out.writeInt(id);
+		fPacket.writeTo(out);
+		fPacket.reset();
+	}
+
+	private DataInputStream receive() throws IOException {
+		int length = fIn.readInt();
+		if (length < 5 || length > 256 * 1024) {
+			throw new EOFException();
+		}
+		byte[] data = new byte[length];
+		fIn.readFully(data);
+		return new DataInputStream(new ByteArrayInputStream(data));
+	}
+
+	public static void writeString(DataOutputStream out, String str) throws IOException {
+		byte[] bytes = str.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static void writeAttributes(DataOutputStream out, Attributes attrs) throws IOException {
+		out.writeInt(attrs.flags & ~SSH_FILEXFER_ATTR_EXTENDED);
+		if ((attrs.flags & SSH_FILEXFER_ATTR_SIZE) != 0) {
+			out.writeLong(attrs.size);
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_UIDGID) != 0) {
+			out.writeInt(attrs.uid);
+			out.writeInt(attrs.gid);
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_PERMISSIONS) != 0) {
+			out.writeInt(attrs.permissions);
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_ACMODTIME) != 0) {
+			out.writeInt(attrs.atime);
+			out.writeInt(attrs.mtime);
+		}
+	}
+
+	/**
+	 * Get attributes for SSH_FXP_SETSTAT (or SSH_FXP_MKDIR) that set the permissions and modification time. The access
+	 * time is set to the modification time, as the protocol can only set both together.
+	 *
+	 * @param permissions
+	 *            permission bits, or -1 to leave them unchanged
+	 * @param mtime
+	 *            modification time in seconds, or -1 to leave it unchanged
+	 */
+	public static Attributes newAttributes(int permissions, long mtime) {
+		Attributes attrs = new Attributes();
+		if (permissions >= 0) {
+			attrs.flags |= SSH_FILEXFER_ATTR_PERMISSIONS;
+			attrs.permissions = permissions;
+		}
+		if (mtime >= 0) {
+			attrs.flags |= SSH_FILEXFER_ATTR_ACMODTIME;
+			attrs.atime = (int) mtime;
+			attrs.mtime = (int) mtime;
+		}
+		return attrs;
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static Attributes readAttributes(DataInputStream in) throws IOException {
+		Attributes attrs = new Attributes();
+		attrs.flags = in.readInt();
+		if ((attrs.flags & SSH_FILEXFER_ATTR_SIZE) != 0) {
+			attrs.size = in.readLong();
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_UIDGID) != 0) {
+			attrs.uid = in.readInt();
+			attrs.gid = in.readInt();
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_PERMISSIONS) != 0) {
+			attrs.permissions = in.readInt();
+		}
+		if ((attrs.flags & SSH_FILEXFER_ATTR_ACMODTIME) != 0) {
+			attrs.atime = in.readInt();
+			attrs.mtime = in.readInt();
+		}
+		return attrs;
+	}
+}
@@ -0,0 +1,128 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.RemoteServicesUtils;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Download a directory tree by reading a tar archive produced by "tar -c" on the remote host. Entries are unpacked as they
+ * arrive, so nothing is staged on either side. Symbolic links can't be created through EFS, so they are skipped.
+ */
+public class TarDownloadCommand extends AbstractRemoteCommand<Void> {
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private final IPath fRemotePath;
+	private final IFileStore fDestination;
+	private final boolean fCompress;
+
+	public TarDownloadCommand(JSchConnection connection, IPath remotePath, IFileStore destination, boolean compress) {
+		super(connection);
+		fRemotePath = remotePath;
+		fDestination = destination;
+		fCompress = compress;
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
+	@Override
+	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 100);
+		final String command = "tar -c" + (fCompress ? "z" : "") + "f - -C " + quote(fRemotePath.toString(), true) + " ."; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		final InputStream[] stdout = new InputStream[1];
+		ExecCallable<ChannelExec> c = new ExecCallable<ChannelExec>() {
+			@Override
+			public ChannelExec call() throws JSchException, IOException {
+				ChannelExec channel = getChannel();
+				channel.setCommand(command);
+				channel.setErrStream(err);
+				stdout[0] = channel.getInputStream();
+				channel.connect();
+				return channel;
+			}
+		};
+		ChannelExec channel = c.getResult(subMon.newChild(5));
+		try {
+			fDestination.mkdir(EFS.NONE, subMon.newChild(5));
+			InputStream in = new BufferedInputStream(stdout[0], BUFFER_SIZE);
+			if (fCompress) {
+				in = new GZIPInputStream(in, BUFFER_SIZE);
+			}
+			CommandProgressMonitor progress = newProgressMonitor(
+					NLS.bind(Messages.TarDownloadCommand_Downloading, fRemotePath.toString()), subMon.newChild(85));
+			progress.init(SftpProgressMonitor.GET, fRemotePath.toString(), fDestination.toString(), IProgressMonitor.UNKNOWN);
+
+			/*
+			 * Directory attributes are applied last, as creating their children would change the modification time (and a
+			 * read-only directory would stop them being created)
+			 */
+			List<IFileStore> dirs = new ArrayList<IFileStore>();
+			List<IFileInfo> dirInfos = new ArrayList<IFileInfo>();
+			try (TarInputStream tar = new TarInputStream(in)) {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				FileInfo info;
+				while ((info = tar.getNextEntry()) != null) {
+					if (info.getAttribute(EFS.ATTRIBUTE_SYMLINK)) {
+						continue;
+					}
+					IFileStore store = fDestination.getFileStore(RemoteServicesUtils.posixPath(info.getName()));
+					if (info.isDirectory()) {
+						store.mkdir(EFS.NONE, null);
+						dirs.add(store);
+						dirInfos.add(info);
+						continue;
+					}
+					try (OutputStream out = store.openOutputStream(EFS.NONE, null)) {
+						int len;
+						while ((len = tar.read(buffer)) > 0) {
+							out.write(buffer, 0, len);
+							if (!progress.count(len)) {
+								throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+							}
+						}
+					}
+					store.putInfo(info, EFS.SET_ATTRIBUTES | EFS.SET_LAST_MODIFIED, null);
+				}
+				// Before the stream is closed, so the rest of the output can be read
+				waitForExit(channel, stdout[0], err, subMon.newChild(5));
+			}
+			for (int i = dirs.size() - 1; i >= 0; i--) {
+				dirs.get(i).putInfo(dirInfos.get(i), EFS.SET_ATTRIBUTES | EFS.SET_LAST_MODIFIED, null);
+			}
+			progress.end();
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			channel.disconnect();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,288 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.provider.FileInfo;
+
+/**
+ * Reads a tar archive from an input stream one entry at a time. Understands ustar, GNU long names and base-256 numbers,
+ * and the path/linkpath/size/mtime keywords of pax headers. Entries other than files, directories and symbolic links are
+ * skipped, as are entries that would escape the root of the archive.
+ */
+public class TarInputStream extends FilterInputStream {
+	private static final int BLOCK_SIZE = TarOutputStream.BLOCK_SIZE;
+
+	private long fRemaining;
+	private long fPadding;
+
+	public TarInputStream(InputStream in) {
+		super(in);
+	}
+
+	/**
+	 * Advance to the next entry. The name of the returned info is the path of the entry relative to the root of the
+	 * archive. The contents of a file entry can then be read from this stream.
+	 *
+	 * @return info for the next entry, or null at the end of the archive
+	 */
+	public FileInfo getNextEntry() throws IOException {
+		String longName = null;
+		String longLink = null;
+		Long paxSize = null;
+		Long paxTime = null;
+		byte[] header = new byte[BLOCK_SIZE];
+		while (true) {
+			skipEntry();
+			if (!readBlock(header)) {
+				return null;
+			}
+			long size = getNumber(header, 124, 12);
+			char type = (char) header[156];
+			if (type == TarOutputStream.TYPE_LONG_NAME || type == TarOutputStream.TYPE_LONG_LINK) {
+				String value = trim(new String(readData(size), TarOutputStream.UTF8));
+				if (type == TarOutputStream.TYPE_LONG_NAME) {
+					longName = value;
+				} else {
+					longLink = value;
+				}
+				continue;
+			}
+			if (type == 'x' || type == 'g') {
+				byte[] records = readData(size);
+				if (type == 'x') {
+					// The length of a record counts bytes, so walk the records over the raw data and only decode the values
+					int pos = 0;
+					while (pos < records.length) {
+						int len = 0;
+						int i = pos;
+						while (i < records.length && records[i] >= '0' && records[i] <= '9') {
+							len = len * 10 + records[i++] - '0';
+						}
+						if (i == pos || i >= records.length || records[i] != ' ' || len <= i - pos + 1
+								|| pos + len > records.length) {
+							break;
+						}
+						int start = i + 1;
+						int end = pos + len - 1; // records end with a newline
+						int eq = start;
+						while (eq < end && records[eq] != '=') {
+							eq++;
+						}
+						if (eq > start && eq < end) {
+							String key = new String(records, start, eq - start, TarOutputStream.UTF8);
+							String value = new String(records, eq + 1, end - eq - 1, TarOutputStream.UTF8);
+							if (key.equals("path")) { //$NON-NLS-1$
+								longName = value;
+							} else if (key.equals("linkpath")) { //$NON-NLS-1$
+								longLink = value;
+							} else if (key.equals("size")) { //$NON-NLS-1$
+								paxSize = Long.parseLong(value);
+							} else if (key.equals("mtime")) { //$NON-NLS-1$
+								paxTime = (long) Double.parseDouble(value);
+							}
+						}
+						pos += len;
+					}
+				}
+				continue;
+			}
+
+			if (paxSize != null) {
+				size = paxSize;
+			}
+			String name = longName != null ? longName : getName(header);
+			String link = longLink != null ? longLink : trim(new String(header, 157, 100, TarOutputStream.UTF8));
+			longName = null;
+			longLink = null;
+			long mtime = paxTime != null ? paxTime : getNumber(header, 136, 12);
+			paxSize = null;
+			paxTime = null;
+
+			boolean isFile = type == TarOutputStream.TYPE_FILE || type == 0 || type == '7';
+			fRemaining = isFile ? size : 0;
+			fPadding = isFile ? (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE : 0;
+			if (!isFile && type != TarOutputStream.TYPE_DIRECTORY && type != TarOutputStream.TYPE_SYMLINK) {
+				// Hard links, devices, fifos etc. have no equivalent in EFS
+				fRemaining = size;
+				fPadding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+				continue;
+			}
+			name = normalize(name);
+			if (name == null) {
+				continue;
+			}
+
+			FileInfo info = new FileInfo(name);
+			info.setExists(true);
+			info.setDirectory(type == TarOutputStream.TYPE_DIRECTORY);
+			info.setLength(fRemaining);
+			info.setLastModified(mtime * 1000L);
+			int mode = (int) getNumber(header, 100, 8);
+			info.setAttribute(EFS.ATTRIBUTE_OWNER_READ, (mode & 0400) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_OWNER_WRITE, (mode & 0200) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE, (mode & 0100) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_GROUP_READ, (mode & 0040) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_GROUP_WRITE, (mode & 0020) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE, (mode & 0010) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_OTHER_READ, (mode & 0004) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_OTHER_WRITE, (mode & 0002) != 0);
+			info.setAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE, (mode & 0001) != 0);
+			if (type == TarOutputStream.TYPE_SYMLINK) {
+				info.setAttribute(EFS.ATTRIBUTE_SYMLINK, true);
+				info.setStringAttribute(EFS.ATTRIBUTE_LINK_TARGET, link);
+			}
+			return info;
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) == 1 ? b[0] & 0xff : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (fRemaining <= 0) {
+			return -1;
+		}
+		int n = in.read(b, off, (int) Math.min(len, fRemaining));
+		if (n < 0) {
+			throw new EOFException();
+		}
+		fRemaining -= n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] buf = new byte[BLOCK_SIZE];
+		long skipped = 0;
+		while (skipped < n) {
+			int len = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+			if (len < 0) {
+				break;
+			}
+			skipped += len;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(fRemaining, in.available());
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private void skipEntry() throws IOException {
+		skip(fRemaining);
+		readFully(new byte[(int) fPadding]);
+		fPadding = 0;
+	}
+
+	private byte[] readData(long size) throws IOException {
+		byte[] data = new byte[(int) size];
+		readFully(data);
+		readFully(new byte[(int) ((BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE)]);
+		return data;
+	}
+
+	/*
+	 * Returns false at the end of the archive, which is marked by a zero block (or just the end of the stream).
+	 */
+	private boolean readBlock(byte[] header) throws IOException {
+		int n = 0;
+		while (n < header.length) {
+			int len = in.read(header, n, header.length - n);
+			if (len < 0) {
+				if (n == 0) {
+					return false;
+				}
+				throw new EOFException();
+			}
+			n += len;
+		}
+		for (byte b : header) {
+			if (b != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void readFully(byte[] b) throws IOException {
+		int n = 0;
+		while (n < b.length) {
+			int len = in.read(b, n, b.length - n);
+			if (len < 0) {
+				throw new EOFException();
+			}
+			n += len;
+		}
+	}
+
+	private static String getName(byte[] header) {
+		String name = trim(new String(header, 0, 100, TarOutputStream.UTF8));
+		// POSIX ustar splits long names into a prefix and a name; GNU tar uses the prefix area for other purposes
+		if (header[257] == 'u' && header[263] == '0' && header[264] == '0' && header[345] != 0) {
+			name = trim(new String(header, 345, 155, TarOutputStream.UTF8)) + '/' + name;
+		}
+		return name;
+	}
+
+	private static long getNumber(byte[] header, int offset, int length) {
+		long value = 0;
+		if ((header[offset] & 0x80) != 0) {
+			for (int i = offset + 1; i < offset + length; i++) {
+				value = (value << 8) | (header[i] & 0xff);
+			}
+			return value;
+		}
+		for (int i = offset; i < offset + length; i++) {
+			byte b = header[i];
+			if (b >= '0' && b <= '7') {
+				value = (value << 3) + (b - '0');
+			} else if (b == 0 || (b == ' ' && value > 0)) {
+				break;
+			}
+		}
+		return value;
+	}
+
+	/*
+	 * Strip "./" and trailing separators. Returns null for the root itself and for anything that is absolute or refers
+	 * to a parent directory.
+	 */
+	private static String normalize(String name) {
+		StringBuilder result = new StringBuilder();
+		for (String segment : name.split("/")) { //$NON-NLS-1$
+			if (segment.isEmpty() || segment.equals(".")) { //$NON-NLS-1$
+				continue;
+			}
+			if (segment.equals("..")) { //$NON-NLS-1$
+				return null;
+			}
+			if (result.length() > 0) {
+				result.append('/');
+			}
+			result.append(segment);
+		}
+		if (result.length() == 0 || name.startsWith("/")) { //$NON-NLS-1$
+			return null;
+		}
+		return result.toString();
+	}
+
+	private static String trim(String str) {
+		int end = str.indexOf(0);
+		return end >= 0 ? str.substring(0, end) : str;
+	}
+}
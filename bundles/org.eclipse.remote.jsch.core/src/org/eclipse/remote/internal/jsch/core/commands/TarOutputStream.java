@@ -0,0 +1,200 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+
+/**
+ * Writes a tar archive to an output stream as entries are added, so the archive never needs to be staged. Headers are
+ * ustar with the GNU extensions for long names and large sizes, which are understood by GNU tar, bsdtar and busybox.
+ */
+public class TarOutputStream extends FilterOutputStream {
+	static final int BLOCK_SIZE = 512;
+	static final int NAME_LENGTH = 100;
+	static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	static final char TYPE_FILE = '0';
+	static final char TYPE_SYMLINK = '2';
+	static final char TYPE_DIRECTORY = '5';
+	static final char TYPE_LONG_NAME = 'L';
+	static final char TYPE_LONG_LINK = 'K';
+
+	private static final byte[] GNU_MAGIC = { 'u', 's', 't', 'a', 'r', ' ', ' ', 0 };
+	private static final String LONG_LINK_NAME = "././@LongLink"; //$NON-NLS-1$
+
+	private final boolean fHasPermissions;
+	private long fRemaining;
+	private long fPadding;
+	private boolean fFinished;
+
+	/**
+	 * @param out
+	 *            stream to write the archive to
+	 * @param hasPermissions
+	 *            true if the file infos that will be added carry the owner/group/other attributes, otherwise modes are
+	 *            derived from {@link EFS#ATTRIBUTE_READ_ONLY} and {@link EFS#ATTRIBUTE_EXECUTABLE}
+	 */
+	public TarOutputStream(OutputStream out, boolean hasPermissions) {
+		super(out);
+		fHasPermissions = hasPermissions;
+	}
+
+	/**
+	 * Start a new entry. For regular files exactly info.getLength() bytes must be written before the next entry is started.
+	 *
+	 * @param name
+	 *            path of the entry relative to the root of the archive
+	 * @param info
+	 *            attributes of the entry
+	 */
+	public void putNextEntry(String name, IFileInfo info) throws IOException {
+		closeEntry();
+		int mode = getMode(info);
+		long mtime = info.getLastModified() / 1000L;
+		if (info.getAttribute(EFS.ATTRIBUTE_SYMLINK)) {
+			writeHeader(name, TYPE_SYMLINK, mode, 0, mtime, info.getStringAttribute(EFS.ATTRIBUTE_LINK_TARGET));
+		} else if (info.isDirectory()) {
+			writeHeader(name.endsWith("/") ? name : name + "/", TYPE_DIRECTORY, mode, 0, mtime, null); //$NON-NLS-1$ //$NON-NLS-2$
+		} else {
+			writeHeader(name, TYPE_FILE, mode, info.getLength(), mtime, null);
+			startData(info.getLength());
+		}
+	}
+
+	/**
+	 * Complete the current entry, padding it to a block boundary.
+	 */
+	public void closeEntry() throws IOException {
+		if (fRemaining > 0) {
+			throw new IOException("Entry is incomplete: " + fRemaining + " bytes missing"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (fPadding > 0) {
+			out.write(new byte[(int) fPadding]);
+			fPadding = 0;
+		}
+	}
+
+	/**
+	 * Write the end of archive marker. The underlying stream is not closed.
+	 */
+	public void finish() throws IOException {
+		if (!fFinished) {
+			closeEntry();
+			out.write(new byte[2 * BLOCK_SIZE]);
+			fFinished = true;
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len > fRemaining) {
+			throw new IOException("Write past end of entry"); //$NON-NLS-1$
+		}
+		out.write(b, off, len);
+		fRemaining -= len;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		super.close();
+	}
+
+	private void startData(long size) {
+		fRemaining = size;
+		fPadding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+	}
+
+	private int getMode(IFileInfo info) {
+		int mode = 0;
+		if (fHasPermissions) {
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OWNER_READ) ? 0400 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OWNER_WRITE) ? 0200 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OWNER_EXECUTE) ? 0100 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_GROUP_READ) ? 0040 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_GROUP_WRITE) ? 0020 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_GROUP_EXECUTE) ? 0010 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OTHER_READ) ? 0004 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OTHER_WRITE) ? 0002 : 0;
+			mode |= info.getAttribute(EFS.ATTRIBUTE_OTHER_EXECUTE) ? 0001 : 0;
+		} else {
+			mode = info.getAttribute(EFS.ATTRIBUTE_READ_ONLY) ? 0444 : 0644;
+			if (info.isDirectory() || info.getAttribute(EFS.ATTRIBUTE_EXECUTABLE)) {
+				mode |= 0111;
+			}
+		}
+		return mode;
+	}
+
+	private void writeHeader(String name, char type, int mode, long size, long mtime, String linkName) throws IOException {
+		byte[] nameBytes = name.getBytes(UTF8);
+		if (nameBytes.length > NAME_LENGTH) {
+			writeLongLink(TYPE_LONG_NAME, nameBytes);
+		}
+		byte[] linkBytes = linkName != null ? linkName.getBytes(UTF8) : new byte[0];
+		if (linkBytes.length > NAME_LENGTH) {
+			writeLongLink(TYPE_LONG_LINK, linkBytes);
+		}
+		byte[] header = new byte[BLOCK_SIZE];
+		System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, NAME_LENGTH));
+		putNumber(header, 100, 8, mode);
+		putNumber(header, 108, 8, 0);
+		putNumber(header, 116, 8, 0);
+		putNumber(header, 124, 12, size);
+		putNumber(header, 136, 12, mtime);
+		header[156] = (byte) type;
+		System.arraycopy(linkBytes, 0, header, 157, Math.min(linkBytes.length, NAME_LENGTH));
+		System.arraycopy(GNU_MAGIC, 0, header, 257, GNU_MAGIC.length);
+		for (int i = 148; i < 156; i++) {
+			header[i] = ' ';
+		}
+		long sum = 0;
+		for (byte b : header) {
+			sum += b & 0xff;
+		}
+		putOctal(header, 148, 7, sum);
+		out.write(header);
+	}
+
+	private void writeLongLink(char type, byte[] name) throws IOException {
+		writeHeader(LONG_LINK_NAME, type, 0, name.length + 1, 0, null);
+		out.write(name);
+		out.write(0);
+		startData(0);
+		fPadding = (BLOCK_SIZE - (name.length + 1) % BLOCK_SIZE) % BLOCK_SIZE;
+		closeEntry();
+	}
+
+	/*
+	 * Numeric fields are NUL terminated octal, or GNU base-256 when the value doesn't fit.
+	 */
+	private static void putNumber(byte[] header, int offset, int length, long value) {
+		if (value >= 0 && value < 1L << (3 * (length - 1))) {
+			putOctal(header, offset, length, value);
+		} else {
+			for (int i = offset + length - 1; i > offset; i--) {
+				header[i] = (byte) value;
+				value >>= 8;
+			}
+			header[offset] = (byte) 0x80;
+		}
+	}
+
+	private static void putOctal(byte[] header, int offset, int length, long value) {
+		int pos = offset + length - 1;
+		header[pos--] = 0;
+		for (; pos >= offset; pos--) {
+			header[pos] = (byte) ('0' + (value & 7));
+			value >>= 3;
+		}
+	}
+}
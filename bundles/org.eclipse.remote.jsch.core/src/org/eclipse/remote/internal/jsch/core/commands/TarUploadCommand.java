@@ -0,0 +1,160 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Upload a directory tree by streaming a tar archive into "tar -x" running on the remote host. The archive is generated as
+ * it is sent, so nothing is staged on either side, and the whole tree costs a single channel rather than several sftp
+ * requests per file.
+ */
+public class TarUploadCommand extends AbstractRemoteCommand<Void> {
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private final IFileStore fSource;
+	private final IPath fRemotePath;
+	private final boolean fCompress;
+
+	public TarUploadCommand(JSchConnection connection, IFileStore source, IPath remotePath, boolean compress) {
+		super(connection);
+		fSource = source;
+		fRemotePath = remotePath;
+		fCompress = compress;
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fRemotePath;
+	}
+
+	@Override
+	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 100);
+
+		/*
+		 * Collect the tree first so that progress can be reported against the total size
+		 */
+		List<String> names = new ArrayList<String>();
+		List<IFileStore> stores = new ArrayList<IFileStore>();
+		List<IFileInfo> infos = new ArrayList<IFileInfo>();
+		long total;
+		try {
+			total = collect(fSource, "", names, stores, infos, subMon.newChild(10)); //$NON-NLS-1$
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		}
+
+		String dir = quote(fRemotePath.toString(), true);
+		final String command = "mkdir -p -- " + dir + " && tar -x" + (fCompress ? "z" : "") + "opf - -C " + dir; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		final InputStream[] stdout = new InputStream[1];
+		ExecCallable<ChannelExec> c = new ExecCallable<ChannelExec>() {
+			@Override
+			public ChannelExec call() throws JSchException, IOException {
+				ChannelExec channel = getChannel();
+				channel.setCommand(command);
+				channel.setErrStream(err);
+				stdout[0] = channel.getInputStream();
+				channel.connect();
+				return channel;
+			}
+		};
+		ChannelExec channel = c.getResult(subMon.newChild(5));
+		try {
+			/*
+			 * The channel output stream is written from this thread so that the command pool is free while the archive
+			 * is being sent.
+			 */
+			OutputStream out = channel.getOutputStream();
+			if (fCompress) {
+				out = new GZIPOutputStream(out, BUFFER_SIZE);
+			}
+			CommandProgressMonitor progress = newProgressMonitor(
+					NLS.bind(Messages.TarUploadCommand_Uploading, fRemotePath.toString()), subMon.newChild(80));
+			progress.init(SftpProgressMonitor.PUT, fSource.toString(), fRemotePath.toString(), total);
+			try (TarOutputStream tar = new TarOutputStream(new BufferedOutputStream(out, BUFFER_SIZE),
+					(fSource.getFileSystem().attributes() & EFS.ATTRIBUTE_OWNER_READ) != 0)) {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				for (int i = 0; i < names.size(); i++) {
+					IFileInfo info = infos.get(i);
+					tar.putNextEntry(names.get(i), info);
+					if (!info.isDirectory() && !info.getAttribute(EFS.ATTRIBUTE_SYMLINK)) {
+						try (InputStream in = stores.get(i).openInputStream(EFS.NONE, null)) {
+							long remaining = info.getLength();
+							int len;
+							while (remaining > 0 && (len = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+								tar.write(buffer, 0, len);
+								remaining -= len;
+								if (!progress.count(len)) {
+									throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+								}
+							}
+							if (remaining > 0) {
+								throw new IOException(NLS.bind(Messages.TarUploadCommand_File_changed, names.get(i)));
+							}
+						}
+					}
+					tar.closeEntry();
+				}
+			}
+			progress.end();
+			waitForExit(channel, stdout[0], err, subMon.newChild(5));
+		} catch (CoreException e) {
+			throw new RemoteConnectionException(e);
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage(), e);
+		} finally {
+			channel.disconnect();
+		}
+		return null;
+	}
+
+	private long collect(IFileStore store, String prefix, List<String> names, List<IFileStore> stores, List<IFileInfo> infos,
+			IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		IFileInfo[] children = store.childInfos(EFS.NONE, subMon.newChild(1));
+		long total = 0;
+		subMon.setWorkRemaining(children.length);
+		for (IFileInfo info : children) {
+			if (subMon.isCanceled()) {
+				throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+			}
+			String name = prefix + info.getName();
+			IFileStore child = store.getChild(info.getName());
+			names.add(name);
+			stores.add(child);
+			infos.add(info);
+			if (info.getAttribute(EFS.ATTRIBUTE_SYMLINK)) {
+				subMon.worked(1);
+			} else if (info.isDirectory()) {
+				total += collect(child, name + "/", names, stores, infos, subMon.newChild(1)); //$NON-NLS-1$
+			} else {
+				total += info.getLength();
+				subMon.worked(1);
+			}
+		}
+		return total;
+	}
+}
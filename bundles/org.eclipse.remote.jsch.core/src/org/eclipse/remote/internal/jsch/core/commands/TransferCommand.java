@@ -0,0 +1,138 @@
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.messages.Messages;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * Copy a file from one JSch connection to another without staging the contents on the client.
+ *
+ * If the source connection allows it (see {@link JSchConnection#useDirectTransfer()}), the file is first copied host-to-host by
+ * running scp on the source host with agent forwarding enabled. If that is not possible, the file is piped from an sftp read
+ * on the source connection to an sftp write on the target connection. JSch keeps several read and write requests in flight on
+ * each channel, so only a bounded buffer ever passes through the client.
+ */
+public class TransferCommand extends AbstractRemoteCommand<Void> {
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private final IPath fSourcePath;
+	private final JSchConnection fTarget;
+	private final IPath fTargetPath;
+
+	public TransferCommand(JSchConnection source, IPath sourcePath, JSchConnection target, IPath targetPath) {
+		super(source);
+		fSourcePath = sourcePath;
+		fTarget = target;
+		fTargetPath = targetPath;
+	}
+
+	@Override
+	protected IPath getRemotePath() {
+		return fSourcePath;
+	}
+
+	@Override
+	public Void getResult(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 20);
+		if (getConnection().useDirectTransfer() && fTarget.getProxyConnectionName().isEmpty()
+				&& fTarget.getProxyCommand().isEmpty()) {
+			if (directTransfer(subMon.newChild(10))) {
+				return null;
+			}
+		}
+		subMon.setWorkRemaining(10);
+		pipedTransfer(subMon.newChild(10));
+		return null;
+	}
+
+	/**
+	 * Run scp on the source host to copy the file straight to the target host. Failure is not an error, it just means the
+	 * hosts can't reach each other (or scp isn't available) so the caller should fall back to the piped transfer.
+	 *
+	 * @return true if the file was copied
+	 */
+	private boolean directTransfer(IProgressMonitor monitor) throws RemoteConnectionException {
+		final SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		StringBuilder cmd = new StringBuilder("scp -p -q -o BatchMode=yes -o ConnectTimeout=10"); //$NON-NLS-1$
+		cmd.append(" -P ").append(fTarget.getPort()); //$NON-NLS-1$
+		cmd.append(' ').append(quote(fSourcePath.toString(), true));
+		cmd.append(' ').append(quote(fTarget.getUsername() + '@' + fTarget.getHostname() + ':'
+				+ quote(fTargetPath.toString(), true), true));
+		final String command = cmd.toString();
+		ExecCallable<Integer> c = new ExecCallable<Integer>() {
+			@Override
+			public Integer call() throws JSchException, IOException {
+				getChannel().setCommand(command);
+				getChannel().setAgentForwarding(true);
+				getChannel().setInputStream(null);
+				getChannel().connect();
+				while (!getChannel().isClosed() && !getProgressMonitor().isCanceled()) {
+					synchronized (this) {
+						try {
+							wait(100);
+						} catch (InterruptedException e) {
+							// Ignore
+						}
+					}
+				}
+				return getChannel().getExitStatus();
+			}
+		};
+		subMon.subTask(NLS.bind(Messages.TransferCommand_Transferring, fSourcePath.toString(), fTargetPath.toString()));
+		return c.getResult(subMon.newChild(10)) == 0;
+	}
+
+	private void pipedTransfer(IProgressMonitor monitor) throws RemoteConnectionException {
+		SubMonitor subMon = SubMonitor.convert(monitor, 10);
+		CommandProgressMonitor progress = newProgressMonitor(NLS.bind(Messages.TransferCommand_Transferring,
+				fSourcePath.toString(), fTargetPath.toString()), subMon.newChild(10));
+		ChannelSftp source = getConnection().newSftpChannel();
+		try {
+			ChannelSftp target = fTarget.newSftpChannel();
+			try {
+				progress.init(SftpProgressMonitor.PUT, fSourcePath.toString(), fTargetPath.toString(),
+						source.stat(fSourcePath.toString()).getSize());
+				InputStream in = source.get(fSourcePath.toString());
+				try {
+					OutputStream out = target.put(fTargetPath.toString(), ChannelSftp.OVERWRITE);
+					try {
+						byte[] buffer = new byte[BUFFER_SIZE];
+						int len;
+						while ((len = in.read(buffer)) > 0) {
+							out.write(buffer, 0, len);
+							if (!progress.count(len)) {
+								throw new RemoteConnectionException(Messages.AbstractRemoteCommand_Operation_cancelled_by_user);
+							}
+						}
+					} finally {
+						out.close();
+					}
+				} finally {
+					in.close();
+				}
+				progress.end();
+			} finally {
+				target.disconnect();
+			}
+		} catch (SftpException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		} catch (IOException e) {
+			throw new RemoteConnectionException(e.getMessage());
+		} finally {
+			source.disconnect();
+		}
+	}
+}
@@ -16,17 +16,18 @@ import org.eclipse.osgi.util.NLS;
 public class Messages extends NLS {
 	private static final String BUNDLE_ID = "org.eclipse.remote.internal.jsch.core.messages.messages"; //$NON-NLS-1$
 
-	public static String AbstractRemoteCommand_format1;
-	public static String AbstractRemoteCommand_format2;
 	public static String AbstractRemoteCommand_Get_symlink_target;
 	public static String AbstractRemoteCommand_Operation_cancelled_by_user;
 	public static String AuthInfo_Authentication_message;
+	public static String BulkDeleteCommand_Could_not_delete;
+	public static String ChecksumCommand_Computing;
 	public static String ExecCommand_Exec_command;
 
 	public static String GetInputStreamCommand_Receiving;
 
 	public static String GetOutputStreamCommand_Sending;
 	public static String JSchConnection_0;
+	public static String JSchFileManager_Checksum_not_supported;
 
 	public static String JSchConnection_Connection_was_cancelled;
 	public static String JSchConnection_connectionNotOpen;
@@ -55,6 +56,12 @@ public class Messages extends NLS {
 
 	public static String JschFileStore_A_file_of_name_already_exists;
 	public static String JschFileStore_The_parent_of_directory_does_not_exist;
+	public static String PutInfosCommand_Failed;
+	public static String SegmentedTransferCommand_Verification_failed;
+	public static String TarDownloadCommand_Downloading;
+	public static String TarUploadCommand_File_changed;
+	public static String TarUploadCommand_Uploading;
+	public static String TransferCommand_Transferring;
 
 	static {
 		// load message values from bundle file
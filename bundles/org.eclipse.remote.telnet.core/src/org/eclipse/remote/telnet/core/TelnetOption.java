@@ -301,8 +301,7 @@ class TelnetOption implements TelnetCodes {
 	 *            True if this option is to be enabled, false otherwise.
 	 */
 	public void setEnabled(boolean newValue) {
-		Logger.log("Enabling " + (local ? "local" : "remote") + " option " + //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-				optionName());
+		Logger.log("Enabling {0} option {1}", local ? "local" : "remote", optionName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		enabled = newValue;
 	}
 
@@ -339,8 +338,7 @@ class TelnetOption implements TelnetCodes {
 	 */
 	public void setDesired(boolean newValue) {
 		if (newValue) {
-			Logger.log("Setting " + (local ? "local" : "remote") + " option " + //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-					optionName() + " as desired."); //$NON-NLS-1$
+			Logger.log("Setting {0} option {1} as desired.", local ? "local" : "remote", optionName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
 
 		desired = newValue;
@@ -356,10 +354,10 @@ class TelnetOption implements TelnetCodes {
 	public void negotiate() {
 		if (negotiationState == NEGOTIATION_NOT_STARTED && desired) {
 			if (local) {
-				Logger.log("Starting negotiation for local option " + optionName()); //$NON-NLS-1$
+				Logger.log("Starting negotiation for local option {0}", optionName()); //$NON-NLS-1$
 				sendWill();
 			} else {
-				Logger.log("Starting negotiation for remote option " + optionName()); //$NON-NLS-1$
+				Logger.log("Starting negotiation for remote option {0}", optionName()); //$NON-NLS-1$
 				sendDo();
 			}
 
@@ -383,7 +381,7 @@ class TelnetOption implements TelnetCodes {
 				// this negotiation.
 
 				enabled = true;
-				Logger.log("Enabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Enabling remote option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			} else {
 				// This should never happen! We sent DONT and the server replied with
@@ -392,7 +390,7 @@ class TelnetOption implements TelnetCodes {
 
 				Logger.log("Server answered DONT with WILL!"); //$NON-NLS-1$
 				enabled = false;
-				Logger.log("Disabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Disabling remote option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			}
 		} else {
@@ -402,7 +400,7 @@ class TelnetOption implements TelnetCodes {
 
 				sendDo();
 				enabled = true;
-				Logger.log("Enabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Enabling remote option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			} else {
 				// Server sent WILL, so we reply with DONT. Disable the option, and
@@ -410,7 +408,7 @@ class TelnetOption implements TelnetCodes {
 
 				sendDont();
 				enabled = false;
-				Logger.log("Disabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Disabling remote option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			}
 		}
@@ -432,7 +430,7 @@ class TelnetOption implements TelnetCodes {
 			// option, and end this negotiation.
 
 			enabled = false;
-			Logger.log("Disabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			Logger.log("Disabling remote option {0}.", optionName()); //$NON-NLS-1$
 			endNegotiation();
 		} else {
 			// Server sent WONT, so we reply with DONT. Disable the option, and
@@ -440,7 +438,7 @@ class TelnetOption implements TelnetCodes {
 
 			sendDont();
 			enabled = false;
-			Logger.log("Disabling remote option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			Logger.log("Disabling remote option {0}.", optionName()); //$NON-NLS-1$
 			endNegotiation();
 		}
 	}
@@ -460,7 +458,7 @@ class TelnetOption implements TelnetCodes {
 				// this negotiation.
 
 				enabled = true;
-				Logger.log("Enabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Enabling local option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			} else {
 				// We sent WONT and server replied with DO. This should never happen!
@@ -469,7 +467,7 @@ class TelnetOption implements TelnetCodes {
 
 				Logger.log("Server answered WONT with DO!"); //$NON-NLS-1$
 				enabled = false;
-				Logger.log("Disabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Disabling local option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			}
 		} else {
@@ -479,7 +477,7 @@ class TelnetOption implements TelnetCodes {
 
 				sendWill();
 				enabled = true;
-				Logger.log("Enabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Enabling local option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			} else {
 				// Server sent DO, so we reply with WONT. Disable the option, and end
@@ -487,7 +485,7 @@ class TelnetOption implements TelnetCodes {
 
 				sendWont();
 				enabled = false;
-				Logger.log("Disabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Disabling local option {0}.", optionName()); //$NON-NLS-1$
 				endNegotiation();
 			}
 		}
@@ -509,7 +507,7 @@ class TelnetOption implements TelnetCodes {
 			// option, and end this negotiation.
 
 			enabled = false;
-			Logger.log("Disabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			Logger.log("Disabling local option {0}.", optionName()); //$NON-NLS-1$
 			endNegotiation();
 		} else {
 			// Server sent DONT, so we reply with WONT. Disable the option, and end
@@ -517,7 +515,7 @@ class TelnetOption implements TelnetCodes {
 
 			sendWont();
 			enabled = false;
-			Logger.log("Disabling local option " + optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			Logger.log("Disabling local option {0}.", optionName()); //$NON-NLS-1$
 			endNegotiation();
 		}
 	}
@@ -540,8 +538,8 @@ class TelnetOption implements TelnetCodes {
 		case TELNET_OPTION_TERMINAL_TYPE:
 			if (subnegotiationData[1] != TELNET_SEND) {
 				// This should never happen!
-				Logger.log("Invalid TERMINAL-TYPE subnegotiation command from remote endpoint: " + //$NON-NLS-1$
-						(subnegotiationData[1] & 0xff));
+				Logger.log("Invalid TERMINAL-TYPE subnegotiation command from remote endpoint: {0}", //$NON-NLS-1$
+						subnegotiationData[1] & 0xff);
 				break;
 			}
 
@@ -563,7 +561,7 @@ class TelnetOption implements TelnetCodes {
 
 		default:
 			// This should never happen!
-			Logger.log("SHOULD NOT BE REACHED: Called for option " + optionName()); //$NON-NLS-1$
+			Logger.log("SHOULD NOT BE REACHED: Called for option {0}", optionName()); //$NON-NLS-1$
 			break;
 		}
 	}
@@ -594,8 +592,7 @@ class TelnetOption implements TelnetCodes {
 			NAWSData[5] = (byte) ((height >>> 8) & 0xff); // High order byte of height.
 			NAWSData[6] = (byte) (height & 0xff); // Low order byte of height.
 
-			Logger.log("sending terminal size to remote endpoint: width = " + width + //$NON-NLS-1$
-					", height = " + height + "."); //$NON-NLS-1$ //$NON-NLS-2$
+			Logger.log("sending terminal size to remote endpoint: width = {0}, height = {1}.", width, height); //$NON-NLS-1$
 
 			// This final local variable is a hack to get around the fact that inner
 			// classes cannot reference a non-final local variable in a lexically
@@ -624,7 +621,7 @@ class TelnetOption implements TelnetCodes {
 
 		default:
 			// This should never happen!
-			Logger.log("SHOULD NOT BE REACHED: Called for option " + optionName()); //$NON-NLS-1$
+			Logger.log("SHOULD NOT BE REACHED: Called for option {0}", optionName()); //$NON-NLS-1$
 			break;
 		}
 	}
@@ -644,8 +641,8 @@ class TelnetOption implements TelnetCodes {
 	 * negotiation terminated.
 	 */
 	protected void endNegotiation() {
-		Logger.log("Ending negotiation #" + negotiationCount + " for " + //$NON-NLS-1$ //$NON-NLS-2$
-				(local ? "local" : "remote") + " option " + optionName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Logger.log("Ending negotiation #{0} for {1} option {2}", negotiationCount, local ? "local" : "remote", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				optionName());
 		negotiationState = NEGOTIATION_DONE;
 		negotiationCompletionTime.setTime(System.currentTimeMillis());
 		++negotiationCount;
@@ -676,7 +673,7 @@ class TelnetOption implements TelnetCodes {
 	 * Sends a DO command to the remote endpoint for this option.
 	 */
 	protected void sendDo() {
-		Logger.log("Sending DO " + optionName()); //$NON-NLS-1$
+		Logger.log("Sending DO {0}", optionName()); //$NON-NLS-1$
 		sendCommand(TELNET_DO);
 	}
 
@@ -684,7 +681,7 @@ class TelnetOption implements TelnetCodes {
 	 * Sends a DONT command to the remote endpoint for this option.
 	 */
 	protected void sendDont() {
-		Logger.log("Sending DONT " + optionName()); //$NON-NLS-1$
+		Logger.log("Sending DONT {0}", optionName()); //$NON-NLS-1$
 		sendCommand(TELNET_DONT);
 	}
 
@@ -692,7 +689,7 @@ class TelnetOption implements TelnetCodes {
 	 * Sends a WILL command to the remote endpoint for this option.
 	 */
 	protected void sendWill() {
-		Logger.log("Sending WILL " + optionName()); //$NON-NLS-1$
+		Logger.log("Sending WILL {0}", optionName()); //$NON-NLS-1$
 		sendCommand(TELNET_WILL);
 	}
 
@@ -700,7 +697,7 @@ class TelnetOption implements TelnetCodes {
 	 * Sends a WONT command to the remote endpoint for this option.
 	 */
 	protected void sendWont() {
-		Logger.log("Sending WONT " + optionName()); //$NON-NLS-1$
+		Logger.log("Sending WONT {0}", optionName()); //$NON-NLS-1$
 		sendCommand(TELNET_WONT);
 	}
 
@@ -717,7 +714,7 @@ class TelnetOption implements TelnetCodes {
 		try {
 			outputStream.write(data);
 		} catch (IOException ex) {
-			Logger.log("IOException sending command " + command); //$NON-NLS-1$
+			Logger.log("IOException sending command {0}", command); //$NON-NLS-1$
 			Logger.logException(ex);
 		}
 	}
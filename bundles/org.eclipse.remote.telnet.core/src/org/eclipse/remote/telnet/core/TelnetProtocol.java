@@ -276,7 +276,7 @@ public class TelnetProtocol extends Thread implements TelnetCodes {
 	 * size.
 	 */
 	public void setTerminalSize(int newWidth, int newHeight) {
-		Logger.log("Setting new size: width = " + newWidth + ", height = " + newHeight); //$NON-NLS-1$ //$NON-NLS-2$
+		Logger.log("Setting new size: width = {0}, height = {1}", newWidth, newHeight); //$NON-NLS-1$
 		if (!isConnected() || !isRemoteTelnetServer()) {
 			return;
 		}
@@ -523,8 +523,7 @@ public class TelnetProtocol extends Thread implements TelnetCodes {
 
 				default:
 					// Unrecognized command! This should never happen.
-					Logger.log("processTelnetProtocol: UNRECOGNIZED TELNET PROTOCOL COMMAND: " + //$NON-NLS-1$
-							ubyte);
+					Logger.log("processTelnetProtocol: UNRECOGNIZED TELNET PROTOCOL COMMAND: {0}", ubyte); //$NON-NLS-1$
 					telnetState = STATE_INITIAL;
 					break;
 				}
@@ -535,36 +534,35 @@ public class TelnetProtocol extends Thread implements TelnetCodes {
 			// local options.
 
 			case STATE_WILL_RECEIVED:
-				Logger.log("Received WILL " + localOptions[ubyte].optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Received WILL {0}.", localOptions[ubyte].optionName()); //$NON-NLS-1$
 				remoteOptions[ubyte].handleWill();
 				telnetState = STATE_INITIAL;
 				telnetServerDetected();
 				break;
 
 			case STATE_WONT_RECEIVED:
-				Logger.log("Received WONT " + localOptions[ubyte].optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Received WONT {0}.", localOptions[ubyte].optionName()); //$NON-NLS-1$
 				remoteOptions[ubyte].handleWont();
 				telnetState = STATE_INITIAL;
 				telnetServerDetected();
 				break;
 
 			case STATE_DO_RECEIVED:
-				Logger.log("Received DO " + localOptions[ubyte].optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Received DO {0}.", localOptions[ubyte].optionName()); //$NON-NLS-1$
 				localOptions[ubyte].handleDo();
 				telnetState = STATE_INITIAL;
 				telnetServerDetected();
 				break;
 
 			case STATE_DONT_RECEIVED:
-				Logger.log("Received DONT " + localOptions[ubyte].optionName() + "."); //$NON-NLS-1$ //$NON-NLS-2$
+				Logger.log("Received DONT {0}.", localOptions[ubyte].optionName()); //$NON-NLS-1$
 				localOptions[ubyte].handleDont();
 				telnetState = STATE_INITIAL;
 				telnetServerDetected();
 				break;
 
 			case STATE_SUBNEGOTIATION_STARTED:
-				Logger.log("Starting subnegotiation for option " + //$NON-NLS-1$
-						localOptions[ubyte].optionName() + "."); //$NON-NLS-1$
+				Logger.log("Starting subnegotiation for option {0}.", localOptions[ubyte].optionName()); //$NON-NLS-1$
 
 				// First, zero out the array of received subnegotiation butes.
 
@@ -670,7 +668,9 @@ public class TelnetProtocol extends Thread implements TelnetCodes {
 					Logger.log("SUBNEGOTIATION BUFFER FULL!"); //$NON-NLS-1$
 					ignoreSubnegotiation = true;
 				} else {
-					Logger.log("Recording subnegotiation byte " + ubyte); //$NON-NLS-1$
+					if (Logger.isLogEnabled()) {
+						Logger.log("Recording subnegotiation byte {0}", ubyte); //$NON-NLS-1$
+					}
 
 					receivedSubnegotiation[nextSubnegotiationByteIndex++] = inputByte;
 				}
@@ -680,7 +680,7 @@ public class TelnetProtocol extends Thread implements TelnetCodes {
 				// This should _never_ happen! If it does, it means there is a
 				// bug in this FSA. For robustness, we return to the initial state.
 
-				Logger.log("INVALID TELNET STATE: " + telnetState); //$NON-NLS-1$
+				Logger.log("INVALID TELNET STATE: {0}", telnetState); //$NON-NLS-1$
 				telnetState = STATE_INITIAL;
 				break;
 			}
@@ -14,41 +14,42 @@
  *******************************************************************************/
 package org.eclipse.remote.telnet.internal.core;
 
-import java.io.FileOutputStream;
-import java.io.PrintStream;
 import java.util.Hashtable;
 
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
+import org.eclipse.remote.internal.core.RemoteTrace;
 import org.osgi.framework.BundleContext;
 
 /**
  * A simple logger class. Every method in this class is static, so they can be
- * called from both class and instance methods. To use this class, write code
- * like this:
+ * called from both class and instance methods. Messages are traced with
+ * {@link RemoteTrace} when the org.eclipse.remote.telnet.core/debug/log option
+ * is on. To use this class, write code like this:
  * <p>
  *
  * <pre>
  * Logger.log(&quot;something has happened&quot;);
- * Logger.log(&quot;counter is &quot; + counter);
+ * Logger.log(&quot;counter is {0}&quot;, counter);
  * </pre>
  *
+ * The message is only formatted if logging is enabled, but the arguments are
+ * still evaluated, so check {@link #isLogEnabled()} first where that costs
+ * something, e.g. for every byte received.
+ *
  * @author Fran Litterio <francis.litterio@windriver.com>
  * 
  */
 public final class Logger implements DebugOptionsListener {
 	public static final String TRACE_DEBUG_LOG = "org.eclipse.remote.telnet.core/debug/log"; //$NON-NLS-1$
-	public static final String TRACE_DEBUG_LOG_CHAR = "org.eclipse.remote.telnet.coredebug/log/char"; //$NON-NLS-1$
+	public static final String TRACE_DEBUG_LOG_CHAR = "org.eclipse.remote.telnet.core/debug/log/char"; //$NON-NLS-1$
 	public static final String TRACE_DEBUG_LOG_VT100BACKEND = "org.eclipse.remote.telnet.core/debug/log/VT100Backend"; //$NON-NLS-1$
 
-	private static PrintStream logStream;
-	private static Logger logger;
+	private static final RemoteTrace.Option LOG = RemoteTrace.getOption(TRACE_DEBUG_LOG);
 
-	private DebugOptions options;
+	private static Logger logger;
 
 	public static void configure(BundleContext context) {
 		if (logger == null) {
@@ -144,7 +145,7 @@ public final class Logger implements DebugOptionsListener {
 	 * @return true if logging is enabled.
 	 */
 	public static final boolean isLogEnabled() {
-		return (logStream != null);
+		return LOG.isEnabled();
 	}
 
 	/**
@@ -155,25 +156,27 @@ public final class Logger implements DebugOptionsListener {
 	 *            A String containing the message to log.
 	 */
 	public static final void log(String message) {
-		if (logStream != null) {
-			// Read my own stack to get the class name, method name, and line
-			// number of
-			// where this method was called.
-
-			StackTraceElement caller = new Throwable().getStackTrace()[1];
-			int lineNumber = caller.getLineNumber();
-			String className = caller.getClassName();
-			String methodName = caller.getMethodName();
-			className = className.substring(className.lastIndexOf('.') + 1);
+		RemoteTrace.trace(LOG, null, message);
+	}
 
-			logStream.println(className + "." + methodName + ":" + lineNumber + ": " + message); //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
-			logStream.flush();
-		}
+	/**
+	 * Logs a message with arguments. The message is formatted with
+	 * {@link org.eclipse.osgi.util.NLS#bind(String, Object[])} when it is
+	 * written.
+	 *
+	 * @param message
+	 *            A String containing the message to log, with {0}, {1}, ...
+	 *            for the arguments.
+	 * @param arguments
+	 *            the arguments of the message.
+	 */
+	public static final void log(String message, Object... arguments) {
+		RemoteTrace.trace(LOG, null, message, arguments);
 	}
 
 	/**
-	 * Writes a stack trace for an exception to both Standard Error and to the
-	 * log file.
+	 * Writes an exception to the error log, and traces it if logging is
+	 * enabled.
 	 */
 	public static final void logException(Exception ex) {
 		// log in eclipse error log
@@ -182,56 +185,11 @@ public final class Logger implements DebugOptionsListener {
 		} else {
 			ex.printStackTrace();
 		}
-		// Additional Tracing for debug purposes:
-		// Read my own stack to get the class name, method name, and line number
-		// of where this method was called
-		if (logStream != null) {
-			StackTraceElement caller = new Throwable().getStackTrace()[1];
-			int lineNumber = caller.getLineNumber();
-			String className = caller.getClassName();
-			String methodName = caller.getMethodName();
-			className = className.substring(className.lastIndexOf('.') + 1);
-
-			PrintStream tmpStream = System.err;
-
-			if (logStream != null) {
-				tmpStream = logStream;
-			}
-
-			tmpStream.println(className + "." + methodName + ":" + lineNumber + ": " + //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
-					"Caught exception: " + ex); //$NON-NLS-1$
-			ex.printStackTrace(tmpStream);
-		}
+		RemoteTrace.trace(LOG, null, "Caught exception: {0}", ex); //$NON-NLS-1$
 	}
 
 	@Override
 	public void optionsChanged(DebugOptions options) {
-		this.options = options;
-
-		// Any of the three known debugging options turns on the creation of the log file
-		boolean createLogFile = isOptionEnabled(TRACE_DEBUG_LOG) || isOptionEnabled(TRACE_DEBUG_LOG_CHAR)
-				|| isOptionEnabled(TRACE_DEBUG_LOG_VT100BACKEND);
-
-		// Log only if tracing is enabled
-		if (createLogFile && Activator.getDefault() != null) {
-			IPath logFile = Platform.getStateLocation(Activator.getDefault().getBundle());
-			if (logFile != null && logFile.toFile().isDirectory()) {
-				logFile = logFile.append("tmterminal.log"); //$NON-NLS-1$
-				try {
-					logStream = new PrintStream(new FileOutputStream(logFile.toFile(), true));
-				} catch (Exception ex) {
-					logStream = System.err;
-					logStream.println("Exception when opening log file -- logging to stderr!"); //$NON-NLS-1$
-					ex.printStackTrace(logStream);
-				}
-			}
-		}
-	}
-
-	public boolean isOptionEnabled(String option) {
-		if (options == null) {
-			return false;
-		}
-		return options.getBooleanOption(Activator.PLUGIN_ID + option, false);
+		RemoteTrace.optionsChanged(options);
 	}
 }
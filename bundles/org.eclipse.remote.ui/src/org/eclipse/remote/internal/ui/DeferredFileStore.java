@@ -26,6 +26,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.ui.dialogs.FileSystemElement;
 import org.eclipse.ui.model.IWorkbenchAdapter;
 import org.eclipse.ui.progress.IDeferredWorkbenchAdapter;
@@ -70,7 +71,7 @@ public class DeferredFileStore implements IDeferredWorkbenchAdapter, IAdaptable
 	public void fetchDeferredChildren(Object object, IElementCollector collector, IProgressMonitor monitor) {
 		ArrayList<DeferredFileStore> children = new ArrayList<DeferredFileStore>();
 		try {
-			IFileInfo[] childInfos = fFileStore.childInfos(EFS.NONE, monitor);
+			IFileInfo[] childInfos = fFileStore.childInfos(getListOptions(), monitor);
 			for (IFileInfo info : childInfos) {
 				if (!(fExcludeHidden && info.getName().startsWith("."))) { //$NON-NLS-1$
 					children.add(new DeferredFileStore(fFileStore.getChild(info.getName()), info, fExcludeHidden, this));
@@ -85,6 +86,14 @@ public class DeferredFileStore implements IDeferredWorkbenchAdapter, IAdaptable
 		collector.done();
 	}
 
+	/*
+	 * Let stores that support it drop hidden entries before building their file info. They are still filtered here for
+	 * stores that don't.
+	 */
+	private int getListOptions() {
+		return fExcludeHidden ? IRemoteFileService.EXCLUDE_HIDDEN : EFS.NONE;
+	}
+
 	/**
 	 * Fetch the file info for the store. If the store is a symbolic link, fetch the file info for the target as well.
 	 */
@@ -185,7 +194,7 @@ public class DeferredFileStore implements IDeferredWorkbenchAdapter, IAdaptable
 	@Override
 	public Object[] getChildren(Object o) {
 		try {
-			IFileStore[] stores = fFileStore.childStores(EFS.NONE, null);
+			IFileStore[] stores = fFileStore.childStores(getListOptions(), null);
 			List<DeferredFileStore> def = new ArrayList<DeferredFileStore>();
 			for (int i = 0; i < stores.length; i++) {
 				if (!(fExcludeHidden && stores[i].getName().startsWith("."))) { //$NON-NLS-1$
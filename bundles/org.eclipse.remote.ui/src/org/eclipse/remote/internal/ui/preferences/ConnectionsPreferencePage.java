@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.remote.internal.ui.preferences;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -443,7 +444,7 @@ public class ConnectionsPreferencePage extends PreferencePage implements IWorkbe
 
 	private void initWorkingConnections() {
 		fWorkingCopies.clear();
-		for (IRemoteConnection conn : fConnectionType.getConnections()) {
+		for (IRemoteConnection conn : fConnectionType.getConnections("", 0, -1)) { //$NON-NLS-1$
 			fWorkingCopies.put(conn.getName(), conn);
 		}
 	}
@@ -564,7 +565,7 @@ public class ConnectionsPreferencePage extends PreferencePage implements IWorkbe
 		/*
 		 * Remove any deleted connections
 		 */
-		for (IRemoteConnection conn : fConnectionType.getConnections()) {
+		for (IRemoteConnection conn : fConnectionType.getConnections("", 0, -1)) { //$NON-NLS-1$
 			if (!fWorkingCopies.containsKey(conn.getName())
 					&& (!conn.hasService(IRemoteConnectionControlService.class) || !conn.isOpen())) {
 				try {
@@ -577,18 +578,20 @@ public class ConnectionsPreferencePage extends PreferencePage implements IWorkbe
 		/*
 		 * Save any added/edited connections
 		 */
+		List<IRemoteConnectionWorkingCopy> dirty = new ArrayList<>();
 		for (IRemoteConnection conn : fWorkingCopies.values()) {
 			if (conn instanceof IRemoteConnectionWorkingCopy) {
 				IRemoteConnectionWorkingCopy wc = (IRemoteConnectionWorkingCopy) conn;
 				if (wc.isDirty()) {
-					try {
-						wc.save();
-					} catch (RemoteConnectionException e) {
-						RemoteUIPlugin.log(e);
-					}
+					dirty.add(wc);
 				}
 			}
 		}
+		try {
+			RemoteUIPlugin.getService(IRemoteServicesManager.class).saveConnections(dirty);
+		} catch (RemoteConnectionException e) {
+			RemoteUIPlugin.log(e);
+		}
 		initWorkingConnections();
 	}
 
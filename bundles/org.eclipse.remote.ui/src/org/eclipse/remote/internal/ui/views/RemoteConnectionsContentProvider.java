@@ -10,14 +10,16 @@
  *******************************************************************************/
 package org.eclipse.remote.internal.ui.views;
 
+import java.util.List;
+
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionChangeBatchListener;
 import org.eclipse.remote.core.RemoteConnectionChangeEvent;
-import org.eclipse.remote.core.IRemoteConnectionChangeListener;
 import org.eclipse.remote.core.IRemoteServicesManager;
 
-public class RemoteConnectionsContentProvider implements ITreeContentProvider, IRemoteConnectionChangeListener {
+public class RemoteConnectionsContentProvider implements ITreeContentProvider, IRemoteConnectionChangeBatchListener {
 
 	private IRemoteServicesManager remoteServicesManager;
 	private Viewer viewer;
@@ -37,13 +39,30 @@ public class RemoteConnectionsContentProvider implements ITreeContentProvider, I
 		}
 	}
 
+	@Override
+	public void connectionsChanged(List<RemoteConnectionChangeEvent> events) {
+		// One refresh for the whole burst of changes
+		refresh();
+	}
+
 	@Override
 	public void connectionChanged(RemoteConnectionChangeEvent event) {
+		refresh();
+	}
+
+	private void refresh() {
+		// Events are delivered asynchronously, so the viewer may have been disposed in the meantime
+		final Viewer viewer = this.viewer;
+		if (viewer == null || viewer.getControl() == null || viewer.getControl().isDisposed()) {
+			return;
+		}
 		// Refresh the viewer on the UI thread
 		viewer.getControl().getDisplay().asyncExec(new Runnable() {
 			@Override
 			public void run() {
-				viewer.refresh();
+				if (!viewer.getControl().isDisposed()) {
+					viewer.refresh();
+				}
 			}
 		});
 	}
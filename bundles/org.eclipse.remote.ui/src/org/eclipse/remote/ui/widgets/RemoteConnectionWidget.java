@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.remote.ui.widgets;
 
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
@@ -503,15 +501,7 @@ public class RemoteConnectionWidget extends Composite {
 				int selected = 0;
 				int offset = 1;
 
-				List<IRemoteConnection> sorted = selectedConnectionType.getConnections();
-				Collections.sort(sorted, new Comparator<IRemoteConnection>() {
-					@Override
-					public int compare(IRemoteConnection o1, IRemoteConnection o2) {
-						return o1.getName().compareTo(o2.getName());
-					}
-				});
-
-				for (IRemoteConnection s : sorted) {
+				for (IRemoteConnection s : selectedConnectionType.getConnections("", 0, -1)) { //$NON-NLS-1$
 					fConnectionCombo.add(s.getName());
 					if (conn != null && s.getName().equals(conn.getName())) {
 						selected = offset;
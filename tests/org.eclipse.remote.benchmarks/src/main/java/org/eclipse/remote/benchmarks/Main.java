@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the JMH command line, writing the results as JSON to <code>jmh-result.json</code> unless
+ * another result format or file is given (<code>-rf</code>, <code>-rff</code>), so the results of different releases can
+ * be compared.
+ */
+public class Main {
+	private static final String RESULT_FORMAT = "-rf"; //$NON-NLS-1$
+	private static final String RESULT_FILE = "-rff"; //$NON-NLS-1$
+
+	public static void main(String[] args) throws Exception {
+		List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		if (!arguments.contains(RESULT_FORMAT)) {
+			arguments.add(RESULT_FORMAT);
+			arguments.add("json"); //$NON-NLS-1$
+		}
+		if (!arguments.contains(RESULT_FILE)) {
+			arguments.add(RESULT_FILE);
+			arguments.add("jmh-result.json"); //$NON-NLS-1$
+		}
+		org.openjdk.jmh.Main.main(arguments.toArray(new String[arguments.size()]));
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.remote.internal.core.RemotePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The path operations done by JschFileStore while crawling a remote file system, comparing {@link RemotePath} against
+ * <code>org.eclipse.core.runtime.Path</code>, the implementation it was copied from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RemotePathBenchmark {
+	private static final String[] NAMES = { "src", "main", "java", "org", "eclipse", "remote", "internal", "core", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+			"RemotePath.java", "Makefile" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Param({ "path", "remotePath" })
+	public String implementation;
+
+	@Param({ "3", "12" })
+	public int depth;
+
+	private String pathString;
+	private IPath path;
+	private int next;
+
+	@Setup
+	public void setup() {
+		StringBuilder builder = new StringBuilder("/home/user"); //$NON-NLS-1$
+		for (int i = 2; i < depth; i++) {
+			builder.append('/').append(NAMES[i % NAMES.length]);
+		}
+		pathString = builder.toString();
+		path = parse(pathString);
+	}
+
+	private IPath parse(String string) {
+		return "path".equals(implementation) ? Path.forPosix(string) : RemotePath.forPosix(string); //$NON-NLS-1$
+	}
+
+	private String nextName() {
+		next = (next + 1) % NAMES.length;
+		return NAMES[next];
+	}
+
+	@Benchmark
+	public IPath parse() {
+		return parse(pathString);
+	}
+
+	@Benchmark
+	public IPath append() {
+		return path.append(nextName());
+	}
+
+	@Benchmark
+	public IPath parent() {
+		return path.removeLastSegments(1);
+	}
+
+	@Benchmark
+	public String toStringCached() {
+		return path.toString();
+	}
+
+	@Benchmark
+	public int hashCodeOfChild() {
+		return path.append(nextName()).hashCode();
+	}
+
+	/**
+	 * JschFileStore.getChild: the string of a new child path.
+	 */
+	@Benchmark
+	public String childString() {
+		return path.append(nextName()).toString();
+	}
+
+	/**
+	 * JschFileStore.getParent: the string of the parent path.
+	 */
+	@Benchmark
+	public String parentString() {
+		return path.removeLastSegments(1).toString();
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.remote.internal.core.ServiceCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Service resolution as done by RemoteConnection.getService, comparing {@link ServiceCache} against the synchronized map
+ * lookup it replaced, with one thread and under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceCacheBenchmark {
+	private static final Class<?>[] SERVICES = { Runnable.class, Comparable.class, CharSequence.class, Iterable.class,
+			AutoCloseable.class, Cloneable.class };
+
+	private ServiceCache<Class<?>, Object> cache;
+	private Map<Class<?>, Object> map;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+
+		Class<?> nextService() {
+			next = (next + 1) % SERVICES.length;
+			return SERVICES[next];
+		}
+	}
+
+	@Setup
+	public void setup() {
+		cache = new ServiceCache<Class<?>, Object>() {
+			@Override
+			protected Object create(Class<?> key) {
+				return new Object();
+			}
+		};
+		map = new HashMap<>();
+		for (Class<?> service : SERVICES) {
+			cache.get(service);
+			map.put(service, new Object());
+		}
+	}
+
+	private Object synchronizedGet(Class<?> service) {
+		synchronized (map) {
+			Object obj = map.get(service);
+			if (obj == null) {
+				obj = new Object();
+				map.put(service, obj);
+			}
+			return obj;
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object cache(Cursor cursor) {
+		return cache.get(cursor.nextService());
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object cacheContended(Cursor cursor) {
+		return cache.get(cursor.nextService());
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object synchronizedMap(Cursor cursor) {
+		return synchronizedGet(cursor.nextService());
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object synchronizedMapContended(Cursor cursor) {
+		return synchronizedGet(cursor.nextService());
+	}
+
+	/**
+	 * Creating the services of a new connection: every lookup misses once.
+	 */
+	@Benchmark
+	@Threads(1)
+	public Object cacheCold() {
+		ServiceCache<Class<?>, Object> coldCache = new ServiceCache<Class<?>, Object>() {
+			@Override
+			protected Object create(Class<?> key) {
+				return new Object();
+			}
+		};
+		Object last = null;
+		for (Class<?> service : SERVICES) {
+			last = coldCache.get(service);
+		}
+		return last;
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.jsch.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the command lines sent to the remote host: the escaping and preamble of {@link JSchProcessBuilder} and the
+ * tokenizing and escaping of {@link ArgumentParser}. The benchmark lives in the provider package because the
+ * JSchProcessBuilder helpers are package private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandLineBenchmark {
+	private static final List<String> COMMAND = Arrays.asList("make", "-C", "/home/user/my project", "CFLAGS=-O2 -g", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"all", "it's"); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final List<String> ENVIRONMENT = Arrays.asList("PATH=/usr/local/bin:/usr/bin:/bin", "LANG=C", //$NON-NLS-1$ //$NON-NLS-2$
+			"PROJECT_HOME=/home/user/my project"); //$NON-NLS-1$
+	private static final String LOGIN_SHELL = "/bin/bash -l -c '{0}'"; //$NON-NLS-1$
+	private static final String COMMAND_LINE = "make -C \"/home/user/my project\" 'CFLAGS=-O2 -g' all it\\'s > build.log"; //$NON-NLS-1$
+
+	@Benchmark
+	public String processBuilderCommandLine() {
+		return JSchProcessBuilder.buildCommandLine(COMMAND);
+	}
+
+	/**
+	 * The full command for an exec channel: escaped arguments, working directory, environment and login shell.
+	 */
+	@Benchmark
+	public String processBuilderCommand() {
+		return JSchProcessBuilder.buildCommand(JSchProcessBuilder.buildCommandLine(COMMAND), true, "/home/user/my project", //$NON-NLS-1$
+				ENVIRONMENT, false, LOGIN_SHELL);
+	}
+
+	@Benchmark
+	public List<String> argumentParserTokenize() {
+		return new ArgumentParser(COMMAND_LINE).getTokenList();
+	}
+
+	@Benchmark
+	public String argumentParserCommandLine() {
+		return new ArgumentParser(COMMAND).getCommandLine(true);
+	}
+}
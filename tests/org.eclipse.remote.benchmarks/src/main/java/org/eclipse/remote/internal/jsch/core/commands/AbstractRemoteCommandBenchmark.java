@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.internal.jsch.core.commands;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.remote.internal.jsch.core.commands.AbstractRemoteCommand.CommandProgressMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jcraft.jsch.SftpProgressMonitor;
+
+/**
+ * The helpers every JSch command uses: quoting paths for the shell and reporting transfer progress. The benchmark lives
+ * in the commands package because both are only visible to commands.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbstractRemoteCommandBenchmark {
+	private static class QuoteCommand extends AbstractRemoteCommand<Void> {
+		QuoteCommand() {
+			super(null);
+		}
+
+		@Override
+		protected Void getResult(IProgressMonitor monitor) {
+			return null;
+		}
+	}
+
+	@Param({ "/home/user/workspace/project/src/main.c", "/home/user/My Documents/report (final) [v2].txt" })
+	public String path;
+
+	private QuoteCommand command;
+	private CommandProgressMonitor progress;
+
+	@Setup
+	public void setup() {
+		command = new QuoteCommand();
+		progress = new CommandProgressMonitor("Downloading ", new NullProgressMonitor()); //$NON-NLS-1$
+		progress.init(SftpProgressMonitor.GET, path, "/tmp/file", Long.MAX_VALUE); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public String quote() {
+		return command.quote(path, false);
+	}
+
+	@Benchmark
+	public String quoteFull() {
+		return command.quote(path, true);
+	}
+
+	/**
+	 * One call per block of data transferred by sftp (32KB).
+	 */
+	@Benchmark
+	public boolean progressCount() {
+		return progress.count(32768);
+	}
+}
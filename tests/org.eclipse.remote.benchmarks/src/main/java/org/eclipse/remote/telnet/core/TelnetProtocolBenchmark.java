@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.telnet.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TelnetProtocol#processTelnetProtocol(int)} on a full buffer of data received from the server. The benchmark
+ * lives in the telnet package because the method is protected.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TelnetProtocolBenchmark {
+	/**
+	 * A socket that is never connected; the protocol only needs its streams.
+	 */
+	private static class NullSocket extends Socket {
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return new OutputStream() {
+				@Override
+				public void write(int b) {
+					// discard
+				}
+			};
+		}
+	}
+
+	private static class Protocol extends TelnetProtocol {
+		Protocol() throws IOException {
+			super(new NullSocket(), null);
+		}
+
+		void fill(byte[] data) {
+			rawBytes.clear();
+			rawBytes.put(data);
+		}
+
+		int process(int count) {
+			return processTelnetProtocol(count);
+		}
+	}
+
+	/**
+	 * text: terminal output without TELNET commands; binary: random bytes with every 0xff doubled; commands: text with a
+	 * NOP or GA command every 16 bytes.
+	 */
+	@Param({ "text", "binary", "commands" })
+	public String data;
+
+	private Protocol protocol;
+	private int count;
+
+	@Setup
+	public void setup() throws IOException {
+		byte[] bytes = new byte[TelnetProtocol.BUFFER_SIZE];
+		Random random = new Random(0);
+		count = 0;
+		while (count < bytes.length - 1) {
+			if ("binary".equals(data)) { //$NON-NLS-1$
+				byte b = (byte) random.nextInt(256);
+				bytes[count++] = b;
+				if (b == TelnetCodes.TELNET_IAC) {
+					bytes[count++] = b;
+				}
+			} else if ("commands".equals(data) && count % 16 == 15) { //$NON-NLS-1$
+				bytes[count++] = TelnetCodes.TELNET_IAC;
+				bytes[count++] = random.nextBoolean() ? TelnetCodes.TELNET_NOP : TelnetCodes.TELNET_GA;
+			} else {
+				bytes[count++] = (byte) (' ' + random.nextInt(95));
+			}
+		}
+		protocol = new Protocol();
+		byte[] filled = new byte[count];
+		System.arraycopy(bytes, 0, filled, 0, count);
+		protocol.fill(filled);
+	}
+
+	@Benchmark
+	public int processTelnetProtocol() {
+		return protocol.process(count);
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.core.tests.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.remote.core.IRemoteBulkFileService;
+import org.eclipse.remote.internal.core.RemoteChecksums;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the checksums against the values printed by sha256sum, md5sum and xxhsum.
+ */
+public class RemoteChecksumsTests extends TestCase {
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	private static byte[] pattern(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i % 251);
+		}
+		return data;
+	}
+
+	private static String digest(String algorithm, byte[] data) throws NoSuchAlgorithmException {
+		return RemoteChecksums.toHex(RemoteChecksums.getDigest(algorithm).digest(data));
+	}
+
+	private static String digest(String algorithm, String data) throws NoSuchAlgorithmException {
+		return digest(algorithm, data.getBytes(UTF8));
+	}
+
+	public void testXXHash() throws NoSuchAlgorithmException {
+		assertEquals("ef46db3751d8e999", digest(IRemoteBulkFileService.XXHASH, "")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("d24ec4f1a98c6e5b", digest(IRemoteBulkFileService.XXHASH, "a")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("44bc2cf5ad770999", digest(IRemoteBulkFileService.XXHASH, "abc")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("fbcea83c8a378bf1", //$NON-NLS-1$
+				digest(IRemoteBulkFileService.XXHASH, "Nobody inspects the spammish repetition")); //$NON-NLS-1$
+		assertEquals("f306f04aa88b54d3", digest(IRemoteBulkFileService.XXHASH, pattern(1000))); //$NON-NLS-1$
+	}
+
+	public void testXXHashUpdates() throws NoSuchAlgorithmException {
+		// Feeding the data in pieces that don't line up with the 32 byte stripes must give the same hash
+		byte[] data = pattern(1000);
+		for (int chunk : new int[] { 1, 3, 7, 31, 33, 100 }) {
+			MessageDigest digest = RemoteChecksums.getDigest(IRemoteBulkFileService.XXHASH);
+			for (int pos = 0; pos < data.length; pos += chunk) {
+				digest.update(data, pos, Math.min(chunk, data.length - pos));
+			}
+			assertEquals("f306f04aa88b54d3", RemoteChecksums.toHex(digest.digest())); //$NON-NLS-1$
+		}
+	}
+
+	public void testXXHashReset() throws NoSuchAlgorithmException {
+		MessageDigest digest = RemoteChecksums.getDigest(IRemoteBulkFileService.XXHASH);
+		digest.update(pattern(100));
+		digest.digest();
+		digest.update("abc".getBytes(UTF8)); //$NON-NLS-1$
+		assertEquals("44bc2cf5ad770999", RemoteChecksums.toHex(digest.digest())); //$NON-NLS-1$
+	}
+
+	public void testSha256AndMd5() throws NoSuchAlgorithmException {
+		assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", //$NON-NLS-1$
+				digest(IRemoteBulkFileService.SHA256, "abc")); //$NON-NLS-1$
+		assertEquals("900150983cd24fb0d6963f7d28e17f72", digest(IRemoteBulkFileService.MD5, "abc")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testUnknownAlgorithm() {
+		try {
+			RemoteChecksums.getDigest("crc32"); //$NON-NLS-1$
+			fail();
+		} catch (NoSuchAlgorithmException e) {
+			// expected
+		}
+	}
+
+	public void testFile() throws IOException {
+		File file = File.createTempFile("checksum", null); //$NON-NLS-1$
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			try {
+				// Larger than the read buffer
+				out.write(pattern(200000));
+			} finally {
+				out.close();
+			}
+			MessageDigest digest;
+			try {
+				digest = RemoteChecksums.getDigest(IRemoteBulkFileService.XXHASH);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IOException(e.getMessage());
+			}
+			String expected = RemoteChecksums.toHex(digest.digest(pattern(200000)));
+			assertEquals(expected, RemoteChecksums.checksum(file, IRemoteBulkFileService.XXHASH));
+		} finally {
+			file.delete();
+		}
+	}
+}
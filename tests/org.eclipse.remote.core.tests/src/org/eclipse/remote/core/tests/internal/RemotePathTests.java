@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.core.tests.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.remote.internal.core.RemotePath;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that RemotePath behaves exactly like the implementation it replaced ({@link ReferencePath}) for randomly
+ * generated paths and sequences of operations. The random seed is fixed so failures can be reproduced.
+ */
+public class RemotePathTests extends TestCase {
+	private static final long SEED = 0x5eed2015L;
+	private static final int RUNS = 2000;
+	private static final int OPERATIONS = 20;
+
+	private static final String[] PARTS = { "", "/", "//", "a", "bc", "a.b", "x.txt", ".hidden", ".", "..", "c:", "a:b", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$
+			"\\", " ", "a b" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	private static final String[] SEGMENTS = { "a", "bc", "x.txt", ".hidden", ".", "..", "", "a:b", "d/e", "f\\g" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+
+	private Random random;
+
+	private String randomPath() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = random.nextInt(8); i > 0; i--) {
+			builder.append(PARTS[random.nextInt(PARTS.length)]);
+		}
+		return builder.toString();
+	}
+
+	private String randomSegment() {
+		return SEGMENTS[random.nextInt(SEGMENTS.length)];
+	}
+
+	private void assertEquivalent(String context, IPath expected, IPath actual) {
+		assertEquals(context, expected.toString(), actual.toString());
+		assertEquals(context, expected.toPortableString(), actual.toPortableString());
+		assertEquals(context, expected.toOSString(), actual.toOSString());
+		assertEquals(context, expected.getDevice(), actual.getDevice());
+		assertEquals(context, expected.segmentCount(), actual.segmentCount());
+		assertTrue(context, Arrays.equals(expected.segments(), actual.segments()));
+		for (int i = 0; i <= expected.segmentCount(); i++) {
+			assertEquals(context, expected.segment(i), actual.segment(i));
+		}
+		assertEquals(context, expected.lastSegment(), actual.lastSegment());
+		assertEquals(context, expected.getFileExtension(), actual.getFileExtension());
+		assertEquals(context, expected.isAbsolute(), actual.isAbsolute());
+		assertEquals(context, expected.isEmpty(), actual.isEmpty());
+		assertEquals(context, expected.isRoot(), actual.isRoot());
+		assertEquals(context, expected.isUNC(), actual.isUNC());
+		assertEquals(context, expected.hasTrailingSeparator(), actual.hasTrailingSeparator());
+		assertEquals(context, expected.hashCode(), actual.hashCode());
+		assertEquals(context, expected.equals(ReferencePath.forPosix(expected.toString())),
+				actual.equals(RemotePath.forPosix(actual.toString())));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		random = new Random(SEED);
+	}
+
+	public void testParse() {
+		for (int run = 0; run < RUNS; run++) {
+			String path = randomPath();
+			assertEquivalent(path, ReferencePath.forPosix(path), RemotePath.forPosix(path));
+			assertEquivalent(path, ReferencePath.forWindows(path), RemotePath.forWindows(path));
+			assertEquivalent(path, ReferencePath.fromPortableString(path), RemotePath.fromPortableString(path));
+			assertEquivalent(path, new ReferencePath(path), new RemotePath(path));
+			assertEquals(path, ReferencePath.isValidPosixPath(path), RemotePath.isValidPosixPath(path));
+			assertEquals(path, ReferencePath.isValidWindowsPath(path), RemotePath.isValidWindowsPath(path));
+		}
+	}
+
+	public void testOperations() {
+		List<IPath> expectedHistory = new ArrayList<IPath>();
+		List<IPath> actualHistory = new ArrayList<IPath>();
+		for (int run = 0; run < RUNS; run++) {
+			String start = randomPath();
+			IPath expected = ReferencePath.forPosix(start);
+			IPath actual = RemotePath.forPosix(start);
+			StringBuilder context = new StringBuilder(start);
+			for (int op = 0; op < OPERATIONS; op++) {
+				int count = random.nextInt(expected.segmentCount() + 2);
+				switch (random.nextInt(12)) {
+				case 0:
+				case 1:
+					String segment = randomSegment();
+					context.append(" append(").append(segment).append(')'); //$NON-NLS-1$
+					expected = expected.append(segment);
+					actual = actual.append(segment);
+					break;
+				case 2:
+					String tail = randomPath();
+					context.append(" append(path ").append(tail).append(')'); //$NON-NLS-1$
+					expected = expected.append(ReferencePath.forPosix(tail));
+					actual = actual.append(RemotePath.forPosix(tail));
+					break;
+				case 3:
+				case 4:
+					context.append(" removeLastSegments(").append(count).append(')'); //$NON-NLS-1$
+					expected = expected.removeLastSegments(count);
+					actual = actual.removeLastSegments(count);
+					break;
+				case 5:
+					context.append(" removeFirstSegments(").append(count).append(')'); //$NON-NLS-1$
+					expected = expected.removeFirstSegments(count);
+					actual = actual.removeFirstSegments(count);
+					break;
+				case 6:
+					context.append(" uptoSegment(").append(count).append(')'); //$NON-NLS-1$
+					expected = expected.uptoSegment(count);
+					actual = actual.uptoSegment(count);
+					break;
+				case 7:
+					boolean add = random.nextBoolean();
+					context.append(add ? " addTrailingSeparator" : " removeTrailingSeparator"); //$NON-NLS-1$ //$NON-NLS-2$
+					expected = add ? expected.addTrailingSeparator() : expected.removeTrailingSeparator();
+					actual = add ? actual.addTrailingSeparator() : actual.removeTrailingSeparator();
+					break;
+				case 8:
+					boolean absolute = random.nextBoolean();
+					context.append(absolute ? " makeAbsolute" : " makeRelative"); //$NON-NLS-1$ //$NON-NLS-2$
+					expected = absolute ? expected.makeAbsolute() : expected.makeRelative();
+					actual = absolute ? actual.makeAbsolute() : actual.makeRelative();
+					break;
+				case 9:
+					boolean unc = random.nextBoolean();
+					String device = random.nextBoolean() ? null : "c:"; //$NON-NLS-1$
+					context.append(" makeUNC(").append(unc).append(") setDevice(").append(device).append(')'); //$NON-NLS-1$ //$NON-NLS-2$
+					expected = expected.makeUNC(unc).setDevice(device);
+					actual = actual.makeUNC(unc).setDevice(device);
+					break;
+				case 10:
+					boolean extension = random.nextBoolean();
+					context.append(extension ? " addFileExtension" : " removeFileExtension"); //$NON-NLS-1$ //$NON-NLS-2$
+					expected = extension ? expected.addFileExtension("ext") : expected.removeFileExtension(); //$NON-NLS-1$
+					actual = extension ? actual.addFileExtension("ext") : actual.removeFileExtension(); //$NON-NLS-1$
+					break;
+				default:
+					String base = randomPath();
+					context.append(" makeRelativeTo(").append(base).append(')'); //$NON-NLS-1$
+					expected = expected.makeRelativeTo(ReferencePath.forPosix(base));
+					actual = actual.makeRelativeTo(RemotePath.forPosix(base));
+					break;
+				}
+				assertEquivalent(context.toString(), expected, actual);
+				expectedHistory.add(expected);
+				actualHistory.add(actual);
+			}
+		}
+		// paths share segment arrays, so check that deriving paths didn't change earlier ones
+		for (int i = 0; i < expectedHistory.size(); i++) {
+			assertEquivalent(expectedHistory.get(i).toString(), expectedHistory.get(i), actualHistory.get(i));
+		}
+	}
+
+	public void testComparisons() {
+		for (int run = 0; run < RUNS; run++) {
+			String first = randomPath();
+			String second = random.nextInt(4) == 0 ? first : randomPath();
+			String context = first + " / " + second; //$NON-NLS-1$
+			IPath expected1 = ReferencePath.forPosix(first);
+			IPath expected2 = ReferencePath.forPosix(second);
+			IPath actual1 = RemotePath.forPosix(first);
+			IPath actual2 = RemotePath.forPosix(second);
+			int count = random.nextInt(expected1.segmentCount() + 1);
+			// a shortened path shares its array with the original
+			expected1 = expected1.removeLastSegments(count);
+			actual1 = actual1.removeLastSegments(count);
+			assertEquals(context, expected1.equals(expected2), actual1.equals(actual2));
+			assertEquals(context, expected1.isPrefixOf(expected2), actual1.isPrefixOf(actual2));
+			assertEquals(context, expected1.matchingFirstSegments(expected2), actual1.matchingFirstSegments(actual2));
+			assertEquivalent(context, expected1.makeRelativeTo(expected2), actual1.makeRelativeTo(actual2));
+			assertEquivalent(context, expected2.append(expected1), actual2.append(actual1));
+		}
+	}
+}
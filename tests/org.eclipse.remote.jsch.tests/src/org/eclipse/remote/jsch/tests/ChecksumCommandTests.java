@@ -0,0 +1,56 @@
+package org.eclipse.remote.jsch.tests;
+
+import java.util.Arrays;
+
+import org.eclipse.remote.internal.jsch.core.commands.ChecksumCommand;
+
+import junit.framework.TestCase;
+
+public class ChecksumCommandTests extends TestCase {
+	private static final String SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+	private static void assertParsed(String checksum, String name, String line) {
+		String[] parsed = ChecksumCommand.parseLine(line);
+		assertNotNull(line, parsed);
+		assertEquals(Arrays.asList(checksum, name), Arrays.asList(parsed));
+	}
+
+	public void testPlainName() {
+		assertParsed(SHA256, "/tmp/dir/file name", SHA256 + "  /tmp/dir/file name");
+		assertParsed("44bc2cf5ad770999", "relative", "44BC2CF5AD770999  relative");
+	}
+
+	public void testBinaryMode() {
+		assertParsed(SHA256, "/tmp/file", SHA256 + " */tmp/file");
+	}
+
+	public void testNameWithLeadingSpaces() {
+		assertParsed(SHA256, "  spaces", SHA256 + "    spaces");
+	}
+
+	public void testEscapedNewline() {
+		assertParsed(SHA256, "/tmp/a\nb", "\\" + SHA256 + "  /tmp/a\\nb");
+	}
+
+	public void testEscapedBackslash() {
+		assertParsed(SHA256, "/tmp/a\\b", "\\" + SHA256 + "  /tmp/a\\\\b");
+	}
+
+	public void testEscapedBackslashBeforeN() {
+		// "a\\nb" is a backslash followed by 'n', not a newline
+		assertParsed(SHA256, "/tmp/a\\nb", "\\" + SHA256 + "  /tmp/a\\\\nb");
+		assertParsed(SHA256, "/tmp/a\\\nb", "\\" + SHA256 + "  /tmp/a\\\\\\nb");
+	}
+
+	public void testUnescapedBackslash() {
+		// Names are only unescaped if the line is marked
+		assertParsed(SHA256, "/tmp/a\\nb", SHA256 + "  /tmp/a\\nb");
+	}
+
+	public void testNotAChecksum() {
+		assertNull(ChecksumCommand.parseLine(""));
+		assertNull(ChecksumCommand.parseLine(" /tmp/file"));
+		assertNull(ChecksumCommand.parseLine(SHA256));
+		assertNull(ChecksumCommand.parseLine(SHA256 + " "));
+	}
+}
@@ -0,0 +1,67 @@
+package org.eclipse.remote.jsch.tests;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.remote.internal.jsch.core.JschFileStore;
+import org.eclipse.remote.internal.jsch.core.JschFileStoreCache;
+
+import junit.framework.TestCase;
+
+public class FileStoreCacheTests extends TestCase {
+	private static final String CONNECTION_1 = "connection1";
+	private static final String CONNECTION_2 = "connection2";
+
+	private static URI uri(String connection, String path) throws URISyntaxException {
+		return new URI("ssh", connection, path, null, null);
+	}
+
+	public void testHitsAndMisses() throws Exception {
+		JschFileStoreCache cache = new JschFileStoreCache(100);
+		JschFileStore store = cache.get(uri(CONNECTION_1, "/a"));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertSame(store, cache.get(uri(CONNECTION_1, "/a")));
+		assertSame(store, cache.get(uri(CONNECTION_1, "/a")));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertNotSame(store, cache.get(uri(CONNECTION_2, "/a")));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+	public void testBound() throws Exception {
+		JschFileStoreCache cache = new JschFileStoreCache(64);
+		List<JschFileStore> stores = new ArrayList<JschFileStore>();
+		JschFileStore recent = cache.get(uri(CONNECTION_1, "/recent"));
+		for (int i = 0; i < 1000; i++) {
+			stores.add(cache.get(uri(CONNECTION_1, "/file" + i)));
+			assertTrue("size " + cache.size(), cache.size() <= 64);
+			// Keep one store in use, so it is never the least recently used
+			assertSame(recent, cache.get(uri(CONNECTION_1, "/recent")));
+		}
+		assertEquals(1001, cache.getMissCount());
+		assertEquals(1000, cache.getHitCount());
+		assertEquals(1001 - cache.size(), cache.getEvictionCount());
+
+		// The most recent stores are kept, the oldest ones evicted
+		assertSame(stores.get(999), cache.get(uri(CONNECTION_1, "/file999")));
+		assertNotSame(stores.get(0), cache.get(uri(CONNECTION_1, "/file0")));
+	}
+
+	public void testClearConnection() throws Exception {
+		JschFileStoreCache cache = new JschFileStoreCache(100);
+		JschFileStore store1 = cache.get(uri(CONNECTION_1, "/a"));
+		JschFileStore store2 = cache.get(uri(CONNECTION_2, "/a"));
+		cache.get(uri(CONNECTION_1, "/b"));
+		assertEquals(3, cache.size());
+		cache.clear(CONNECTION_1);
+		assertEquals(1, cache.size());
+		assertSame(store2, cache.get(uri(CONNECTION_2, "/a")));
+		assertNotSame(store1, cache.get(uri(CONNECTION_1, "/a")));
+		assertEquals(0, cache.getEvictionCount());
+	}
+}
@@ -0,0 +1,164 @@
+package org.eclipse.remote.jsch.tests;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionType;
+import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
+import org.eclipse.remote.core.IRemoteFileService;
+import org.eclipse.remote.core.IRemoteServicesManager;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.MkdirCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline;
+import org.eclipse.remote.internal.jsch.core.commands.SftpPipeline.Response;
+
+import junit.framework.TestCase;
+
+public class MkdirCommandTests extends TestCase {
+	private static final String CONNECTION_NAME = "test_connection";
+	private static final String USERNAME = "test";
+	private static final String PASSWORD = "";
+	private static final String HOST = "localhost";
+	private static final String REMOTE_DIR = "/tmp/ptp_" + USERNAME + "/mkdir_tests";
+
+	private IRemoteConnectionType fConnectionType;
+	private IRemoteConnection fRemoteConnection;
+	private JSchConnection fJSchConnection;
+	private IFileStore fRemoteDir;
+
+	/*
+	 * Sends the requests of the first batch in the given order, as a server that handles requests for different paths in
+	 * any order might.
+	 */
+	private static class ReorderingMkdirCommand extends MkdirCommand {
+		private int[] fOrder;
+
+		public ReorderingMkdirCommand(JSchConnection connection, IPath path, boolean shallow, int... order) {
+			super(connection, path, shallow);
+			fOrder = order;
+		}
+
+		@Override
+		protected void runPipelined(SftpPipeline pipeline, int count, final SftpPipeline.Batch batch,
+				IProgressMonitor monitor) throws RemoteConnectionException {
+			final int[] order = fOrder;
+			fOrder = null;
+			if (order == null) {
+				super.runPipelined(pipeline, count, batch, monitor);
+				return;
+			}
+			assertEquals(order.length, count);
+			super.runPipelined(pipeline, count, new SftpPipeline.Batch() {
+				@Override
+				public int writeRequest(int index, DataOutputStream out) throws IOException {
+					return batch.writeRequest(order[index], out);
+				}
+
+				@Override
+				public void handleResponse(int index, Response response) throws IOException {
+					batch.handleResponse(order[index], response);
+				}
+			}, monitor);
+		}
+	}
+
+	private static int[] leafFirst(IPath path) {
+		int count = path.segmentCount();
+		int[] order = new int[count + 1];
+		order[0] = count - 1;
+		for (int i = 1; i < count; i++) {
+			order[i] = i - 1;
+		}
+		order[count] = count;
+		return order;
+	}
+
+	public void testInOrder() throws Exception {
+		IPath path = new Path(REMOTE_DIR).append("a/b/c");
+		IFileInfo info = new MkdirCommand(fJSchConnection, path).getResult(new NullProgressMonitor());
+		assertTrue(info.exists());
+		assertTrue(info.isDirectory());
+		assertEquals("c", info.getName());
+	}
+
+	public void testMissingAncestorAfterLeaf() throws Exception {
+		// Only the parent of the leaf is missing, so the leaf is the one new directory whose mkdir fails
+		IPath path = new Path(REMOTE_DIR).append("a/b");
+		IFileInfo info = new ReorderingMkdirCommand(fJSchConnection, path, false, leafFirst(path))
+				.getResult(new NullProgressMonitor());
+		assertTrue(info.exists());
+		assertTrue(info.isDirectory());
+		assertTrue(fRemoteDir.getChild("a").getChild("b").fetchInfo().isDirectory());
+	}
+
+	public void testLstatBeforeMkdir() throws Exception {
+		IPath path = new Path(REMOTE_DIR).append("a");
+		IFileInfo info = new ReorderingMkdirCommand(fJSchConnection, path, true, 1, 0).getResult(new NullProgressMonitor());
+		assertTrue(info.exists());
+		assertTrue(info.isDirectory());
+	}
+
+	public void testExistingFile() throws Exception {
+		fRemoteDir.getChild("file").openOutputStream(EFS.NONE, new NullProgressMonitor()).close();
+		IPath path = new Path(REMOTE_DIR).append("file");
+		IFileInfo info = new MkdirCommand(fJSchConnection, path).getResult(new NullProgressMonitor());
+		assertTrue(info.exists());
+		assertFalse(info.isDirectory());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IRemoteServicesManager manager = Activator.getService(IRemoteServicesManager.class);
+		fConnectionType = manager.getConnectionType("org.eclipse.remote.JSch");
+		assertNotNull(fConnectionType);
+
+		IRemoteConnectionWorkingCopy wc = fConnectionType.newConnection(CONNECTION_NAME);
+
+		String host = System.getenv("TEST_HOST");
+		if (host == null) {
+			host = HOST;
+		}
+		wc.setAttribute(JSchConnection.ADDRESS_ATTR, host);
+
+		String username = System.getenv("TEST_USERNAME");
+		if (username == null) {
+			username = USERNAME;
+		}
+		wc.setAttribute(JSchConnection.USERNAME_ATTR, username);
+
+		String password = System.getenv("TEST_PASSWORD");
+		if (password == null) {
+			password = PASSWORD;
+		}
+		wc.setSecureAttribute(JSchConnection.PASSWORD_ATTR, password);
+		wc.setAttribute(JSchConnection.MKDIR_EXEC_ATTR, Boolean.FALSE.toString());
+
+		fRemoteConnection = wc.save();
+		assertNotNull(fRemoteConnection);
+
+		fRemoteConnection.open(new NullProgressMonitor());
+		assertTrue(fRemoteConnection.isOpen());
+
+		fJSchConnection = fRemoteConnection.getService(JSchConnection.class);
+		assertNotNull(fJSchConnection);
+
+		IRemoteFileService fileService = fRemoteConnection.getService(IRemoteFileService.class);
+		fRemoteDir = EFS.getStore(fileService.toURI(REMOTE_DIR));
+		fRemoteDir.mkdir(EFS.NONE, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fRemoteDir.delete(EFS.NONE, new NullProgressMonitor());
+		fConnectionType.removeConnection(fRemoteConnection);
+	}
+}
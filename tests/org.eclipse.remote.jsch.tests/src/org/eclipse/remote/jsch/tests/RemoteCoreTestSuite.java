@@ -10,6 +10,11 @@ public class RemoteCoreTestSuite {
 		suite.addTestSuite(ConnectionTests.class);
 		suite.addTestSuite(FileStoreTests.class);
 		suite.addTestSuite(ProcessTests.class);
+		suite.addTestSuite(SegmentedTransferTests.class);
+		suite.addTestSuite(ChecksumCommandTests.class);
+		suite.addTestSuite(TarStreamTests.class);
+		suite.addTestSuite(FileStoreCacheTests.class);
+		suite.addTestSuite(MkdirCommandTests.class);
 		return suite;
 	}
 
@@ -0,0 +1,218 @@
+package org.eclipse.remote.jsch.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionType;
+import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
+import org.eclipse.remote.core.IRemoteFileService;
+import org.eclipse.remote.core.IRemoteServicesManager;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedGetCommand;
+import org.eclipse.remote.internal.jsch.core.commands.SegmentedPutCommand;
+
+import junit.framework.TestCase;
+
+public class SegmentedTransferTests extends TestCase {
+	private static final String CONNECTION_NAME = "test_connection";
+	private static final String USERNAME = "test";
+	private static final String PASSWORD = "";
+	private static final String HOST = "localhost";
+	private static final String LOCAL_DIR = "/tmp/ptp_" + System.getProperty("user.name") + "/segmented_tests";
+	private static final String REMOTE_DIR = "/tmp/ptp_" + USERNAME + "/segmented_tests";
+	private static final int SEGMENT_SIZE = 64 * 1024;
+
+	private IRemoteConnectionType fConnectionType;
+	private IRemoteConnection fRemoteConnection;
+	private JSchConnection fJSchConnection;
+	private IFileStore fRemoteDir;
+	private File fLocalDir;
+
+	private static class CancelableMonitor extends NullProgressMonitor {
+		private volatile boolean fCanceled;
+
+		@Override
+		public boolean isCanceled() {
+			return fCanceled;
+		}
+
+		@Override
+		public void setCanceled(boolean canceled) {
+			fCanceled = canceled;
+		}
+	}
+
+	private static byte[] createContents(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	private File createLocalFile(String name, byte[] data) throws IOException {
+		File file = new File(fLocalDir, name);
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private IPath getRemotePath(String name) {
+		return new Path(REMOTE_DIR).append(name);
+	}
+
+	private void roundTrip(int size) throws IOException, RemoteConnectionException {
+		byte[] data = createContents(size);
+		File source = createLocalFile("source_" + size, data);
+		IPath remote = getRemotePath("remote_" + size);
+		new SegmentedPutCommand(fJSchConnection, source, remote).getResult(new NullProgressMonitor());
+		File target = new File(fLocalDir, "target_" + size);
+		new SegmentedGetCommand(fJSchConnection, remote, target).getResult(new NullProgressMonitor());
+		assertTrue("size " + size, Arrays.equals(data, Files.readAllBytes(target.toPath())));
+		assertEquals(1, fLocalDir.list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith("target_") || name.endsWith(".part");
+			}
+		}).length);
+		target.delete();
+	}
+
+	public void testSingleSegment() throws Exception {
+		roundTrip(SEGMENT_SIZE - 1);
+		roundTrip(SEGMENT_SIZE);
+	}
+
+	public void testSegmentBoundaries() throws Exception {
+		roundTrip(SEGMENT_SIZE + 1);
+		roundTrip(2 * SEGMENT_SIZE - 1);
+		roundTrip(2 * SEGMENT_SIZE);
+		roundTrip(8 * SEGMENT_SIZE);
+	}
+
+	public void testPartialLastSegment() throws Exception {
+		roundTrip(3 * SEGMENT_SIZE + 1234);
+		roundTrip(7 * SEGMENT_SIZE + SEGMENT_SIZE / 2);
+	}
+
+	public void testEmptyFile() throws Exception {
+		roundTrip(0);
+	}
+
+	public void testCancelledGet() throws Exception {
+		byte[] data = createContents(64 * 1024 * 1024);
+		File source = createLocalFile("large", data);
+		IPath remote = getRemotePath("large");
+		new SegmentedPutCommand(fJSchConnection, source, remote).getResult(new NullProgressMonitor());
+
+		// The existing contents of the target must survive a cancelled download
+		byte[] existing = createContents(100);
+		final File target = createLocalFile("existing", existing);
+		final CancelableMonitor monitor = new CancelableMonitor();
+		final SegmentedGetCommand command = new SegmentedGetCommand(fJSchConnection, remote, target);
+		final Exception[] error = new Exception[1];
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					command.getResult(monitor);
+				} catch (RemoteConnectionException e) {
+					error[0] = e;
+				}
+			}
+		};
+		thread.start();
+		// Cancel once the download has started writing its temporary file
+		long deadline = System.currentTimeMillis() + 10000;
+		while (thread.isAlive() && System.currentTimeMillis() < deadline) {
+			String[] parts = fLocalDir.list(new FilenameFilter() {
+				@Override
+				public boolean accept(File dir, String name) {
+					return name.endsWith(".part");
+				}
+			});
+			if (parts.length > 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		monitor.setCanceled(true);
+		thread.join(30000);
+		assertFalse(thread.isAlive());
+		assertNotNull("download was not cancelled", error[0]);
+		assertTrue(Arrays.equals(existing, Files.readAllBytes(target.toPath())));
+		assertEquals(Arrays.asList("existing", "large"), Arrays.asList(sorted(fLocalDir.list())));
+	}
+
+	private static String[] sorted(String[] names) {
+		Arrays.sort(names);
+		return names;
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IRemoteServicesManager manager = Activator.getService(IRemoteServicesManager.class);
+		fConnectionType = manager.getConnectionType("org.eclipse.remote.JSch");
+		assertNotNull(fConnectionType);
+
+		IRemoteConnectionWorkingCopy wc = fConnectionType.newConnection(CONNECTION_NAME);
+
+		String host = System.getenv("TEST_HOST");
+		if (host == null) {
+			host = HOST;
+		}
+		wc.setAttribute(JSchConnection.ADDRESS_ATTR, host);
+
+		String username = System.getenv("TEST_USERNAME");
+		if (username == null) {
+			username = USERNAME;
+		}
+		wc.setAttribute(JSchConnection.USERNAME_ATTR, username);
+
+		String password = System.getenv("TEST_PASSWORD");
+		if (password == null) {
+			password = PASSWORD;
+		}
+		wc.setSecureAttribute(JSchConnection.PASSWORD_ATTR, password);
+		wc.setAttribute(JSchConnection.TRANSFER_SEGMENT_SIZE_ATTR, Integer.toString(SEGMENT_SIZE));
+		wc.setAttribute(JSchConnection.TRANSFER_PARALLELISM_ATTR, "4");
+		wc.setAttribute(JSchConnection.TRANSFER_SESSIONS_ATTR, "2");
+		wc.setAttribute(JSchConnection.TRANSFER_VERIFY_ATTR, Boolean.TRUE.toString());
+
+		fRemoteConnection = wc.save();
+		assertNotNull(fRemoteConnection);
+
+		fRemoteConnection.open(new NullProgressMonitor());
+		assertTrue(fRemoteConnection.isOpen());
+
+		fJSchConnection = fRemoteConnection.getService(JSchConnection.class);
+		assertNotNull(fJSchConnection);
+
+		IRemoteFileService fileService = fRemoteConnection.getService(IRemoteFileService.class);
+		fRemoteDir = EFS.getStore(fileService.toURI(REMOTE_DIR));
+		fRemoteDir.mkdir(EFS.NONE, null);
+		fLocalDir = new File(LOCAL_DIR);
+		fLocalDir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fRemoteDir.delete(EFS.NONE, new NullProgressMonitor());
+		EFS.getLocalFileSystem().getStore(new Path(LOCAL_DIR)).delete(EFS.NONE, new NullProgressMonitor());
+		fConnectionType.removeConnection(fRemoteConnection);
+	}
+}
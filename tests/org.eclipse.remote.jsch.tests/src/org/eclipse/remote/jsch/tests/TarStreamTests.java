@@ -0,0 +1,218 @@
+package org.eclipse.remote.jsch.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.provider.FileInfo;
+import org.eclipse.remote.internal.jsch.core.commands.TarInputStream;
+import org.eclipse.remote.internal.jsch.core.commands.TarOutputStream;
+
+import junit.framework.TestCase;
+
+public class TarStreamTests extends TestCase {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String CONTENTS = "a string containing fairly *()(*&^$%## random text";
+
+	private ByteArrayOutputStream fArchive;
+	private TarOutputStream fTarOut;
+
+	private static String repeat(String str, int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(str);
+		}
+		return builder.toString();
+	}
+
+	private static FileInfo fileInfo(int length) {
+		FileInfo info = new FileInfo();
+		info.setExists(true);
+		info.setLength(length);
+		info.setLastModified(1234567000L);
+		return info;
+	}
+
+	private void addFile(String name, String contents) throws IOException {
+		byte[] data = contents.getBytes(UTF8);
+		fTarOut.putNextEntry(name, fileInfo(data.length));
+		fTarOut.write(data);
+	}
+
+	private void addSymlink(String name, String target) throws IOException {
+		FileInfo info = fileInfo(0);
+		info.setAttribute(EFS.ATTRIBUTE_SYMLINK, true);
+		info.setStringAttribute(EFS.ATTRIBUTE_LINK_TARGET, target);
+		fTarOut.putNextEntry(name, info);
+	}
+
+	private TarInputStream openArchive() throws IOException {
+		fTarOut.finish();
+		return new TarInputStream(new ByteArrayInputStream(fArchive.toByteArray()));
+	}
+
+	private static String readContents(TarInputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[100];
+		int len;
+		while ((len = in.read(buf)) > 0) {
+			out.write(buf, 0, len);
+		}
+		return new String(out.toByteArray(), UTF8);
+	}
+
+	private static List<String> readNames(TarInputStream in) throws IOException {
+		List<String> names = new ArrayList<String>();
+		IFileInfo info;
+		while ((info = in.getNextEntry()) != null) {
+			names.add(info.getName());
+		}
+		return names;
+	}
+
+	/*
+	 * Write a raw header, as produced by tar implementations other than TarOutputStream.
+	 */
+	private void writeRawEntry(String name, char type, byte[] data) throws IOException {
+		byte[] header = new byte[512];
+		byte[] nameBytes = name.getBytes(UTF8);
+		System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+		byte[] size = String.format("%011o", data.length).getBytes(UTF8);
+		System.arraycopy(size, 0, header, 124, size.length);
+		byte[] mode = "0000644".getBytes(UTF8);
+		System.arraycopy(mode, 0, header, 100, mode.length);
+		header[156] = (byte) type;
+		fArchive.write(header);
+		fArchive.write(data);
+		fArchive.write(new byte[(512 - data.length % 512) % 512]);
+	}
+
+	/*
+	 * A pax record is "<length> <key>=<value>\n", where the length counts the bytes of the whole record.
+	 */
+	private static String paxRecord(String key, String value) {
+		int len = (" " + key + "=" + value + "\n").getBytes(UTF8).length;
+		int total = len + Integer.toString(len).length();
+		if (Integer.toString(total).length() > Integer.toString(len).length()) {
+			total++;
+		}
+		return total + " " + key + "=" + value + "\n";
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fArchive = new ByteArrayOutputStream();
+		fTarOut = new TarOutputStream(fArchive, false);
+	}
+
+	public void testFile() throws IOException {
+		addFile("dir/file", CONTENTS);
+		TarInputStream in = openArchive();
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("dir/file", info.getName());
+		assertFalse(info.isDirectory());
+		assertEquals(CONTENTS.length(), info.getLength());
+		assertEquals(1234567000L, info.getLastModified());
+		assertEquals(CONTENTS, readContents(in));
+		assertNull(in.getNextEntry());
+	}
+
+	public void testLongName() throws IOException {
+		String name = repeat("long_directory_name/", 10) + "file";
+		addFile(name, CONTENTS);
+		addFile("short", "");
+		TarInputStream in = openArchive();
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals(name, info.getName());
+		assertEquals(CONTENTS, readContents(in));
+		info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("short", info.getName());
+		assertNull(in.getNextEntry());
+	}
+
+	public void testUtf8Name() throws IOException {
+		String name = "répertoire/日本語.txt";
+		String longName = repeat("ü", 60) + "/file";
+		addFile(name, CONTENTS);
+		addFile(longName, CONTENTS);
+		TarInputStream in = openArchive();
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals(name, info.getName());
+		assertEquals(CONTENTS, readContents(in));
+		info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals(longName, info.getName());
+		assertEquals(CONTENTS, readContents(in));
+		assertNull(in.getNextEntry());
+	}
+
+	public void testLongLinkTarget() throws IOException {
+		String target = "/" + repeat("link_target/", 20) + "é";
+		addSymlink("link", target);
+		addFile("after", CONTENTS);
+		TarInputStream in = openArchive();
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("link", info.getName());
+		assertTrue(info.getAttribute(EFS.ATTRIBUTE_SYMLINK));
+		assertEquals(target, info.getStringAttribute(EFS.ATTRIBUTE_LINK_TARGET));
+		info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("after", info.getName());
+		assertEquals(CONTENTS, readContents(in));
+	}
+
+	public void testUnsafeEntriesDropped() throws IOException {
+		addFile("../outside", CONTENTS);
+		addFile("/absolute", CONTENTS);
+		addFile("dir/../../outside", CONTENTS);
+		addFile("./", "");
+		addFile("./dir/./inside", CONTENTS);
+		TarInputStream in = openArchive();
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("dir/inside", info.getName());
+		assertEquals(CONTENTS, readContents(in));
+		assertNull(in.getNextEntry());
+	}
+
+	public void testSkipUnreadContents() throws IOException {
+		addFile("first", repeat(CONTENTS, 20));
+		addFile("second", CONTENTS);
+		TarInputStream in = openArchive();
+		assertEquals("[first, second]", readNames(in).toString());
+	}
+
+	public void testPaxHeader() throws IOException {
+		String path = "été/日本語-" + repeat("x", 120);
+		String link = "../über";
+		String records = paxRecord("path", path) + paxRecord("linkpath", link)
+				+ paxRecord("mtime", "1792391706.919018303") + paxRecord("comment", "à ignorer");
+		writeRawEntry("PaxHeaders/entry", 'x', records.getBytes(UTF8));
+		writeRawEntry("entry", '2', new byte[0]);
+		writeRawEntry("file", '0', CONTENTS.getBytes(UTF8));
+		fArchive.write(new byte[1024]);
+
+		TarInputStream in = new TarInputStream(new ByteArrayInputStream(fArchive.toByteArray()));
+		IFileInfo info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals(path, info.getName());
+		assertTrue(info.getAttribute(EFS.ATTRIBUTE_SYMLINK));
+		assertEquals(link, info.getStringAttribute(EFS.ATTRIBUTE_LINK_TARGET));
+		assertEquals(1792391706000L, info.getLastModified());
+		info = in.getNextEntry();
+		assertNotNull(info);
+		assertEquals("file", info.getName());
+		assertEquals(CONTENTS, readContents(in));
+		assertNull(in.getNextEntry());
+	}
+}
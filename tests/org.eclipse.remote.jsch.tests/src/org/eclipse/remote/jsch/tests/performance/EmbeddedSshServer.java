@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.apache.sshd.SshServer;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.server.Command;
+import org.apache.sshd.server.CommandFactory;
+import org.apache.sshd.server.PasswordAuthenticator;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.server.sftp.SftpSubsystem;
+import org.apache.sshd.server.shell.ProcessShellFactory;
+
+/**
+ * An SSH server (Apache MINA SSHD) running in the test JVM on the loopback interface. It serves SFTP on the local file
+ * system and runs exec and shell commands with /bin/sh as the user running the tests, so the JSch provider can be
+ * exercised end to end without a test host.
+ *
+ * Anyone on the machine can connect to the port, so the server only accepts the user running the tests with a password
+ * that is generated for each server (see {@link #getPassword()}). The host key is generated in a temporary directory that
+ * only that user can read, and is deleted when the server stops.
+ */
+public class EmbeddedSshServer {
+	public static final String HOST = "127.0.0.1"; //$NON-NLS-1$
+
+	private static final String SHELL = "/bin/sh"; //$NON-NLS-1$
+
+	private final String fUser = System.getProperty("user.name"); //$NON-NLS-1$
+	private final String fPassword = new BigInteger(160, new SecureRandom()).toString(32);
+	private File fKeyDir;
+	private SshServer fServer;
+	private int fPort;
+
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	public void start() throws IOException {
+		fPort = findFreePort();
+		// createTempDirectory makes the directory accessible to the owner only
+		fKeyDir = Files.createTempDirectory("jsch-performance-key").toFile(); //$NON-NLS-1$
+		fServer = SshServer.setUpDefaultServer();
+		fServer.setHost(HOST);
+		fServer.setPort(fPort);
+		fServer.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(new File(fKeyDir, "hostkey.ser").getAbsolutePath())); //$NON-NLS-1$
+		fServer.setPasswordAuthenticator(new PasswordAuthenticator() {
+			@Override
+			public boolean authenticate(String username, String password, ServerSession session) {
+				return fUser.equals(username) && fPassword.equals(password);
+			}
+		});
+		fServer.setSubsystemFactories(Arrays.<NamedFactory<Command>> asList(new SftpSubsystem.Factory()));
+		fServer.setCommandFactory(new CommandFactory() {
+			@Override
+			public Command createCommand(String command) {
+				return new ProcessShellFactory(new String[] { SHELL, "-c", command }).create(); //$NON-NLS-1$
+			}
+		});
+		fServer.setShellFactory(new ProcessShellFactory(new String[] { SHELL, "-i" })); //$NON-NLS-1$
+		fServer.start();
+	}
+
+	public void stop() throws InterruptedException {
+		if (fServer != null) {
+			fServer.stop(true);
+			fServer = null;
+		}
+		if (fKeyDir != null) {
+			File[] files = fKeyDir.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			fKeyDir.delete();
+			fKeyDir = null;
+		}
+	}
+
+	public int getPort() {
+		return fPort;
+	}
+
+	/**
+	 * @return name of the only user the server accepts
+	 */
+	public String getUser() {
+		return fUser;
+	}
+
+	/**
+	 * @return password of the user, which is different for each server
+	 */
+	public String getPassword() {
+		return fPassword;
+	}
+}
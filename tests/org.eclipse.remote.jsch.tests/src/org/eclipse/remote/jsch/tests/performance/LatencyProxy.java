@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TCP proxy on the loopback interface that forwards connections to a target port with the delay, jitter and
+ * bandwidth of a {@link NetworkConditions}, so that code talking to a local server sees a remote one.
+ *
+ * Data is forwarded in the chunks it is read in. Each chunk is held for half the round trip time plus a random jitter,
+ * and then for as long as it takes to send it at the bandwidth limit. Chunks are never reordered.
+ */
+public class LatencyProxy {
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private static class Chunk {
+		final byte[] data;
+		final long due;
+
+		Chunk(byte[] data, long due) {
+			this.data = data;
+			this.due = due;
+		}
+	}
+
+	private static final Chunk EOF = new Chunk(null, 0);
+
+	/**
+	 * Forwards one direction of a connection with a reader and a writer thread, the queue between them holds the data
+	 * that is in flight.
+	 */
+	private class Pipe {
+		private final Socket fFrom;
+		private final Socket fTo;
+		private final BlockingQueue<Chunk> fQueue = new LinkedBlockingQueue<>();
+		private final Random fRandom = new Random();
+
+		Pipe(Socket from, Socket to) {
+			fFrom = from;
+			fTo = to;
+		}
+
+		void start(String name) {
+			Thread reader = new Thread(name + " reader") { //$NON-NLS-1$
+				@Override
+				public void run() {
+					read();
+				}
+			};
+			Thread writer = new Thread(name + " writer") { //$NON-NLS-1$
+				@Override
+				public void run() {
+					write();
+				}
+			};
+			reader.setDaemon(true);
+			writer.setDaemon(true);
+			reader.start();
+			writer.start();
+		}
+
+		private void read() {
+			long oneWay = TimeUnit.MILLISECONDS.toNanos(fConditions.getRtt()) / 2;
+			long lastDue = 0;
+			try {
+				InputStream in = fFrom.getInputStream();
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int n;
+				while ((n = in.read(buffer)) >= 0) {
+					long due = System.nanoTime() + oneWay;
+					if (fConditions.getJitter() > 0) {
+						due += TimeUnit.MILLISECONDS.toNanos(fRandom.nextInt(fConditions.getJitter() + 1));
+					}
+					lastDue = Math.max(due, lastDue);
+					fQueue.add(new Chunk(Arrays.copyOf(buffer, n), lastDue));
+				}
+			} catch (IOException e) {
+				// the connection was closed
+			}
+			fQueue.add(EOF);
+		}
+
+		private void write() {
+			long free = 0;
+			try {
+				OutputStream out = fTo.getOutputStream();
+				Chunk chunk;
+				while ((chunk = fQueue.take()) != EOF) {
+					long send = Math.max(chunk.due, free);
+					if (fConditions.getBandwidth() > 0) {
+						free = send + chunk.data.length * TimeUnit.SECONDS.toNanos(1) / fConditions.getBandwidth();
+					}
+					sleepUntil(send);
+					out.write(chunk.data);
+					out.flush();
+				}
+				fTo.shutdownOutput();
+			} catch (IOException | InterruptedException e) {
+				close(fFrom);
+				close(fTo);
+			}
+		}
+	}
+
+	private final int fTargetPort;
+	private final NetworkConditions fConditions;
+	private final List<Socket> fSockets = new CopyOnWriteArrayList<>();
+	private ServerSocket fServerSocket;
+
+	/**
+	 * @param targetPort
+	 *            loopback port to forward connections to
+	 * @param conditions
+	 *            network to simulate
+	 */
+	public LatencyProxy(int targetPort, NetworkConditions conditions) {
+		fTargetPort = targetPort;
+		fConditions = conditions;
+	}
+
+	private static void sleepUntil(long time) throws InterruptedException {
+		long delay;
+		while ((delay = time - System.nanoTime()) > 0) {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+	}
+
+	private static void close(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	public void start() throws IOException {
+		fServerSocket = new ServerSocket(0, 50, InetAddress.getByName(EmbeddedSshServer.HOST));
+		Thread acceptor = new Thread("Latency proxy " + fConditions) { //$NON-NLS-1$
+			@Override
+			public void run() {
+				try {
+					while (true) {
+						Socket client = fServerSocket.accept();
+						Socket server;
+						try {
+							server = new Socket(EmbeddedSshServer.HOST, fTargetPort);
+						} catch (IOException e) {
+							close(client);
+							continue;
+						}
+						client.setTcpNoDelay(true);
+						server.setTcpNoDelay(true);
+						fSockets.add(client);
+						fSockets.add(server);
+						new Pipe(client, server).start(getName() + " upstream"); //$NON-NLS-1$
+						new Pipe(server, client).start(getName() + " downstream"); //$NON-NLS-1$
+					}
+				} catch (IOException e) {
+					// the proxy was stopped
+				}
+			}
+		};
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Stop accepting connections and close the ones that are open.
+	 */
+	public void stop() throws IOException {
+		if (fServerSocket != null) {
+			fServerSocket.close();
+			fServerSocket = null;
+		}
+		for (Socket socket : fSockets) {
+			close(socket);
+		}
+		fSockets.clear();
+	}
+
+	public int getPort() {
+		return fServerSocket.getLocalPort();
+	}
+}
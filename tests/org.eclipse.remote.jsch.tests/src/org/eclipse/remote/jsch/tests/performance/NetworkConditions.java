@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+/**
+ * The network a {@link LatencyProxy} simulates.
+ */
+public class NetworkConditions {
+	private final int fRtt;
+	private final int fJitter;
+	private final long fBandwidth;
+
+	/**
+	 * @param rtt
+	 *            round trip time to add, in milliseconds
+	 * @param jitter
+	 *            maximum random delay added to each direction on top of the round trip time, in milliseconds
+	 * @param bandwidth
+	 *            bandwidth of each direction in bytes per second, or 0 for no limit
+	 */
+	public NetworkConditions(int rtt, int jitter, long bandwidth) {
+		fRtt = rtt;
+		fJitter = jitter;
+		fBandwidth = bandwidth;
+	}
+
+	public int getRtt() {
+		return fRtt;
+	}
+
+	public int getJitter() {
+		return fJitter;
+	}
+
+	public long getBandwidth() {
+		return fBandwidth;
+	}
+
+	/**
+	 * Scale down the number of times an operation is repeated so a run over a slow network takes about as long as one
+	 * on localhost.
+	 *
+	 * @param count
+	 *            number of times the operation is repeated on localhost
+	 * @param min
+	 *            smallest number to return
+	 */
+	public int scale(int count, int min) {
+		return Math.max(count * 10 / (10 + fRtt), Math.min(count, min));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("rtt-").append(fRtt).append("ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (fJitter > 0) {
+			builder.append("-jitter-").append(fJitter).append("ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (fBandwidth > 0) {
+			builder.append("-").append(fBandwidth / 1024).append("KBps"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The measurements of a performance run. Each result is a set of samples of one metric of a scenario; the report
+ * gives their count, minimum, median, 90th percentile, maximum and mean as a table and as JSON.
+ */
+public class PerformanceReport {
+	public static class Result {
+		private final String fScenario;
+		private final String fMetric;
+		private final String fUnit;
+		private final double[] fSamples;
+
+		Result(String scenario, String metric, String unit, double[] samples) {
+			fScenario = scenario;
+			fMetric = metric;
+			fUnit = unit;
+			fSamples = samples.clone();
+			Arrays.sort(fSamples);
+		}
+
+		public String getScenario() {
+			return fScenario;
+		}
+
+		public String getMetric() {
+			return fMetric;
+		}
+
+		public String getUnit() {
+			return fUnit;
+		}
+
+		public int getCount() {
+			return fSamples.length;
+		}
+
+		public double getMin() {
+			return fSamples[0];
+		}
+
+		public double getMax() {
+			return fSamples[fSamples.length - 1];
+		}
+
+		public double getPercentile(int percentile) {
+			int index = (int) Math.ceil(percentile / 100.0 * fSamples.length) - 1;
+			return fSamples[Math.max(0, Math.min(index, fSamples.length - 1))];
+		}
+
+		public double getMedian() {
+			return getPercentile(50);
+		}
+
+		public double getMean() {
+			double sum = 0;
+			for (double sample : fSamples) {
+				sum += sample;
+			}
+			return sum / fSamples.length;
+		}
+	}
+
+	private final String fName;
+	private final List<Result> fResults = new ArrayList<>();
+
+	/**
+	 * @param name
+	 *            name of the run, e.g. the network conditions it was made under
+	 */
+	public PerformanceReport(String name) {
+		fName = name;
+	}
+
+	public synchronized void add(String scenario, String metric, String unit, double... samples) {
+		if (samples.length > 0) {
+			fResults.add(new Result(scenario, metric, unit, samples));
+		}
+	}
+
+	/**
+	 * Add the rate at which operations were done.
+	 *
+	 * @param count
+	 *            number of operations
+	 * @param nanos
+	 *            time taken by all the operations
+	 */
+	public void addRate(String scenario, String metric, int count, long nanos) {
+		add(scenario, metric, "ops/s", count / (nanos / 1e9)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Add the rate at which data was transferred.
+	 *
+	 * @param bytes
+	 *            number of bytes transferred
+	 * @param nanos
+	 *            time taken by the transfer
+	 */
+	public void addThroughput(String scenario, String metric, long bytes, long nanos) {
+		add(scenario, metric, "MB/s", bytes / (1024.0 * 1024.0) / (nanos / 1e9)); //$NON-NLS-1$
+	}
+
+	public synchronized List<Result> getResults() {
+		return new ArrayList<>(fResults);
+	}
+
+	public synchronized void print(PrintStream out) {
+		out.println("Performance report: " + fName); //$NON-NLS-1$
+		out.println(String.format(Locale.ROOT, "%-30s %-20s %-6s %5s %10s %10s %10s %10s %10s", "scenario", "metric", "unit", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"n", "min", "median", "p90", "max", "mean")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (Result result : fResults) {
+			out.println(String.format(Locale.ROOT, "%-30s %-20s %-6s %5d %10.2f %10.2f %10.2f %10.2f %10.2f", result.getScenario(), //$NON-NLS-1$
+					result.getMetric(), result.getUnit(), result.getCount(), result.getMin(), result.getMedian(),
+					result.getPercentile(90), result.getMax(), result.getMean()));
+		}
+	}
+
+	private static String quote(String string) {
+		return '"' + string.replace("\\", "\\\\").replace("\"", "\\\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	public synchronized void writeJson(File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			out.println("{"); //$NON-NLS-1$
+			out.println("  \"name\": " + quote(fName) + ","); //$NON-NLS-1$ //$NON-NLS-2$
+			out.println("  \"results\": ["); //$NON-NLS-1$
+			for (int i = 0; i < fResults.size(); i++) {
+				Result result = fResults.get(i);
+				out.print(String.format(Locale.ROOT,
+						"    {\"scenario\": %s, \"metric\": %s, \"unit\": %s, \"count\": %d, \"min\": %.3f, \"median\": %.3f, \"p90\": %.3f, \"max\": %.3f, \"mean\": %.3f}", //$NON-NLS-1$
+						quote(result.getScenario()), quote(result.getMetric()), quote(result.getUnit()), result.getCount(),
+						result.getMin(), result.getMedian(), result.getPercentile(90), result.getMax(), result.getMean()));
+				out.println(i < fResults.size() - 1 ? "," : ""); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			out.println("  ]"); //$NON-NLS-1$
+			out.println("}"); //$NON-NLS-1$
+		}
+	}
+}
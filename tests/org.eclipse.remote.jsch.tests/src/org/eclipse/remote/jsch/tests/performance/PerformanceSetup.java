@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteConnectionMetricsService;
+import org.eclipse.remote.core.IRemoteConnectionType;
+import org.eclipse.remote.core.IRemoteConnectionWorkingCopy;
+import org.eclipse.remote.core.IRemoteServicesManager;
+import org.eclipse.remote.core.RemoteOperationMetrics;
+import org.eclipse.remote.internal.jsch.core.JSchConnection;
+import org.eclipse.remote.jsch.tests.Activator;
+
+import com.jcraft.jsch.HostKey;
+import com.jcraft.jsch.HostKeyRepository;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.UserInfo;
+
+/**
+ * Starts an {@link EmbeddedSshServer}, opens a JSch connection to it and creates a work directory for the tests it wraps.
+ * If network conditions are given, the connection goes through a {@link LatencyProxy} that simulates them. When the tests
+ * are done the report and the metrics of the connection are printed, and the report is written to
+ * jsch-performance-<i>name</i>.json in the directory named by the {@link #REPORT_DIRECTORY_PROPERTY} system property, or
+ * the current directory.
+ *
+ * While the tests run the host key of the server is accepted without being added to known_hosts.
+ */
+public class PerformanceSetup extends TestSetup {
+	public static final String REPORT_DIRECTORY_PROPERTY = "org.eclipse.remote.jsch.tests.performance.reportDirectory"; //$NON-NLS-1$
+
+	private static final String CONNECTION_NAME = "performance_connection"; //$NON-NLS-1$
+
+	private static PerformanceSetup current;
+
+	private static class AcceptingHostKeyRepository implements HostKeyRepository {
+		@Override
+		public int check(String host, byte[] key) {
+			return OK;
+		}
+
+		@Override
+		public void add(HostKey hostkey, UserInfo ui) {
+		}
+
+		@Override
+		public void remove(String host, String type) {
+		}
+
+		@Override
+		public void remove(String host, String type, byte[] key) {
+		}
+
+		@Override
+		public String getKnownHostsRepositoryID() {
+			return null;
+		}
+
+		@Override
+		public HostKey[] getHostKey() {
+			return new HostKey[0];
+		}
+
+		@Override
+		public HostKey[] getHostKey(String host, String type) {
+			return new HostKey[0];
+		}
+	}
+
+	private final String fName;
+	private final NetworkConditions fConditions;
+	private EmbeddedSshServer fServer;
+	private LatencyProxy fProxy;
+	private IRemoteConnectionType fConnectionType;
+	private IRemoteConnection fConnection;
+	private HostKeyRepository fHostKeyRepository;
+	private File fWorkDir;
+	private PerformanceReport fReport;
+
+	/**
+	 * @param test
+	 *            tests to run against the server
+	 * @param name
+	 *            name of the report
+	 */
+	public PerformanceSetup(Test test, String name) {
+		this(test, name, null);
+	}
+
+	/**
+	 * @param test
+	 *            tests to run against the server
+	 * @param conditions
+	 *            network to simulate between the connection and the server
+	 */
+	public PerformanceSetup(Test test, NetworkConditions conditions) {
+		this(test, conditions.toString(), conditions);
+	}
+
+	private PerformanceSetup(Test test, String name, NetworkConditions conditions) {
+		super(test);
+		fName = name;
+		fConditions = conditions;
+	}
+
+	/**
+	 * @return the setup of the tests that are running
+	 */
+	public static PerformanceSetup getCurrent() {
+		return current;
+	}
+
+	public IRemoteConnection getConnection() {
+		return fConnection;
+	}
+
+	/**
+	 * @return absolute path of a directory the tests can use, on both the local and the remote side
+	 */
+	public String getWorkDirectory() {
+		return fWorkDir.getAbsolutePath();
+	}
+
+	public PerformanceReport getReport() {
+		return fReport;
+	}
+
+	/**
+	 * Scale down the number of times an operation is repeated for the simulated network, see
+	 * {@link NetworkConditions#scale(int, int)}.
+	 */
+	public int scale(int count, int min) {
+		return fConditions != null ? fConditions.scale(count, min) : count;
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fReport = new PerformanceReport(fName);
+		fWorkDir = Files.createTempDirectory("jsch-performance").toFile(); //$NON-NLS-1$
+
+		fServer = new EmbeddedSshServer();
+		fServer.start();
+		int port = fServer.getPort();
+		if (fConditions != null) {
+			fProxy = new LatencyProxy(port, fConditions);
+			fProxy.start();
+			port = fProxy.getPort();
+		}
+
+		JSch jsch = org.eclipse.remote.internal.jsch.core.Activator.getDefault().getService().getJSch();
+		fHostKeyRepository = jsch.getHostKeyRepository();
+		jsch.setHostKeyRepository(new AcceptingHostKeyRepository());
+
+		IRemoteServicesManager manager = Activator.getService(IRemoteServicesManager.class);
+		fConnectionType = manager.getConnectionType("org.eclipse.remote.JSch"); //$NON-NLS-1$
+		IRemoteConnection old = fConnectionType.getConnection(CONNECTION_NAME);
+		if (old != null) {
+			fConnectionType.removeConnection(old);
+		}
+		IRemoteConnectionWorkingCopy wc = fConnectionType.newConnection(CONNECTION_NAME);
+		wc.setAttribute(JSchConnection.ADDRESS_ATTR, EmbeddedSshServer.HOST);
+		wc.setAttribute(JSchConnection.PORT_ATTR, Integer.toString(port));
+		wc.setAttribute(JSchConnection.USERNAME_ATTR, fServer.getUser());
+		wc.setAttribute(JSchConnection.IS_PASSWORD_ATTR, Boolean.TRUE.toString());
+		wc.setSecureAttribute(JSchConnection.PASSWORD_ATTR, fServer.getPassword());
+		fConnection = wc.save();
+		fConnection.open(new NullProgressMonitor());
+
+		current = this;
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		current = null;
+		try {
+			fReport.print(System.out);
+			IRemoteConnectionMetricsService metrics = fConnection.getService(IRemoteConnectionMetricsService.class);
+			if (metrics != null) {
+				for (RemoteOperationMetrics operation : metrics.getSnapshot().values()) {
+					System.out.println(operation);
+				}
+			}
+			fReport.writeJson(new File(System.getProperty(REPORT_DIRECTORY_PROPERTY, "."), "jsch-performance-" + fName + ".json")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} finally {
+			if (fConnection != null) {
+				fConnectionType.removeConnection(fConnection);
+			}
+			if (fHostKeyRepository != null) {
+				org.eclipse.remote.internal.jsch.core.Activator.getDefault().getService().getJSch()
+						.setHostKeyRepository(fHostKeyRepository);
+			}
+			if (fProxy != null) {
+				fProxy.stop();
+			}
+			fServer.stop();
+			delete(fWorkDir);
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.remote.core.IRemoteConnection;
+import org.eclipse.remote.core.IRemoteFileService;
+import org.eclipse.remote.core.IRemoteProcess;
+import org.eclipse.remote.core.IRemoteProcessService;
+
+/**
+ * Measures the JSch provider against an {@link EmbeddedSshServer}: opening a connection, small file operations, large
+ * file throughput, command latency and concurrent operations. The results go to the report of the
+ * {@link PerformanceSetup}; assertions only check that the operations worked.
+ *
+ * The size of the large file in MB can be set with the {@link #LARGE_FILE_PROPERTY} system property. Over a simulated
+ * slow network the operations are repeated fewer times, see {@link PerformanceSetup#scale(int, int)}.
+ */
+public class PerformanceTests extends TestCase {
+	public static final String LARGE_FILE_PROPERTY = "org.eclipse.remote.jsch.tests.performance.largeFileSize"; //$NON-NLS-1$
+
+	private static final int CONNECT_RUNS = 10;
+	private static final int SMALL_FILES = 200;
+	private static final int SMALL_FILE_SIZE = 1024;
+	private static final int LIST_RUNS = 20;
+	private static final int EXEC_RUNS = 50;
+	private static final int CONCURRENT_FILES = 20;
+	private static final int CONCURRENT_OPS = 400;
+	private static final int[] THREADS = { 1, 4, 8 };
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MIN_RUNS = 5;
+	private static final int MIN_LARGE_FILE_SIZE = 4;
+
+	private final IProgressMonitor monitor = new NullProgressMonitor();
+	private IRemoteConnection connection;
+	private IRemoteFileService fileService;
+	private PerformanceReport report;
+	private IFileStore dir;
+	private int connectRuns;
+	private int smallFiles;
+	private int listRuns;
+	private int execRuns;
+	private int concurrentOps;
+	private long largeFileSize;
+
+	public static Test suite() {
+		return suite("localhost"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param name
+	 *            name of the report
+	 */
+	public static Test suite(String name) {
+		return new PerformanceSetup(new TestSuite(PerformanceTests.class), name);
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static double[] toArray(List<Double> list) {
+		double[] array = new double[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	private void write(IFileStore store, byte[] buffer, long size) throws Exception {
+		try (OutputStream out = store.openOutputStream(EFS.NONE, monitor)) {
+			for (long left = size; left > 0; left -= buffer.length) {
+				out.write(buffer, 0, (int) Math.min(buffer.length, left));
+			}
+		}
+	}
+
+	private long read(IFileStore store, byte[] buffer) throws Exception {
+		long size = 0;
+		try (InputStream in = store.openInputStream(EFS.NONE, monitor)) {
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				size += n;
+			}
+		}
+		return size;
+	}
+
+	public void testConnect() throws Exception {
+		double[] samples = new double[connectRuns];
+		for (int i = 0; i < connectRuns; i++) {
+			connection.close();
+			long start = System.nanoTime();
+			connection.open(monitor);
+			samples[i] = millis(System.nanoTime() - start);
+			assertTrue(connection.isOpen());
+		}
+		report.add(getName(), "open", "ms", samples); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testSmallFileOps() throws Exception {
+		byte[] content = new byte[SMALL_FILE_SIZE];
+		IFileStore[] files = new IFileStore[smallFiles];
+		double[] latencies = new double[smallFiles];
+
+		long total = System.nanoTime();
+		for (int i = 0; i < smallFiles; i++) {
+			long start = System.nanoTime();
+			files[i] = dir.getChild("file" + i); //$NON-NLS-1$
+			write(files[i], content, content.length);
+			latencies[i] = millis(System.nanoTime() - start);
+		}
+		report.addRate(getName(), "create", smallFiles, System.nanoTime() - total); //$NON-NLS-1$
+		report.add(getName(), "create latency", "ms", latencies); //$NON-NLS-1$ //$NON-NLS-2$
+
+		total = System.nanoTime();
+		for (int i = 0; i < smallFiles; i++) {
+			long start = System.nanoTime();
+			IFileInfo info = files[i].fetchInfo(EFS.NONE, monitor);
+			latencies[i] = millis(System.nanoTime() - start);
+			assertEquals(SMALL_FILE_SIZE, info.getLength());
+		}
+		report.addRate(getName(), "stat", smallFiles, System.nanoTime() - total); //$NON-NLS-1$
+		report.add(getName(), "stat latency", "ms", latencies); //$NON-NLS-1$ //$NON-NLS-2$
+
+		double[] listLatencies = new double[listRuns];
+		for (int i = 0; i < listRuns; i++) {
+			long start = System.nanoTime();
+			IFileInfo[] infos = dir.childInfos(EFS.NONE, monitor);
+			listLatencies[i] = millis(System.nanoTime() - start);
+			assertEquals(smallFiles, infos.length);
+		}
+		report.add(getName(), "list " + smallFiles + " latency", "ms", listLatencies); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		total = System.nanoTime();
+		for (int i = 0; i < smallFiles; i++) {
+			long start = System.nanoTime();
+			assertEquals(SMALL_FILE_SIZE, read(files[i], content));
+			latencies[i] = millis(System.nanoTime() - start);
+		}
+		report.addRate(getName(), "read", smallFiles, System.nanoTime() - total); //$NON-NLS-1$
+		report.add(getName(), "read latency", "ms", latencies); //$NON-NLS-1$ //$NON-NLS-2$
+
+		total = System.nanoTime();
+		for (int i = 0; i < smallFiles; i++) {
+			long start = System.nanoTime();
+			files[i].delete(EFS.NONE, monitor);
+			latencies[i] = millis(System.nanoTime() - start);
+		}
+		report.addRate(getName(), "delete", smallFiles, System.nanoTime() - total); //$NON-NLS-1$
+		report.add(getName(), "delete latency", "ms", latencies); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testLargeFileThroughput() throws Exception {
+		long size = largeFileSize;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		for (int i = 0; i < buffer.length; i++) {
+			buffer[i] = (byte) i;
+		}
+		IFileStore file = dir.getChild("large"); //$NON-NLS-1$
+
+		long start = System.nanoTime();
+		write(file, buffer, size);
+		report.addThroughput(getName(), "upload", size, System.nanoTime() - start); //$NON-NLS-1$
+
+		start = System.nanoTime();
+		assertEquals(size, read(file, buffer));
+		report.addThroughput(getName(), "download", size, System.nanoTime() - start); //$NON-NLS-1$
+
+		IFileStore copy = EFS.getLocalFileSystem().getStore(new java.io.File(getWorkDirectory(), "large.copy").toURI()); //$NON-NLS-1$
+		start = System.nanoTime();
+		file.copy(copy, EFS.OVERWRITE, monitor);
+		report.addThroughput(getName(), "copy to local", size, System.nanoTime() - start); //$NON-NLS-1$
+		assertEquals(size, copy.fetchInfo().getLength());
+	}
+
+	public void testExecLatency() throws Exception {
+		IRemoteProcessService processService = connection.getService(IRemoteProcessService.class);
+		double[] samples = new double[execRuns];
+		for (int i = 0; i < execRuns; i++) {
+			long start = System.nanoTime();
+			IRemoteProcess process = processService.getProcessBuilder("true").start(); //$NON-NLS-1$
+			assertEquals(0, process.waitFor());
+			samples[i] = millis(System.nanoTime() - start);
+		}
+		report.add(getName(), "true", "ms", samples); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testConcurrentOps() throws Exception {
+		final IFileStore[] files = new IFileStore[CONCURRENT_FILES];
+		byte[] content = new byte[SMALL_FILE_SIZE];
+		for (int i = 0; i < CONCURRENT_FILES; i++) {
+			files[i] = dir.getChild("file" + i); //$NON-NLS-1$
+			write(files[i], content, content.length);
+		}
+		for (int threads : THREADS) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Callable<Double>> tasks = new ArrayList<>();
+				for (int i = 0; i < concurrentOps; i++) {
+					final IFileStore file = files[i % CONCURRENT_FILES];
+					tasks.add(new Callable<Double>() {
+						@Override
+						public Double call() throws Exception {
+							long start = System.nanoTime();
+							file.fetchInfo(EFS.NONE, new NullProgressMonitor());
+							return millis(System.nanoTime() - start);
+						}
+					});
+				}
+				long start = System.nanoTime();
+				List<Future<Double>> results = executor.invokeAll(tasks);
+				long elapsed = System.nanoTime() - start;
+				List<Double> latencies = new ArrayList<>();
+				for (Future<Double> result : results) {
+					latencies.add(result.get());
+				}
+				report.addRate(getName(), "stat x" + threads, concurrentOps, elapsed); //$NON-NLS-1$
+				report.add(getName(), "stat x" + threads + " latency", "ms", toArray(latencies)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private String getWorkDirectory() {
+		return PerformanceSetup.getCurrent().getWorkDirectory();
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		PerformanceSetup setup = PerformanceSetup.getCurrent();
+		assertNotNull("Run with PerformanceTests.suite()", setup); //$NON-NLS-1$
+		connection = setup.getConnection();
+		if (!connection.isOpen()) {
+			connection.open(monitor);
+		}
+		fileService = connection.getService(IRemoteFileService.class);
+		report = setup.getReport();
+		connectRuns = setup.scale(CONNECT_RUNS, MIN_RUNS);
+		smallFiles = setup.scale(SMALL_FILES, MIN_RUNS);
+		listRuns = setup.scale(LIST_RUNS, MIN_RUNS);
+		execRuns = setup.scale(EXEC_RUNS, MIN_RUNS);
+		concurrentOps = setup.scale(CONCURRENT_OPS, CONCURRENT_FILES);
+		largeFileSize = setup.scale(Integer.getInteger(LARGE_FILE_PROPERTY, 32), MIN_LARGE_FILE_SIZE) * 1024L * 1024L;
+		dir = fileService.getResource(getWorkDirectory()).getChild(getName());
+		dir.mkdir(EFS.NONE, monitor);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (dir != null) {
+			dir.delete(EFS.NONE, monitor);
+		}
+	}
+}
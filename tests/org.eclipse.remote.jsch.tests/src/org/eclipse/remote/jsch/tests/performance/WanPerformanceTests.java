@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2015 QNX Software Systems and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.remote.jsch.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Runs {@link PerformanceTests} through a {@link LatencyProxy} for each of a set of round trip times, writing a report
+ * per round trip time. Localhost hides the cost of round trips, so this is what shows the effect of changes to how the
+ * provider talks to the server.
+ *
+ * The round trip times in milliseconds are given as a comma separated list by the {@link #RTT_PROPERTY} system property
+ * (default {@value #DEFAULT_RTTS}). The jitter in milliseconds and the bandwidth in KB/s are given by the
+ * {@link #JITTER_PROPERTY} and {@link #BANDWIDTH_PROPERTY} system properties, by default there is neither.
+ */
+public class WanPerformanceTests {
+	public static final String RTT_PROPERTY = "org.eclipse.remote.jsch.tests.performance.rtt"; //$NON-NLS-1$
+	public static final String JITTER_PROPERTY = "org.eclipse.remote.jsch.tests.performance.jitter"; //$NON-NLS-1$
+	public static final String BANDWIDTH_PROPERTY = "org.eclipse.remote.jsch.tests.performance.bandwidth"; //$NON-NLS-1$
+	public static final String DEFAULT_RTTS = "1,50,200"; //$NON-NLS-1$
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(WanPerformanceTests.class.getName());
+		int jitter = Integer.getInteger(JITTER_PROPERTY, 0);
+		long bandwidth = Long.getLong(BANDWIDTH_PROPERTY, 0) * 1024;
+		for (String rtt : System.getProperty(RTT_PROPERTY, DEFAULT_RTTS).split(",")) { //$NON-NLS-1$
+			NetworkConditions conditions = new NetworkConditions(Integer.parseInt(rtt.trim()), jitter, bandwidth);
+			suite.addTest(new PerformanceSetup(new TestSuite(PerformanceTests.class, conditions.toString()), conditions));
+		}
+		return suite;
+	}
+}